@@ -10,6 +10,7 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
+import java.util.function.Predicate;
 
 @Service("securityService")
 @RequiredArgsConstructor
@@ -60,6 +61,23 @@ public class DefaultSecurityService implements SecurityService {
                 hasPermission("OWN_ENTITY_BULK_DELETE");
     }
 
+    public boolean canBulkUpdate(String entityType) {
+        return hasPermission("ALL_ENTITY_UPDATE") ||
+                hasPermission("OWN_ENTITY_UPDATE");
+    }
+
+    // Права и имя пользователя читаются один раз, а не на каждый элемент пакета
+    public Predicate<AuditableEntity> getUpdatableEntityFilter() {
+        if (hasPermission("ALL_ENTITY_UPDATE")) {
+            return entity -> true;
+        }
+        if (!hasPermission("OWN_ENTITY_UPDATE")) {
+            return entity -> false;
+        }
+        String currentUsername = userService.getAuthenticatedUser().getUsername();
+        return entity -> isOwnerOrSystem(entity, currentUsername);
+    }
+
     public boolean canReadImport(Long importId, String entityType) {
         return hasPermission("READ_ALL_IMPORT") ||
                 hasPermission("READ_OWN_IMPORT") && isOwnerOrSystem(importId, entityType);
@@ -69,6 +87,10 @@ public class DefaultSecurityService implements SecurityService {
         AuditableEntity entity = getEntity(entityId, entityType);
         if (entity == null) return true;
         String currentUsername = userService.getAuthenticatedUser().getUsername();
+        return isOwnerOrSystem(entity, currentUsername);
+    }
+
+    private static boolean isOwnerOrSystem(AuditableEntity entity, String currentUsername) {
         String entityOwner = entity.getCreatedBy();
 
         return entityOwner == null || "system".equals(entityOwner) || currentUsername.equals(entityOwner);
@@ -1,5 +1,9 @@
 package org.is.auth.service.security;
 
+import org.is.model.AuditableEntity;
+
+import java.util.function.Predicate;
+
 public interface SecurityService {
 
     boolean hasPermission(String permission);
@@ -18,4 +22,9 @@ public interface SecurityService {
 
     boolean canBulkDelete(String entityType);
 
+    boolean canBulkUpdate(String entityType);
+
+    // Поштучная проверка права на изменение уже загруженных сущностей в bulk-операциях
+    Predicate<AuditableEntity> getUpdatableEntityFilter();
+
 }
@@ -1,11 +1,17 @@
 package org.is.bandmanager.config;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -13,6 +19,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Configuration
 @EnableAsync
 @EnableScheduling
+@RequiredArgsConstructor
 public class BandManagerAsyncConfig {
 
     private final static int CORE_POOL_SIZE = 5;
@@ -27,27 +34,37 @@ public class BandManagerAsyncConfig {
 
     private final static int IMPORT_QUEUE_CAPACITY = 500;
 
+    private final static int SCHEDULER_POOL_SIZE = 2;
+
+    private final Environment environment;
+
     @Bean(name = "cleanupTaskExecutor")
     public TaskExecutor cleanUpTaskExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreadExecutor("cleanup-");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(CORE_POOL_SIZE);
         executor.setMaxPoolSize(MAX_POOL_SIZE);
         executor.setQueueCapacity(QUEUE_CAPACITY);
         executor.setThreadNamePrefix("cleanup-");
-	    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         executor.initialize();
         return executor;
     }
 
     @Bean("subscriptionTaskExecutor")
     public TaskExecutor subscriptionTaskExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreadExecutor("subscription-");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(CORE_POOL_SIZE);
         executor.setMaxPoolSize(MAX_POOL_SIZE);
         executor.setQueueCapacity(QUEUE_CAPACITY);
         executor.setThreadNamePrefix("subscription-");
-	    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-	    executor.initialize();
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
         return executor;
     }
 
@@ -59,8 +76,38 @@ public class BandManagerAsyncConfig {
         executor.setMaxPoolSize(IMPORT_MAX_POOL_SIZE);
         executor.setQueueCapacity(IMPORT_QUEUE_CAPACITY);
         executor.setThreadNamePrefix("import-");
-	    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-	    executor.initialize();
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Планировщик @Scheduled по умолчанию. Без него Spring взял бы единственный TaskScheduler в контексте —
+    // планировщик брокера STOMP, который шлёт heartbeat
+    @Bean("taskScheduler")
+    public TaskScheduler taskScheduler() {
+        return scheduler("scheduling-");
+    }
+
+    // Окно склейки событий подписок и опрос журнала событий других узлов: свои потоки, чтобы рассылка,
+    // выполненная CallerRunsPolicy при заполненном subscriptionTaskExecutor, не задерживала heartbeat
+    @Bean("subscriptionTaskScheduler")
+    public TaskScheduler subscriptionTaskScheduler() {
+        return scheduler("subscription-scheduler-");
+    }
+
+    private static TaskScheduler scheduler(String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(SCHEDULER_POOL_SIZE);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // spring.threads.virtual.enabled на Java 21+: задачи почти всё время ждут JDBC и сокет, поэтому каждой
+    // свой виртуальный поток без очереди. Одновременные запросы к БД ограничивает SubscriptionQueryLimiter
+    private static TaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
         return executor;
     }
 
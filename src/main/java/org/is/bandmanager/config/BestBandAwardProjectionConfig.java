@@ -0,0 +1,38 @@
+package org.is.bandmanager.config;
+
+import org.is.bandmanager.model.BestBandAward;
+import org.is.util.projection.ProjectionConfig;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+@Configuration
+public class BestBandAwardProjectionConfig implements ProjectionConfig {
+
+    private static final Map<String, String> SELECTABLE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        SELECTABLE_FIELDS.put("id", "id");
+        SELECTABLE_FIELDS.put("bandId", "band.id");
+        SELECTABLE_FIELDS.put("bandName", "band.name");
+        SELECTABLE_FIELDS.put("genre", "genre");
+        SELECTABLE_FIELDS.put("createdBy", "createdBy");
+        SELECTABLE_FIELDS.put("createdDate", "createdDate");
+        SELECTABLE_FIELDS.put("lastModifiedBy", "lastModifiedBy");
+        SELECTABLE_FIELDS.put("lastModifiedDate", "lastModifiedDate");
+        SELECTABLE_FIELDS.put("version", "version");
+    }
+
+    @Override
+    public Class<?> getEntityClass() {
+        return BestBandAward.class;
+    }
+
+    @Override
+    public Map<String, String> getSelectableFields() {
+        return SELECTABLE_FIELDS;
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.is.bandmanager.config;
+
+import org.is.bandmanager.model.MusicBand;
+import org.is.util.projection.ProjectionConfig;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@Configuration
+public class MusicBandProjectionConfig implements ProjectionConfig {
+
+    private static final Map<String, String> SELECTABLE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        List.of("id", "name", "genre", "numberOfParticipants", "singlesCount", "description",
+                        "albumsCount", "establishmentDate",
+                        "coordinates.id", "coordinates.x", "coordinates.y",
+                        "bestAlbum.id", "bestAlbum.name", "bestAlbum.tracks", "bestAlbum.sales",
+                        "frontMan.id", "frontMan.name", "frontMan.eyeColor", "frontMan.hairColor",
+                        "frontMan.weight", "frontMan.nationality",
+                        "frontMan.location.id", "frontMan.location.x", "frontMan.location.y", "frontMan.location.z",
+                        "createdBy", "createdDate", "lastModifiedBy", "lastModifiedDate", "version")
+                .forEach(field -> SELECTABLE_FIELDS.put(field, field));
+    }
+
+    @Override
+    public Class<?> getEntityClass() {
+        return MusicBand.class;
+    }
+
+    @Override
+    public Map<String, String> getSelectableFields() {
+        return SELECTABLE_FIELDS;
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.is.bandmanager.constants;
+
+public final class MusicBandConstants {
+
+    public static final int MAX_BATCH_GET_SIZE = 5000;
+
+    public static final int MAX_BULK_WRITE_SIZE = 1000;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+}
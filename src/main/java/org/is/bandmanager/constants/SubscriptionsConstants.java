@@ -1,9 +0,0 @@
-package org.is.bandmanager.constants;
-
-public final class SubscriptionsConstants {
-
-    public static final int DEAD_SUBSCRIPTION_LIMIT_SECONDS = 3600;
-
-    public static final int DEAD_SUBSCRIPTION_CHECK_INTERVAL_MILLISECONDS = 1800000;
-
-}
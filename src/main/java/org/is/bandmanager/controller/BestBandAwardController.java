@@ -19,8 +19,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/best-band-awards")
 @RequiredArgsConstructor
@@ -30,10 +33,13 @@ public class BestBandAwardController {
 
     @GetMapping()
     @PreAuthorize("@securityService.canReadEntity()")
-    public ResponseEntity<Page<BestBandAwardDto>> getAllBestBandAwardsFiltered(
+    public ResponseEntity<Page<?>> getAllBestBandAwardsFiltered(
             @ModelAttribute BestBandAwardFilter filter,
-            @ModelAttribute PageableRequest config) {
-        Page<BestBandAwardDto> awards = bestBandAwardService.getAll(filter, config);
+            @ModelAttribute PageableRequest config,
+            @RequestParam(required = false) List<String> fields) {
+        Page<?> awards = fields == null || fields.isEmpty()
+                ? bestBandAwardService.getAll(filter, config)
+                : bestBandAwardService.getAll(filter, config, fields);
         return ResponseEntity.ok(awards);
     }
 
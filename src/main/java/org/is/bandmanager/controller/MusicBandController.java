@@ -3,14 +3,24 @@ package org.is.bandmanager.controller;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
 import lombok.RequiredArgsConstructor;
+import org.is.auth.service.security.SecurityService;
 import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.bulk.BulkResult;
+import org.is.bandmanager.dto.request.MusicBandBulkCreateRequest;
+import org.is.bandmanager.dto.request.MusicBandBulkUpdateRequest;
 import org.is.bandmanager.dto.request.MusicBandCreateRequest;
 import org.is.bandmanager.dto.request.MusicBandUpdateRequest;
 import org.is.bandmanager.repository.filter.MusicBandFilter;
 import org.is.bandmanager.service.musicBand.MusicBandService;
+import org.is.bandmanager.service.musicBand.bulk.MusicBandBulkService;
+import org.is.bandmanager.service.musicBand.etag.MusicBandETagService;
+import org.is.bandmanager.service.musicBand.export.MusicBandExportFormat;
+import org.is.bandmanager.service.musicBand.export.MusicBandExportService;
 import org.is.util.pageable.PageableRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,9 +34,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 
 @RestController
@@ -36,6 +49,14 @@ public class MusicBandController {
 
 	private final MusicBandService musicBandService;
 
+	private final MusicBandExportService musicBandExportService;
+
+	private final MusicBandETagService musicBandETagService;
+
+	private final MusicBandBulkService musicBandBulkService;
+
+	private final SecurityService securityService;
+
 	@GetMapping("/all")
 	@PreAuthorize("@securityService.canReadEntity()")
 	public ResponseEntity<List<MusicBandDto>> getAllMusicBands() {
@@ -43,18 +64,72 @@ public class MusicBandController {
 		return ResponseEntity.ok(bands);
 	}
 
+	@GetMapping("/export")
+	@PreAuthorize("@securityService.canReadEntity()")
+	public ResponseEntity<StreamingResponseBody> exportMusicBands(@RequestParam(defaultValue = "NDJSON") MusicBandExportFormat format) {
+		StreamingResponseBody body = outputStream -> musicBandExportService.export(format, outputStream);
+		String filename = "music-bands." + format.getExtension();
+		return ResponseEntity.ok()
+				.contentType(format.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+				.body(body);
+	}
+
 	@GetMapping()
 	@PreAuthorize("@securityService.canReadEntity()")
-	public ResponseEntity<Page<MusicBandDto>> getAllMusicBands(@ModelAttribute MusicBandFilter filter, @ModelAttribute PageableRequest config) {
-		Page<MusicBandDto> bands = musicBandService.getAll(filter, config);
+	public ResponseEntity<Page<?>> getAllMusicBands(@ModelAttribute MusicBandFilter filter, @ModelAttribute PageableRequest config,
+												   @RequestParam(required = false) List<String> fields, WebRequest request) {
+		// Тег берётся до запроса: изменение во время выборки даст лишний 200, но не ложный 304
+		String eTag = musicBandETagService.getCollectionETag();
+		if (request.checkNotModified(eTag)) {
+			return null;
+		}
+		// fields=id,name,genre — в SELECT и в ответ попадают только перечисленные поля
+		Page<?> bands = fields == null || fields.isEmpty()
+				? musicBandService.getAll(filter, config)
+				: musicBandService.getAll(filter, config, fields);
+		return ResponseEntity.ok().eTag(eTag).body(bands);
+	}
+
+	@GetMapping("/search")
+	@PreAuthorize("@securityService.canReadEntity()")
+	public ResponseEntity<Page<MusicBandDto>> searchMusicBands(@RequestParam("q") String query, @ModelAttribute PageableRequest config) {
+		Page<MusicBandDto> bands = musicBandService.search(query, config);
+		return ResponseEntity.ok(bands);
+	}
+
+	@PostMapping("/bulk")
+	@PreAuthorize("@securityService.canCreate()")
+	public ResponseEntity<BulkResult<MusicBandDto>> createMusicBands(@RequestBody List<MusicBandBulkCreateRequest> requests) {
+		BulkResult<MusicBandDto> result = musicBandBulkService.create(requests);
+		return ResponseEntity.ok(result);
+	}
+
+	@PutMapping("/bulk")
+	@PreAuthorize("@securityService.canBulkUpdate('MusicBand')")
+	public ResponseEntity<BulkResult<MusicBandDto>> updateMusicBands(@RequestBody List<MusicBandBulkUpdateRequest> requests) {
+		// Без ALL_ENTITY_UPDATE чужие группы отклоняются поштучно, а не всем запросом
+		BulkResult<MusicBandDto> result = musicBandBulkService.update(requests, securityService.getUpdatableEntityFilter());
+		return ResponseEntity.ok(result);
+	}
+
+	@PostMapping("/batch-get")
+	@PreAuthorize("@securityService.canReadEntity()")
+	public ResponseEntity<List<MusicBandDto>> getMusicBands(@RequestBody List<Long> ids) {
+		List<MusicBandDto> bands = musicBandService.getAll(ids);
 		return ResponseEntity.ok(bands);
 	}
 
 	@GetMapping("/{id}")
 	@PreAuthorize("@securityService.canReadEntity()")
-	public ResponseEntity<MusicBandDto> getMusicBand(@PathVariable Long id) {
+	public ResponseEntity<MusicBandDto> getMusicBand(@PathVariable Long id, WebRequest request) {
+		// Совпавший If-None-Match отвечаем 304 по индексу версий, не читая группу из БД
+		Optional<String> eTag = musicBandETagService.findBandETag(id);
+		if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+			return null;
+		}
 		MusicBandDto musicBand = musicBandService.get(id);
-		return ResponseEntity.ok(musicBand);
+		return ResponseEntity.ok().eTag(musicBandETagService.getBandETag(musicBand)).body(musicBand);
 	}
 
 	@GetMapping("/max-coordinates")
@@ -64,6 +139,13 @@ public class MusicBandController {
 		return ResponseEntity.ok(musicBand);
 	}
 
+	@GetMapping("/nearest")
+	@PreAuthorize("@securityService.canReadEntity()")
+	public ResponseEntity<MusicBandDto> getNearest(@RequestParam double x, @RequestParam double y) {
+		MusicBandDto musicBand = musicBandService.getNearest(x, y);
+		return ResponseEntity.ok(musicBand);
+	}
+
 	@GetMapping("/established-before")
 	@PreAuthorize("@securityService.canReadEntity()")
 	public ResponseEntity<List<MusicBandDto>> getBandsEstablishedBefore(@RequestParam @NotNull(message = "Date parameter is required") @DateTimeFormat(pattern = "yyyy-MM-dd") @PastOrPresent(message = "Date cannot be in the future") Date date) {
@@ -72,6 +154,13 @@ public class MusicBandController {
 		return ResponseEntity.ok(bands);
 	}
 
+	@GetMapping("/established-before/page")
+	@PreAuthorize("@securityService.canReadEntity()")
+	public ResponseEntity<Page<MusicBandDto>> getBandsEstablishedBeforePage(@RequestParam @NotNull(message = "Date parameter is required") @DateTimeFormat(pattern = "yyyy-MM-dd") @PastOrPresent(message = "Date cannot be in the future") Date date, @ModelAttribute PageableRequest config) {
+		Page<MusicBandDto> bands = musicBandService.getByEstablishmentDateBefore(date, config);
+		return ResponseEntity.ok(bands);
+	}
+
 	@GetMapping("/unique-albums-count")
 	@PreAuthorize("@securityService.canReadEntity()")
 	public ResponseEntity<List<Long>> getUniqueAlbumsCount() {
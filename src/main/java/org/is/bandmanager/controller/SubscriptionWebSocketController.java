@@ -3,6 +3,7 @@ package org.is.bandmanager.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.is.bandmanager.service.subscription.SubscriptionService;
+import org.is.bandmanager.service.subscription.model.SubscriptionFormat;
 import org.is.bandmanager.service.subscription.model.request.BestBandAwardSubscriptionRequest;
 import org.is.bandmanager.service.subscription.model.request.MusicBandSubscriptionRequest;
 import org.springframework.context.event.EventListener;
@@ -35,7 +36,7 @@ public class SubscriptionWebSocketController {
     ) {
         String principalId = Objects.requireNonNull(accessor.getUser()).getName();
         log.debug("Creating MusicBand subscription for session {}: {}", principalId, request);
-        subscriptionService.createSubscription(principalId, request);
+        subscriptionService.createSubscription(principalId, accessor.getSessionId(), request);
     }
 
     @MessageMapping("/subscriptions/music-band.update")
@@ -55,7 +56,7 @@ public class SubscriptionWebSocketController {
     ) {
         String principalId = Objects.requireNonNull(accessor.getUser()).getName();
         log.debug("Creating BestBandAward subscription for session {}: {}", principalId, request);
-        subscriptionService.createSubscription(principalId, request);
+        subscriptionService.createSubscription(principalId, accessor.getSessionId(), request);
     }
 
     @MessageMapping("/subscriptions/award.update")
@@ -81,12 +82,10 @@ public class SubscriptionWebSocketController {
     @Async("subscriptionTaskExecutor")
     @EventListener(SessionDisconnectEvent.class)
     public void handleSessionDisconnect(SessionDisconnectEvent event) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-        String principalId = Objects.requireNonNull(accessor.getUser()).getName();
-        if (principalId != null) {
-            log.info("WebSocket session {} disconnected — cleaning up subscriptions", principalId);
-            subscriptionService.cancelAllPrincipalSubscriptions(principalId);
-        }
+        // Закрылась одна вкладка: подписки других сессий того же пользователя остаются
+        String sessionId = event.getSessionId();
+        log.info("WebSocket session {} disconnected — cleaning up subscriptions", sessionId);
+        subscriptionService.cancelAllSessionSubscriptions(sessionId);
     }
 
     @EventListener
@@ -95,7 +94,8 @@ public class SubscriptionWebSocketController {
             SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
             String destination = headers.getDestination();
             if (destination != null && destination.matches("/user/queue/subscriptions-.*")) {
-                subscriptionService.notifySubscription(UUID.fromString(destination.split("-", 2)[1]));
+                SubscriptionFormat format = SubscriptionFormat.fromHeader(headers.getFirstNativeHeader(SubscriptionFormat.HEADER));
+                subscriptionService.notifySubscription(UUID.fromString(destination.split("-", 2)[1]), format);
             }
         } catch (Exception ignored) {
         }
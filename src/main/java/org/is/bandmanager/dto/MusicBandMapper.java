@@ -1,12 +1,16 @@
 package org.is.bandmanager.dto;
 
+import org.is.bandmanager.dto.request.MusicBandBulkCreateRequest;
+import org.is.bandmanager.dto.request.MusicBandBulkUpdateRequest;
 import org.is.bandmanager.dto.request.MusicBandCreateRequest;
 import org.is.bandmanager.dto.request.MusicBandUpdateRequest;
 import org.is.bandmanager.model.MusicBand;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.control.DeepClone;
 
 @Mapper(componentModel = "spring",
         uses = {AlbumMapper.class, PersonMapper.class, CoordinatesMapper.class},
@@ -18,6 +22,10 @@ public interface MusicBandMapper {
     @Mapping(target = "frontMan", source = "frontMan")
     MusicBandDto toDto(MusicBand musicBand);
 
+    // Копия вместе с вложенными DTO: in-memory индексы не отдают наружу свои элементы
+    @BeanMapping(mappingControl = DeepClone.class)
+    MusicBandDto copy(MusicBandDto band);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "coordinates", ignore = true)
     @Mapping(target = "bestAlbum", ignore = true)
@@ -34,4 +42,22 @@ public interface MusicBandMapper {
     @Mapping(target = "lastModifiedDate", ignore = true)
     void updateEntityFromRequest(MusicBandUpdateRequest request, @MappingTarget MusicBand entity);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "coordinates", ignore = true)
+    @Mapping(target = "bestAlbum", ignore = true)
+    @Mapping(target = "frontMan", ignore = true)
+    MusicBand toEntity(MusicBandBulkCreateRequest request);
+
+    // Версию сверяет сервис: при несовпадении элемент отклоняется, а не перезаписывается
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "coordinates", ignore = true)
+    @Mapping(target = "bestAlbum", ignore = true)
+    @Mapping(target = "frontMan", ignore = true)
+    @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "lastModifiedBy", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    void updateEntityFromRequest(MusicBandBulkUpdateRequest request, @MappingTarget MusicBand entity);
+
 }
\ No newline at end of file
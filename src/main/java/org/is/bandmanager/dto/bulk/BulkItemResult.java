@@ -0,0 +1,26 @@
+package org.is.bandmanager.dto.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.is.exception.ErrorResponse;
+
+import java.util.List;
+
+// Результат одного элемента пакета: index — позиция в запросе, entity — при успехе, errors — при отказе
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult<T> {
+
+    private int index;
+
+    private int status;
+
+    private T entity;
+
+    private List<ErrorResponse.ErrorDetail> errors;
+
+}
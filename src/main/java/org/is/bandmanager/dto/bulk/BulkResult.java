@@ -0,0 +1,23 @@
+package org.is.bandmanager.dto.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult<T> {
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BulkItemResult<T>> items;
+
+}
@@ -0,0 +1,23 @@
+package org.is.bandmanager.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+// Без @UniqueMusicBandName: уникальность имён пакета проверяется одним запросом
+@Data
+@SuperBuilder
+@Jacksonized
+@Getter
+@Setter
+@EqualsAndHashCode(callSuper = true)
+public class MusicBandBulkCreateRequest extends MusicBandBaseRequest {
+
+	@NotBlank(message = "MusicBand.Name не может быть пустым")
+	private String name;
+
+}
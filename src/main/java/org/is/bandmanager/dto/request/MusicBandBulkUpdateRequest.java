@@ -0,0 +1,29 @@
+package org.is.bandmanager.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+// Без @UniqueMusicBandName: уникальность имён пакета проверяется одним запросом
+@Data
+@Getter
+@Setter
+@Jacksonized
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class MusicBandBulkUpdateRequest extends MusicBandBaseRequest {
+
+	@NotNull(message = "MusicBand.Id не может быть пустым")
+	private Long id;
+
+	@NotBlank(message = "MusicBand.Name не может быть пустым")
+	private String name;
+
+	private Long version;
+
+}
@@ -15,7 +15,9 @@ public enum BandManagerErrorMessage implements ErrorMessage {
     CANNOT_ACCESS_SOURCE(HttpStatus.UNAUTHORIZED, "Ресурс '%s' с ID: '%s' не может быть удалён или изменён вами"),
     CANNOT_REMOVE_LAST_PARTICIPANT(HttpStatus.BAD_REQUEST, "Невозможно удалить участника - в группе должен остаться хотя бы 1 участник"),
     ENTITY_IN_USE(HttpStatus.BAD_REQUEST, "Невозможно удалить ресурс '%s' с ID: '%s', так как он связан с другим ресурсом '%s'"),
-	MUST_BE_UNIQUE(HttpStatus.BAD_REQUEST, "Ресурс '%s' должен быть уникальным");
+	MUST_BE_UNIQUE(HttpStatus.BAD_REQUEST, "Ресурс '%s' должен быть уникальным"),
+    BATCH_SIZE_EXCEEDED(HttpStatus.BAD_REQUEST, "Размер пакета '%s' не может превышать %s"),
+    VERSION_MISMATCH(HttpStatus.CONFLICT, "Ресурс '%s' с ID: '%s' был изменён: версия %s, ожидалась %s");
 
 
     private final HttpStatus httpStatus;
@@ -10,9 +10,13 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -30,7 +34,16 @@ import java.util.Date;
 
 @Entity
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
-@Table(name = "music_band")
+@Table(name = "music_band", uniqueConstraints = @UniqueConstraint(name = "uq_music_band_name", columnNames = "name"))
+@NamedEntityGraph(
+        name = "MusicBand.details",
+        attributeNodes = {
+                @NamedAttributeNode("coordinates"),
+                @NamedAttributeNode("bestAlbum"),
+                @NamedAttributeNode(value = "frontMan", subgraph = "frontMan.location")
+        },
+        subgraphs = @NamedSubgraph(name = "frontMan.location", attributeNodes = @NamedAttributeNode("location"))
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -3,24 +3,37 @@ package org.is.bandmanager.repository;
 import org.is.bandmanager.repository.filter.BestBandAwardFilter;
 import org.is.bandmanager.model.BestBandAward;
 import org.is.bandmanager.repository.specifications.BestBandAwardSpecifications;
+import org.is.util.projection.FieldSelection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Map;
 
 
 @Repository("BestBandAwardRepository")
-public interface BestBandAwardRepository extends JpaRepository<BestBandAward, Long>, JpaSpecificationExecutor<BestBandAward> {
+public interface BestBandAwardRepository extends JpaRepository<BestBandAward, Long>, JpaSpecificationExecutor<BestBandAward>, BestBandAwardRepositoryCustom {
+
+    @Override
+    @EntityGraph(attributePaths = {"band", "band.coordinates", "band.bestAlbum", "band.frontMan", "band.frontMan.location"},
+            type = EntityGraph.EntityGraphType.LOAD)
+    Page<BestBandAward> findAll(Specification<BestBandAward> specification, Pageable pageable);
 
     default Page<BestBandAward> findWithFilter(BestBandAwardFilter filter, Pageable pageable) {
         Specification<BestBandAward> specification = BestBandAwardSpecifications.withFilter(filter);
         return findAll(specification, pageable);
     }
 
+    default Page<Map<String, Object>> findWithFilter(BestBandAwardFilter filter, FieldSelection selection, Pageable pageable) {
+        Specification<BestBandAward> specification = BestBandAwardSpecifications.withFilter(filter);
+        return findProjected(specification, selection, pageable);
+    }
+
     List<BestBandAward> deleteAllByBandIdIn(List<Long> bandIds);
 
 }
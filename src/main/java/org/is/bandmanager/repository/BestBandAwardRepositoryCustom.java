@@ -0,0 +1,15 @@
+package org.is.bandmanager.repository;
+
+import org.is.bandmanager.model.BestBandAward;
+import org.is.util.projection.FieldSelection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+
+public interface BestBandAwardRepositoryCustom {
+
+    Page<Map<String, Object>> findProjected(Specification<BestBandAward> specification, FieldSelection selection, Pageable pageable);
+
+}
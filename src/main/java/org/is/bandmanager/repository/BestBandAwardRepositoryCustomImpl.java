@@ -0,0 +1,24 @@
+package org.is.bandmanager.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.is.bandmanager.model.BestBandAward;
+import org.is.util.projection.FieldSelection;
+import org.is.util.projection.ProjectionQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BestBandAwardRepositoryCustomImpl implements BestBandAwardRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findProjected(Specification<BestBandAward> specification, FieldSelection selection, Pageable pageable) {
+        return ProjectionQuery.findAll(entityManager, BestBandAward.class, specification, selection, pageable);
+    }
+
+}
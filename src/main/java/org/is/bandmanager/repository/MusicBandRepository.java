@@ -1,48 +1,176 @@
 package org.is.bandmanager.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.is.bandmanager.model.MusicBand;
 import org.is.bandmanager.repository.filter.MusicBandFilter;
 import org.is.bandmanager.repository.specifications.MusicBandSpecifications;
+import org.is.util.projection.FieldSelection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Stream;
 
 
 @Repository("MusicBandRepository")
-public interface MusicBandRepository extends JpaRepository<MusicBand, Long>, JpaSpecificationExecutor<MusicBand> {
+public interface MusicBandRepository extends JpaRepository<MusicBand, Long>, JpaSpecificationExecutor<MusicBand>, MusicBandRepositoryCustom {
+
+	@Override
+	@EntityGraph(value = "MusicBand.details", type = EntityGraph.EntityGraphType.LOAD)
+	List<MusicBand> findAll();
+
+	@Override
+	@EntityGraph(value = "MusicBand.details", type = EntityGraph.EntityGraphType.LOAD)
+	Page<MusicBand> findAll(Specification<MusicBand> specification, Pageable pageable);
+
+	@Override
+	@EntityGraph(value = "MusicBand.details", type = EntityGraph.EntityGraphType.LOAD)
+	List<MusicBand> findAllById(Iterable<Long> ids);
 
 	default Page<MusicBand> findWithFilter(MusicBandFilter filter, Pageable pageable) {
 		Specification<MusicBand> specification = MusicBandSpecifications.withFilter(filter);
 		return findAll(specification, pageable);
 	}
 
-	@Query(value = """
-			 SELECT mb.* FROM music_band mb\s
-			 JOIN coordinates c ON mb.coordinates_id = c.id\s
-			 ORDER BY c.x DESC, c.y DESC\s
-			 LIMIT 1
-			\s""", nativeQuery = true)
-	Optional<MusicBand> findBandWithMaxCoordinates();
+	default Page<Map<String, Object>> findWithFilter(MusicBandFilter filter, FieldSelection selection, Pageable pageable) {
+		Specification<MusicBand> specification = MusicBandSpecifications.withFilter(filter);
+		return findProjected(specification, selection, pageable);
+	}
+
+	// Фильтр по id кандидатов, уже отобранных in-memory индексом
+	default Page<MusicBand> findWithFilter(MusicBandFilter filter, Collection<Long> ids, Pageable pageable) {
+		Specification<MusicBand> specification = MusicBandSpecifications.withIds(ids).and(MusicBandSpecifications.withFilter(filter));
+		return findAll(specification, pageable);
+	}
+
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+	})
+	@Query("""
+			SELECT m FROM MusicBand m
+			JOIN FETCH m.coordinates
+			JOIN FETCH m.bestAlbum
+			JOIN FETCH m.frontMan f
+			JOIN FETCH f.location
+			ORDER BY m.id
+			""")
+	Stream<MusicBand> streamAll();
+
+	// NULLS FIRST повторяет порядок PostgreSQL для DESC, m.id делает порядок детерминированным
+	@EntityGraph(value = "MusicBand.details", type = EntityGraph.EntityGraphType.LOAD)
+	@Query("""
+			SELECT m FROM MusicBand m
+			JOIN m.coordinates c
+			ORDER BY c.x DESC, c.y DESC NULLS FIRST, m.id
+			""")
+	List<MusicBand> findTopByCoordinates(Pageable pageable);
 
+	@EntityGraph(value = "MusicBand.details", type = EntityGraph.EntityGraphType.LOAD)
+	@Query("""
+			SELECT m FROM MusicBand m
+			JOIN m.coordinates c
+			WHERE c.y IS NOT NULL
+			ORDER BY (c.x - :x) * (c.x - :x) + (c.y - :y) * (c.y - :y), m.id
+			""")
+	List<MusicBand> findNearestTo(@Param("x") double x, @Param("y") double y, Pageable pageable);
+
+	@EntityGraph(value = "MusicBand.details", type = EntityGraph.EntityGraphType.LOAD)
 	List<MusicBand> findByEstablishmentDateBefore(Date date);
 
+	@EntityGraph(value = "MusicBand.details", type = EntityGraph.EntityGraphType.LOAD)
+	Page<MusicBand> findByEstablishmentDateBefore(Date date, Pageable pageable);
+
+	// Поиск по подстроке и нечёткому совпадению (pg_trgm, миграция V6): каждая ветка использует свой GIN-индекс,
+	// ранг группы — лучший из весов совпавших полей, точное вхождение подстроки поднимает совпадение наверх
+	@Query(value = """
+			WITH matches AS (
+			    SELECT mb.id, similarity(mb.name, :query) + CASE WHEN mb.name ILIKE :pattern THEN 1 ELSE 0 END AS score
+			    FROM music_band mb
+			    WHERE mb.name % :query OR mb.name ILIKE :pattern
+			    UNION ALL
+			    SELECT mb.id, 0.6 * (word_similarity(:query, mb.description) + CASE WHEN mb.description ILIKE :pattern THEN 1 ELSE 0 END)
+			    FROM music_band mb
+			    WHERE :query <% mb.description OR mb.description ILIKE :pattern
+			    UNION ALL
+			    SELECT mb.id, 0.8 * (similarity(p.name, :query) + CASE WHEN p.name ILIKE :pattern THEN 1 ELSE 0 END)
+			    FROM person p JOIN music_band mb ON mb.front_man_id = p.id
+			    WHERE p.name % :query OR p.name ILIKE :pattern
+			    UNION ALL
+			    SELECT mb.id, 0.8 * (similarity(a.name, :query) + CASE WHEN a.name ILIKE :pattern THEN 1 ELSE 0 END)
+			    FROM album a JOIN music_band mb ON mb.best_album_id = a.id
+			    WHERE a.name % :query OR a.name ILIKE :pattern
+			)
+			SELECT id FROM matches GROUP BY id ORDER BY MAX(score) DESC, id
+			""",
+			countQuery = """
+			SELECT count(*) FROM (
+			    SELECT mb.id FROM music_band mb WHERE mb.name % :query OR mb.name ILIKE :pattern
+			    UNION
+			    SELECT mb.id FROM music_band mb WHERE :query <% mb.description OR mb.description ILIKE :pattern
+			    UNION
+			    SELECT mb.id FROM person p JOIN music_band mb ON mb.front_man_id = p.id WHERE p.name % :query OR p.name ILIKE :pattern
+			    UNION
+			    SELECT mb.id FROM album a JOIN music_band mb ON mb.best_album_id = a.id WHERE a.name % :query OR a.name ILIKE :pattern
+			) matches
+			""",
+			nativeQuery = true)
+	Page<Long> searchIds(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
+
 	@Query("SELECT DISTINCT m.albumsCount FROM MusicBand m ORDER BY m.albumsCount")
 	List<Long> findDistinctAlbumsCount();
 
+	// Пары (id, albumsCount) для прогрева AlbumsCountIndex
+	@Query("SELECT m.id, m.albumsCount FROM MusicBand m")
+	List<Object[]> findAllAlbumsCounts();
+
+	// Пары (id, establishmentDate) для прогрева EstablishmentDateIndex
+	@Query("SELECT m.id, m.establishmentDate FROM MusicBand m")
+	List<Object[]> findAllEstablishmentDates();
+
+	// Строка (count, sum(id), min(establishmentDate), max(establishmentDate)) для сверки EstablishmentDateIndex
+	@Query("SELECT COUNT(m), SUM(m.id), MIN(m.establishmentDate), MAX(m.establishmentDate) FROM MusicBand m")
+	List<Object[]> findEstablishmentDateChecksum();
+
+	// Строки (id, coordinates.id, x, y) для прогрева CoordinatesSpatialIndex
+	@Query("SELECT m.id, c.id, c.x, c.y FROM MusicBand m JOIN m.coordinates c")
+	List<Object[]> findAllCoordinates();
+
+	// Строки (id, version, coordinates.id, coordinates.version, bestAlbum.id, bestAlbum.version,
+	// frontMan.id, frontMan.version, location.id, location.version) для прогрева MusicBandVersionIndex
+	@Query("""
+			SELECT m.id, m.version, c.id, c.version, a.id, a.version, p.id, p.version, l.id, l.version
+			FROM MusicBand m
+			JOIN m.coordinates c
+			JOIN m.bestAlbum a
+			JOIN m.frontMan p
+			JOIN p.location l
+			""")
+	List<Object[]> findAllVersions();
+
 	boolean existsByCoordinatesId(Long coordinatesId);
 
 	boolean existsByBestAlbumId(Long bestAlbumId);
 
 	boolean existsByName(String name);
 
+	// Пары (name, id) для проверки уникальности имён пакета одним запросом
+	@Query("SELECT m.name, m.id FROM MusicBand m WHERE m.name IN :names")
+	List<Object[]> findIdsByNames(@Param("names") Collection<String> names);
+
 	boolean existsByNameAndIdNot(String name, Long id);
 
 }
@@ -0,0 +1,30 @@
+package org.is.bandmanager.repository;
+
+import org.is.bandmanager.model.MusicBand;
+import org.is.util.projection.FieldSelection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface MusicBandRepositoryCustom {
+
+    // Группы в порядке переданных id (отсутствующие — null): сначала persistence context и L2-кэш,
+    // остальное одним запросом с IN
+    List<MusicBand> multiLoad(List<Long> ids);
+
+    Page<Map<String, Object>> findProjected(Specification<MusicBand> specification, FieldSelection selection, Pageable pageable);
+
+    // Удаление набором: награды и группы удаляются двумя DELETE ... WHERE ... = ANY(?) без загрузки сущностей.
+    // Возвращает отсоединённые копии удалённых групп (в порядке переданных id), собранные из RETURNING
+    List<MusicBand> deleteAllByIdReturning(Collection<Long> ids);
+
+    // Атомарно уменьшает numberOfParticipants и поднимает version одним UPDATE ... RETURNING;
+    // пусто, если группы нет или в ней остался последний участник
+    Optional<MusicBand> decrementParticipants(Long id);
+
+}
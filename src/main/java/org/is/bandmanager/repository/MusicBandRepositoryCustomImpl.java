@@ -0,0 +1,213 @@
+package org.is.bandmanager.repository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.is.bandmanager.model.Album;
+import org.is.bandmanager.model.BestBandAward;
+import org.is.bandmanager.model.Coordinates;
+import org.is.bandmanager.model.MusicBand;
+import org.is.bandmanager.model.MusicGenre;
+import org.is.bandmanager.model.Person;
+import org.is.util.projection.FieldSelection;
+import org.is.util.projection.ProjectionQuery;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class MusicBandRepositoryCustomImpl implements MusicBandRepositoryCustom {
+
+    // Native DML без явных query spaces сбрасывает весь L2-кэш, а с именами таблиц — целиком регионы
+    // MusicBand и BestBandAward. Синхронизируемся на пространстве, которого нет ни у одной сущности,
+    // и вытесняем из кэша только затронутые записи
+    private static final String NATIVE_DML_QUERY_SPACE = "music_band_native_dml";
+
+    private static final String DELETE_AWARDS = "DELETE FROM best_band_award WHERE band_id = ANY(:ids) RETURNING id";
+
+    private static final String BAND_COLUMNS = """
+            id, name, coordinates_id, genre, number_of_participants, singles_count, description,
+            best_album_id, albums_count, establishment_date, front_man_id,
+            version, created_by, created_date, last_modified_by, last_modified_date
+            """;
+
+    private static final String DELETE_BANDS = "DELETE FROM music_band WHERE id = ANY(:ids) RETURNING " + BAND_COLUMNS;
+
+    // Проверка и декремент в одном операторе: строка блокируется на время UPDATE,
+    // поэтому параллельные запросы не теряют изменений и не опускают счётчик ниже 1
+    private static final String DECREMENT_PARTICIPANTS = """
+            UPDATE music_band
+            SET number_of_participants = number_of_participants - 1,
+                version = COALESCE(version, 0) + 1,
+                last_modified_by = :modifiedBy,
+                last_modified_date = :modifiedDate
+            WHERE id = :id AND number_of_participants > 1
+            RETURNING
+            """ + BAND_COLUMNS;
+
+    private final EntityManager entityManager;
+
+    private final AuditorAware<String> auditorAware;
+
+    private final DateTimeProvider dateTimeProvider;
+
+    @Override
+    public List<MusicBand> multiLoad(List<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(MusicBand.class)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .multiLoad(ids);
+    }
+
+    @Override
+    public Page<Map<String, Object>> findProjected(Specification<MusicBand> specification, FieldSelection selection, Pageable pageable) {
+        return ProjectionQuery.findAll(entityManager, MusicBand.class, specification, selection, pageable);
+    }
+
+    @Override
+    public List<MusicBand> deleteAllByIdReturning(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Session session = entityManager.unwrap(Session.class);
+        // Отложенные изменения должны попасть в БД до DELETE: auto-flush по чужому query space не сработает
+        session.flush();
+        Long[] idArray = ids.stream().filter(Objects::nonNull).distinct().toArray(Long[]::new);
+
+        List<Long> awardIds = session.createNativeQuery(DELETE_AWARDS, Long.class)
+                .setParameter("ids", idArray)
+                .addSynchronizedQuerySpace(NATIVE_DML_QUERY_SPACE)
+                .getResultList();
+
+        List<Object[]> rows = withBandScalars(session.createNativeQuery(DELETE_BANDS, Object[].class))
+                .setParameter("ids", idArray)
+                .addSynchronizedQuerySpace(NATIVE_DML_QUERY_SPACE)
+                .getResultList();
+
+        List<Long> bandIds = rows.stream().map(row -> (Long) row[0]).toList();
+        evict(BestBandAward.class, awardIds);
+        evict(MusicBand.class, bandIds);
+        return toBands(session, rows, ids);
+    }
+
+    @Override
+    public Optional<MusicBand> decrementParticipants(Long id) {
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        List<Object[]> rows = withBandScalars(session.createNativeQuery(DECREMENT_PARTICIPANTS, Object[].class))
+                .setParameter("id", id)
+                .setParameter("modifiedBy", auditorAware.getCurrentAuditor().orElse(null))
+                .setParameter("modifiedDate", LocalDateTime.from(dateTimeProvider.getNow().orElseThrow()))
+                .addSynchronizedQuerySpace(NATIVE_DML_QUERY_SPACE)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        evict(MusicBand.class, List.of(id));
+        return toBands(session, rows, List.of(id)).stream().findFirst();
+    }
+
+    private static <T> NativeQuery<T> withBandScalars(NativeQuery<T> query) {
+        return query
+                .addScalar("id", Long.class)
+                .addScalar("name", String.class)
+                .addScalar("coordinates_id", Long.class)
+                .addScalar("genre", String.class)
+                .addScalar("number_of_participants", Long.class)
+                .addScalar("singles_count", Long.class)
+                .addScalar("description", String.class)
+                .addScalar("best_album_id", Long.class)
+                .addScalar("albums_count", Long.class)
+                .addScalar("establishment_date", Date.class)
+                .addScalar("front_man_id", Long.class)
+                .addScalar("version", Long.class)
+                .addScalar("created_by", String.class)
+                .addScalar("created_date", LocalDateTime.class)
+                .addScalar("last_modified_by", String.class)
+                .addScalar("last_modified_date", LocalDateTime.class);
+    }
+
+    // Группы собираются из RETURNING (удалённые строки уже не загрузить, а изменённые незачем перечитывать),
+    // а живые зависимости подтягиваются пачкой по id (через persistence context и L2-кэш)
+    private List<MusicBand> toBands(Session session, List<Object[]> rows, Collection<Long> requestedIds) {
+        Map<Long, Coordinates> coordinates = loadById(session, Coordinates.class, rows, 2, Coordinates::getId);
+        Map<Long, Album> albums = loadById(session, Album.class, rows, 7, Album::getId);
+        Map<Long, Person> persons = loadById(session, Person.class, rows, 10, Person::getId);
+
+        Map<Long, MusicBand> bandsById = new HashMap<>();
+        for (Object[] row : rows) {
+            MusicBand band = MusicBand.builder()
+                    .id((Long) row[0])
+                    .name((String) row[1])
+                    .coordinates(coordinates.get((Long) row[2]))
+                    .genre(MusicGenre.valueOf((String) row[3]))
+                    .numberOfParticipants((Long) row[4])
+                    .singlesCount((Long) row[5])
+                    .description((String) row[6])
+                    .bestAlbum(albums.get((Long) row[7]))
+                    .albumsCount((Long) row[8])
+                    .establishmentDate((Date) row[9])
+                    .frontMan(persons.get((Long) row[10]))
+                    .build();
+            band.setVersion((Long) row[11]);
+            band.setCreatedBy((String) row[12]);
+            band.setCreatedDate((LocalDateTime) row[13]);
+            band.setLastModifiedBy((String) row[14]);
+            band.setLastModifiedDate((LocalDateTime) row[15]);
+            bandsById.put(band.getId(), band);
+        }
+        return requestedIds.stream()
+                .distinct()
+                .map(bandsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private <T> Map<Long, T> loadById(Session session, Class<T> entityClass, List<Object[]> rows, int column, Function<T, Long> idGetter) {
+        List<Long> ids = rows.stream().map(row -> (Long) row[column]).distinct().toList();
+        return session.byMultipleIds(entityClass)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .multiLoad(ids)
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+
+    // Вытесняем сразу и повторно после завершения транзакции: иначе параллельное чтение
+    // до коммита успело бы вернуть в кэш ещё не удалённую строку
+    private void evict(Class<?> entityClass, List<Long> ids) {
+        if (ids.isEmpty()) return;
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        ids.forEach(id -> cache.evict(entityClass, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(id -> cache.evict(entityClass, id));
+                }
+            });
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.is.bandmanager.repository.filter;
 
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import org.is.bandmanager.model.MusicGenre;
@@ -12,6 +13,7 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @Builder
+@EqualsAndHashCode
 public class BestBandAwardFilter implements EntityFilter {
 
     private MusicGenre genre;
@@ -2,6 +2,7 @@ package org.is.bandmanager.repository.filter;
 
 import jakarta.validation.constraints.DecimalMin;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import org.is.bandmanager.model.MusicGenre;
@@ -12,7 +13,8 @@ import java.util.Date;
 
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
+@EqualsAndHashCode
 public class MusicBandFilter implements EntityFilter {
 
     private String name;
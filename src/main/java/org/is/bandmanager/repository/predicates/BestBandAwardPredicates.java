@@ -0,0 +1,48 @@
+package org.is.bandmanager.repository.predicates;
+
+import org.is.bandmanager.dto.BestBandAwardDto;
+import org.is.bandmanager.repository.filter.BestBandAwardFilter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.is.bandmanager.repository.predicates.MusicBandPredicates.addEquals;
+import static org.is.bandmanager.repository.predicates.MusicBandPredicates.allOf;
+
+// In-memory аналог BestBandAwardSpecifications
+public final class BestBandAwardPredicates {
+
+    public static boolean matches(BestBandAwardFilter filter, BestBandAwardDto award) {
+        return compile(filter).test(award);
+    }
+
+    public static Predicate<BestBandAwardDto> compile(BestBandAwardFilter filter) {
+        if (filter == null) return award -> true;
+
+        List<Predicate<BestBandAwardDto>> conditions = new ArrayList<>();
+        addEquals(conditions, filter.getGenre(), BestBandAwardDto::getGenre);
+        addEquals(conditions, filter.getBandName(), BestBandAwardDto::getBandName);
+        addEquals(conditions, filter.getBandId(), BestBandAwardDto::getBandId);
+        LocalDate after = filter.getCreatedAtAfter();
+        if (after != null) {
+            LocalDateTime from = after.atStartOfDay();
+            conditions.add(award -> award.getCreatedDate() != null && !award.getCreatedDate().isBefore(from));
+        }
+        LocalDate before = filter.getCreatedAtBefore();
+        if (before != null) {
+            LocalDateTime to = before.atTime(LocalTime.MAX);
+            conditions.add(award -> award.getCreatedDate() != null && !award.getCreatedDate().isAfter(to));
+        }
+        return allOf(conditions);
+    }
+
+    // Переименование группы меняет результат такого фильтра
+    public static boolean dependsOnBands(BestBandAwardFilter filter) {
+        return filter != null && filter.getBandName() != null;
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.is.bandmanager.repository.predicates;
+
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// In-memory аналог MusicBandSpecifications: та же семантика фильтра, но проверяется на уже смапленном DTO
+public final class MusicBandPredicates {
+
+    public static boolean matches(MusicBandFilter filter, MusicBandDto band) {
+        return compile(filter).test(band);
+    }
+
+    // Фильтр, собранный в цепочку только из заданных условий: для подписок, проверяющих
+    // каждое событие, это дешевле повторного разбора всех полей. Значения копируются,
+    // поэтому последующие изменения фильтра на предикат не влияют
+    public static Predicate<MusicBandDto> compile(MusicBandFilter filter) {
+        if (filter == null) return band -> true;
+
+        List<Predicate<MusicBandDto>> conditions = new ArrayList<>();
+        addEquals(conditions, filter.getName(), MusicBandDto::getName);
+        addEquals(conditions, filter.getDescription(), MusicBandDto::getDescription);
+        addEquals(conditions, filter.getGenre(), MusicBandDto::getGenre);
+        addEquals(conditions, filter.getFrontManName(), band -> band.getFrontMan() != null ? band.getFrontMan().getName() : null);
+        addEquals(conditions, filter.getBestAlbumName(), band -> band.getBestAlbum() != null ? band.getBestAlbum().getName() : null);
+        addRange(conditions, filter.getMinParticipants(), filter.getMaxParticipants(), MusicBandDto::getNumberOfParticipants);
+        addRange(conditions, filter.getMinSingles(), filter.getMaxSingles(), MusicBandDto::getSinglesCount);
+        addRange(conditions, filter.getMinAlbumsCount(), filter.getMaxAlbumsCount(), MusicBandDto::getAlbumsCount);
+        addRange(conditions, filter.getMinCoordinateX(), filter.getMaxCoordinateX(), band -> band.getCoordinates() != null ? band.getCoordinates().getX() : null);
+        addRange(conditions, filter.getMinCoordinateY(), filter.getMaxCoordinateY(), band -> band.getCoordinates() != null ? band.getCoordinates().getY() : null);
+        Date after = filter.getEstablishmentDateAfter();
+        if (after != null) {
+            conditions.add(band -> band.getEstablishmentDate() != null && band.getEstablishmentDate().after(after));
+        }
+        Date before = filter.getEstablishmentDateBefore();
+        if (before != null) {
+            conditions.add(band -> band.getEstablishmentDate() != null && band.getEstablishmentDate().before(before));
+        }
+        addEquals(conditions, filter.getCreatedBy(), MusicBandDto::getCreatedBy);
+        return allOf(conditions);
+    }
+
+    // Результат такого фильтра может измениться при обновлении Person, Album или Coordinates
+    public static boolean dependsOnJoinedEntities(MusicBandFilter filter) {
+        return filter != null && (filter.getFrontManName() != null || filter.getBestAlbumName() != null || hasCoordinateBounds(filter));
+    }
+
+    public static boolean hasCoordinateBounds(MusicBandFilter filter) {
+        return filter != null && (filter.getMinCoordinateX() != null || filter.getMaxCoordinateX() != null
+                || filter.getMinCoordinateY() != null || filter.getMaxCoordinateY() != null);
+    }
+
+    public static boolean references(MusicBandDto band, Object dependency) {
+        if (dependency instanceof CoordinatesDto coordinates) {
+            return band.getCoordinates() != null && Objects.equals(band.getCoordinates().getId(), coordinates.getId());
+        }
+        if (dependency instanceof AlbumDto album) {
+            return band.getBestAlbum() != null && Objects.equals(band.getBestAlbum().getId(), album.getId());
+        }
+        if (dependency instanceof PersonDto person) {
+            return band.getFrontMan() != null && Objects.equals(band.getFrontMan().getId(), person.getId());
+        }
+        if (dependency instanceof LocationDto location) {
+            return band.getFrontMan() != null && band.getFrontMan().getLocation() != null
+                    && Objects.equals(band.getFrontMan().getLocation().getId(), location.getId());
+        }
+        return false;
+    }
+
+    static <T> Predicate<T> allOf(List<Predicate<T>> conditions) {
+        return switch (conditions.size()) {
+            case 0 -> value -> true;
+            case 1 -> conditions.get(0);
+            default -> {
+                List<Predicate<T>> copy = List.copyOf(conditions);
+                yield value -> {
+                    for (Predicate<T> condition : copy) {
+                        if (!condition.test(value)) return false;
+                    }
+                    return true;
+                };
+            }
+        };
+    }
+
+    static <T, V> void addEquals(List<Predicate<T>> conditions, V expected, Function<T, V> getter) {
+        if (expected != null) {
+            conditions.add(value -> expected.equals(getter.apply(value)));
+        }
+    }
+
+    // Как и BETWEEN в SQL: при заданной границе NULL-значение не проходит фильтр
+    static <T, V extends Comparable<V>> void addRange(List<Predicate<T>> conditions, V min, V max, Function<T, V> getter) {
+        if (min == null && max == null) return;
+        conditions.add(value -> {
+            V actual = getter.apply(value);
+            if (actual == null) return false;
+            return (min == null || actual.compareTo(min) >= 0) && (max == null || actual.compareTo(max) <= 0);
+        });
+    }
+
+}
@@ -9,8 +9,14 @@ import org.is.bandmanager.model.MusicBand;
 import org.is.bandmanager.model.Person;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
 public final class MusicBandSpecifications {
 
+    public static Specification<MusicBand> withIds(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
     public static Specification<MusicBand> withFilter(MusicBandFilter filter) {
         if (filter == null) return null;
 
@@ -85,7 +85,9 @@ public class AlbumServiceImpl implements AlbumService, CleanupStrategy<Album, Al
     public AlbumDto update(Long id, AlbumRequest request) {
         Album updatingAlbum = findById(id);
         mapper.updateEntityFromRequest(request, updatingAlbum);
-        AlbumDto updatedAlbum = mapper.toDto(albumRepository.save(updatingAlbum));
+        Album savedAlbum = albumRepository.save(updatingAlbum);
+        albumRepository.flush();
+        AlbumDto updatedAlbum = mapper.toDto(savedAlbum);
         eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedAlbum));
         return updatedAlbum;
     }
@@ -8,6 +8,7 @@ import org.is.util.pageable.PageableRequest;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Map;
 
 
 public interface BestBandAwardService {
@@ -16,6 +17,8 @@ public interface BestBandAwardService {
 
     Page<BestBandAwardDto> getAll(BestBandAwardFilter filter, PageableRequest config);
 
+    Page<Map<String, Object>> getAll(BestBandAwardFilter filter, PageableRequest config, List<String> fields);
+
     BestBandAwardDto get(Long id);
 
     BestBandAwardDto update(Long id, @Valid BestBandAwardRequest request);
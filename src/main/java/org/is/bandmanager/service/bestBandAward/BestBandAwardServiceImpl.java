@@ -13,6 +13,8 @@ import org.is.event.EntityEvent;
 import org.is.exception.ServiceException;
 import org.is.util.pageable.PageableFactory;
 import org.is.util.pageable.PageableRequest;
+import org.is.util.projection.FieldSelection;
+import org.is.util.projection.FieldSelectionFactory;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +22,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.ID_MUST_BE_POSITIVE;
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.MUST_BE_NOT_NULL;
@@ -44,6 +47,8 @@ public class BestBandAwardServiceImpl implements BestBandAwardService {
 
     private final PageableFactory pageableFactory;
 
+    private final FieldSelectionFactory fieldSelectionFactory;
+
     private BestBandAward findById(Long id) {
         if (id == null) {
             throw new ServiceException(MUST_BE_NOT_NULL, "BestBandAward.id");
@@ -75,6 +80,13 @@ public class BestBandAwardServiceImpl implements BestBandAwardService {
         return awards.map(mapper::toDto);
     }
 
+    @Override
+    public Page<Map<String, Object>> getAll(BestBandAwardFilter filter, PageableRequest config, List<String> fields) {
+        Pageable pageable = pageableFactory.create(config, BestBandAward.class);
+        FieldSelection selection = fieldSelectionFactory.create(fields, BestBandAward.class);
+        return bestBandAwardRepository.findWithFilter(filter, selection, pageable);
+    }
+
     @Override
     public BestBandAwardDto get(Long id) {
         return mapper.toDto(findById(id));
@@ -84,10 +96,11 @@ public class BestBandAwardServiceImpl implements BestBandAwardService {
     @Transactional
     public BestBandAwardDto update(Long id, BestBandAwardRequest request) {
         BestBandAward updatingAward = findById(id);
+        BestBandAwardDto previousAward = mapper.toDto(updatingAward);
         mapper.updateEntityFromRequest(request, updatingAward);
         handleDependencies(request, updatingAward);
         BestBandAwardDto updatedAward = mapper.toDto(bestBandAwardRepository.save(updatingAward));
-        eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedAward));
+        eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedAward, previousAward));
         return updatedAward;
     }
 
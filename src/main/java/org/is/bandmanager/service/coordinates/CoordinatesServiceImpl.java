@@ -86,7 +86,9 @@ public class CoordinatesServiceImpl implements CoordinatesService, CleanupStrate
     public CoordinatesDto update(Long id, CoordinatesRequest request) {
         Coordinates updatingCoordinates = findById(id);
         mapper.updateEntityFromRequest(request, updatingCoordinates);
-        CoordinatesDto updatedCoordinates = mapper.toDto(coordinatesRepository.save(updatingCoordinates));
+        Coordinates savedCoordinates = coordinatesRepository.save(updatingCoordinates);
+        coordinatesRepository.flush();
+        CoordinatesDto updatedCoordinates = mapper.toDto(savedCoordinates);
         eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedCoordinates));
         return updatedCoordinates;
     }
@@ -3,6 +3,8 @@ package org.is.bandmanager.service.imports.processor;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.MusicBandMapper;
 import org.is.bandmanager.dto.importRequest.AlbumImportRequest;
 import org.is.bandmanager.dto.importRequest.CoordinatesImportRequest;
 import org.is.bandmanager.dto.importRequest.LocationImportRequest;
@@ -18,6 +20,8 @@ import org.is.bandmanager.repository.CoordinatesRepository;
 import org.is.bandmanager.repository.LocationRepository;
 import org.is.bandmanager.repository.MusicBandRepository;
 import org.is.bandmanager.repository.PersonRepository;
+import org.is.event.EntityEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
@@ -28,6 +32,8 @@ import org.springframework.validation.SmartValidator;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.is.event.EventType.CREATED;
+
 
 @Slf4j
 @Service
@@ -46,10 +52,15 @@ public class MusicBandImportProcessor {
 
 	private final SmartValidator validator;
 
+	private final MusicBandMapper mapper;
+
+	private final ApplicationEventPublisher eventPublisher;
+
 	@Transactional(isolation = Isolation.SERIALIZABLE)
 	public List<Long> processImport(List<MusicBandImportRequest> importRequests, String username) {
 		log.info("Processing music band import records={} user={}", importRequests.size(), username);
 		List<Long> createdBandIds = new ArrayList<>();
+		List<MusicBandDto> createdBands = new ArrayList<>();
 		for (int i = 0; i < importRequests.size(); i++) {
 			MusicBandImportRequest request = importRequests.get(i);
 			String validationError = validateImportRequest(request);
@@ -63,12 +74,17 @@ public class MusicBandImportProcessor {
 				musicBand.setLastModifiedBy(username);
 				MusicBand savedBand = musicBandRepository.save(musicBand);
 				createdBandIds.add(savedBand.getId());
+				createdBands.add(mapper.toDto(savedBand));
 				log.debug("Created music band from import idx={} id={}", i, savedBand.getId());
 			} catch (Exception e) {
 				log.error("Failed to process import request at index {}: {}", i + 1, e.getMessage());
 				throw new RuntimeException("Import failed at record " + (i + 1));
 			}
 		}
+		// Одно событие на весь импорт: производные in-memory структуры и подписки обновляются один раз
+		if (!createdBands.isEmpty()) {
+			eventPublisher.publishEvent(new EntityEvent<>(CREATED, createdBands));
+		}
 		log.info("Completed music band import created={}", createdBandIds.size());
 		return createdBandIds;
 	}
@@ -86,7 +86,9 @@ public class LocationServiceImpl implements LocationService, CleanupStrategy<Loc
     public LocationDto update(Long id, LocationRequest request) {
         Location updatingLocation = findById(id);
         mapper.updateEntityFromRequest(request, updatingLocation);
-        LocationDto updatedLocation = mapper.toDto(locationRepository.save(updatingLocation));
+        Location savedLocation = locationRepository.save(updatingLocation);
+        locationRepository.flush();
+        LocationDto updatedLocation = mapper.toDto(savedLocation);
         eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedLocation));
         return updatedLocation;
     }
@@ -11,6 +11,7 @@ import org.springframework.data.domain.Page;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 
 public interface MusicBandService {
@@ -21,16 +22,26 @@ public interface MusicBandService {
 
     Page<MusicBandDto> getAll(@Valid MusicBandFilter filter, PageableRequest config);
 
+    Page<Map<String, Object>> getAll(@Valid MusicBandFilter filter, PageableRequest config, List<String> fields);
+
+    List<MusicBandDto> getAll(List<Long> ids);
+
     MusicBandDto get(Long id);
 
     MusicBand getEntity(Long id);
 
     MusicBandDto getWithMaxCoordinates();
 
+    MusicBandDto getNearest(double x, double y);
+
     List<MusicBandDto> getByEstablishmentDateBefore(Date date);
 
+    Page<MusicBandDto> getByEstablishmentDateBefore(Date date, PageableRequest config);
+
     List<Long> getDistinctAlbumsCount();
 
+    Page<MusicBandDto> search(String query, PageableRequest config);
+
     MusicBandDto update(Long id, @Valid MusicBandUpdateRequest request);
 
     MusicBandDto delete(Long id);
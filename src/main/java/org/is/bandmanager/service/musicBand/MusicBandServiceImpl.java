@@ -11,34 +11,52 @@ import org.is.bandmanager.model.MusicBand;
 import org.is.bandmanager.repository.BestBandAwardRepository;
 import org.is.bandmanager.repository.MusicBandRepository;
 import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.is.bandmanager.repository.predicates.MusicBandPredicates;
 import org.is.bandmanager.service.album.AlbumService;
 import org.is.bandmanager.service.coordinates.CoordinatesService;
+import org.is.bandmanager.service.musicBand.cache.MusicBandQueryCache;
+import org.is.bandmanager.service.musicBand.index.AlbumsCountIndex;
+import org.is.bandmanager.service.musicBand.index.CoordinatesSpatialIndex;
+import org.is.bandmanager.service.musicBand.index.EstablishmentDateIndex;
+import org.is.bandmanager.service.musicBand.index.MaxCoordinatesIndex;
+import org.is.bandmanager.service.musicBand.write.MusicBandWriteExecutor;
 import org.is.bandmanager.service.person.PersonService;
 import org.is.event.EntityEvent;
 import org.is.exception.ServiceException;
 import org.is.util.pageable.PageableFactory;
 import org.is.util.pageable.PageableRequest;
+import org.is.util.pageable.constants.PageableConstants;
+import org.is.util.projection.FieldSelection;
+import org.is.util.projection.FieldSelectionFactory;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.dao.CannotAcquireLockException;
-import org.springframework.dao.CannotSerializeTransactionException;
-import org.springframework.dao.DeadlockLoserDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import static org.is.bandmanager.constants.MusicBandConstants.MAX_BATCH_GET_SIZE;
+import static org.is.bandmanager.constants.MusicBandConstants.MAX_PAGE_SIZE;
+import static org.is.bandmanager.exception.message.BandManagerErrorMessage.BATCH_SIZE_EXCEEDED;
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.CANNOT_REMOVE_LAST_PARTICIPANT;
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.ID_MUST_BE_POSITIVE;
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.MUST_BE_NOT_NULL;
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.SOURCE_NOT_FOUND;
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.SOURCE_WITH_ID_NOT_FOUND;
+import static org.is.bandmanager.exception.message.BandManagerErrorMessage.VERSION_MISMATCH;
 import static org.is.event.EventType.BULK_DELETED;
 import static org.is.event.EventType.CREATED;
 import static org.is.event.EventType.DELETED;
@@ -67,6 +85,20 @@ public class MusicBandServiceImpl implements MusicBandService {
 
 	private final PageableFactory pageableFactory;
 
+	private final FieldSelectionFactory fieldSelectionFactory;
+
+	private final MusicBandQueryCache queryCache;
+
+	private final MaxCoordinatesIndex maxCoordinatesIndex;
+
+	private final AlbumsCountIndex albumsCountIndex;
+
+	private final EstablishmentDateIndex establishmentDateIndex;
+
+	private final CoordinatesSpatialIndex coordinatesSpatialIndex;
+
+	private final MusicBandWriteExecutor writeExecutor;
+
 	private MusicBand findById(Long id) {
 		if (id == null) {
 			throw new ServiceException(MUST_BE_NOT_NULL, "MusicBand.id");
@@ -90,17 +122,11 @@ public class MusicBandServiceImpl implements MusicBandService {
 	}
 
 	@Override
-	@Retryable(
-			include = {
-					CannotSerializeTransactionException.class,
-					DeadlockLoserDataAccessException.class,
-					CannotAcquireLockException.class
-			},
-			maxAttempts = 5,
-			backoff = @Backoff(delay = 250, multiplier = 2, maxDelay = 1000)
-	)
-	@Transactional(isolation = Isolation.SERIALIZABLE)
 	public MusicBandDto create(MusicBandCreateRequest request) {
+		return writeExecutor.execute(() -> doCreate(request));
+	}
+
+	private MusicBandDto doCreate(MusicBandCreateRequest request) {
 		log.info("Creating music band");
 		log.debug("Music band create request: {}", request);
 		MusicBand musicBand = mapper.toEntity(request);
@@ -119,8 +145,49 @@ public class MusicBandServiceImpl implements MusicBandService {
 	@Override
 	public Page<MusicBandDto> getAll(MusicBandFilter filter, PageableRequest config) {
 		Pageable pageable = pageableFactory.create(config, MusicBand.class);
-		Page<MusicBand> bands = musicBandRepository.findWithFilter(filter, pageable);
-		return bands.map(mapper::toDto);
+		return queryCache.get(filter, pageable, () -> findPage(filter, pageable));
+	}
+
+	private Page<MusicBandDto> findPage(MusicBandFilter filter, Pageable pageable) {
+		// Прямоугольник по координатам сначала сужаем k-d деревом, если кандидатов немного.
+		// Границы остаются и в SQL: индекс мог ещё не увидеть перемещение группы. По той же причине
+		// пустой набор кандидатов не означает пустую страницу — тогда запрос идёт без индекса
+		if (MusicBandPredicates.hasCoordinateBounds(filter) && coordinatesSpatialIndex.isAvailable()) {
+			Optional<List<Long>> candidates = coordinatesSpatialIndex.findIdsInBox(filter.getMinCoordinateX(), filter.getMaxCoordinateX(), filter.getMinCoordinateY(), filter.getMaxCoordinateY());
+			if (candidates.isPresent() && !candidates.get().isEmpty()) {
+				return musicBandRepository.findWithFilter(filter, candidates.get(), pageable).map(mapper::toDto);
+			}
+		}
+		return musicBandRepository.findWithFilter(filter, pageable).map(mapper::toDto);
+	}
+
+	@Override
+	public Page<Map<String, Object>> getAll(MusicBandFilter filter, PageableRequest config, List<String> fields) {
+		Pageable pageable = pageableFactory.create(config, MusicBand.class);
+		FieldSelection selection = fieldSelectionFactory.create(fields, MusicBand.class);
+		return musicBandRepository.findWithFilter(filter, selection, pageable);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<MusicBandDto> getAll(List<Long> ids) {
+		if (ids == null || ids.isEmpty()) {
+			return List.of();
+		}
+		if (ids.size() > MAX_BATCH_GET_SIZE) {
+			throw new ServiceException(BATCH_SIZE_EXCEEDED, "MusicBand.ids", MAX_BATCH_GET_SIZE);
+		}
+		for (Long id : ids) {
+			if (id == null) {
+				throw new ServiceException(MUST_BE_NOT_NULL, "MusicBand.id");
+			}
+			if (id <= 0) {
+				throw new ServiceException(ID_MUST_BE_POSITIVE, "MusicBand.id");
+			}
+		}
+		// Повторы схлопываем, несуществующие id пропускаем; порядок — как в запросе
+		List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+		return musicBandRepository.multiLoad(distinctIds).stream().filter(Objects::nonNull).map(mapper::toDto).toList();
 	}
 
 	@Override
@@ -135,8 +202,19 @@ public class MusicBandServiceImpl implements MusicBandService {
 
 	@Override
 	public MusicBandDto getWithMaxCoordinates() {
-		MusicBand band = musicBandRepository.findBandWithMaxCoordinates().orElseThrow(() -> new ServiceException(SOURCE_NOT_FOUND, "MusicBand.MaxCoordinates"));
-		return mapper.toDto(band);
+		return maxCoordinatesIndex.findMax().orElseThrow(() -> new ServiceException(SOURCE_NOT_FOUND, "MusicBand.MaxCoordinates"));
+	}
+
+	@Override
+	public MusicBandDto getNearest(double x, double y) {
+		Optional<MusicBand> band;
+		if (coordinatesSpatialIndex.isAvailable()) {
+			OptionalLong id = coordinatesSpatialIndex.findNearest(x, y);
+			band = id.isPresent() ? musicBandRepository.findAllById(List.of(id.getAsLong())).stream().findFirst() : Optional.empty();
+		} else {
+			band = musicBandRepository.findNearestTo(x, y, PageRequest.of(0, 1)).stream().findFirst();
+		}
+		return band.map(mapper::toDto).orElseThrow(() -> new ServiceException(SOURCE_NOT_FOUND, "MusicBand.Nearest"));
 	}
 
 	@Override
@@ -144,30 +222,68 @@ public class MusicBandServiceImpl implements MusicBandService {
 		return musicBandRepository.findByEstablishmentDateBefore(date).stream().map(mapper::toDto).toList();
 	}
 
+	@Override
+	public Page<MusicBandDto> getByEstablishmentDateBefore(Date date, PageableRequest config) {
+		Sort.Direction direction = Sort.Direction.fromOptionalString(config.getDirection()).orElse(Sort.Direction.ASC);
+		// Размер страницы ограничен сверху: индекс собирает срез id целиком в памяти
+		int size = Math.min(Math.max(config.getSize(), PageableConstants.MIN_PAGE_SIZE), MAX_PAGE_SIZE);
+		Pageable pageable = PageRequest.of(Math.max(config.getPage(), 0), size, Sort.by(direction, "establishmentDate", "id"));
+		if (!establishmentDateIndex.isAvailable()) {
+			return musicBandRepository.findByEstablishmentDateBefore(date, pageable).map(mapper::toDto);
+		}
+
+		// Индекс отдаёт id страницы и общее число, из БД грузится только сама страница
+		EstablishmentDateIndex.IdSlice slice = establishmentDateIndex.findIdsBefore(date, pageable.getOffset(), pageable.getPageSize(), direction.isDescending());
+		return new PageImpl<>(findAllInOrder(slice.ids()), pageable, slice.total());
+	}
+
+	@Override
+	public Page<MusicBandDto> search(String query, PageableRequest config) {
+		if (query == null || query.isBlank()) {
+			throw new ServiceException(MUST_BE_NOT_NULL, "MusicBand.SearchQuery");
+		}
+		String normalized = query.strip();
+		Pageable pageable = PageRequest.of(Math.max(config.getPage(), 0), Math.max(config.getSize(), PageableConstants.MIN_PAGE_SIZE));
+		Page<Long> ids = musicBandRepository.searchIds(normalized, "%" + escapeLikePattern(normalized) + "%", pageable);
+		return new PageImpl<>(findAllInOrder(ids.getContent()), pageable, ids.getTotalElements());
+	}
+
+	// Сущности страницы в порядке переданных id; пропавшие между запросами id пропускаются
+	private List<MusicBandDto> findAllInOrder(List<Long> ids) {
+		Map<Long, MusicBand> bands = musicBandRepository.findAllById(ids).stream().collect(Collectors.toMap(MusicBand::getId, Function.identity()));
+		return ids.stream().map(bands::get).filter(Objects::nonNull).map(mapper::toDto).toList();
+	}
+
+	private static String escapeLikePattern(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
 	@Override
 	public List<Long> getDistinctAlbumsCount() {
-		return musicBandRepository.findDistinctAlbumsCount();
+		return albumsCountIndex.getDistinctValues();
 	}
 
 	@Override
-	@Retryable(
-			include = {
-					CannotSerializeTransactionException.class,
-					DeadlockLoserDataAccessException.class,
-					CannotAcquireLockException.class
-			},
-			maxAttempts = 5,
-			backoff = @Backoff(delay = 250, multiplier = 2, maxDelay = 1000)
-	)
-	@Transactional(isolation = Isolation.SERIALIZABLE)
 	public MusicBandDto update(Long id, MusicBandUpdateRequest request) {
+		return writeExecutor.execute(() -> doUpdate(id, request));
+	}
+
+	private MusicBandDto doUpdate(Long id, MusicBandUpdateRequest request) {
 		log.info("Updating music band id={}", id);
 		log.debug("Music band update request: {}", request);
 		MusicBand updatingBand = findById(id);
+		// Клиент правил устаревшую версию: отказываем сразу, не дожидаясь конфликта при flush
+		if (request.getVersion() != null && !request.getVersion().equals(updatingBand.getVersion())) {
+			throw new ServiceException(VERSION_MISMATCH, "MusicBand", id, updatingBand.getVersion(), request.getVersion());
+		}
+		MusicBandDto previousBand = mapper.toDto(updatingBand);
 		mapper.updateEntityFromRequest(request, updatingBand);
 		handleDependencies(request, updatingBand);
-		MusicBandDto updatedBand = mapper.toDto(musicBandRepository.save(updatingBand));
-		eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedBand));
+		MusicBand savedBand = musicBandRepository.save(updatingBand);
+		// @Version увеличивается при flush: без него DTO и событие несли бы прежнюю версию
+		musicBandRepository.flush();
+		MusicBandDto updatedBand = mapper.toDto(savedBand);
+		eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedBand, previousBand));
 		log.info("Updated music band id={}", id);
 		return updatedBand;
 	}
@@ -193,9 +309,8 @@ public class MusicBandServiceImpl implements MusicBandService {
 		}
 		log.info("Bulk deleting music bands count={}", ids.size());
 		log.debug("Music band ids for bulk delete: {}", ids);
-		List<MusicBand> bands = musicBandRepository.findAllById(ids);
-		checkDependencies(bands);
-		musicBandRepository.deleteAll(bands);
+		// Награды и группы удаляются двумя DELETE по массиву id, событие строится из RETURNING
+		List<MusicBand> bands = musicBandRepository.deleteAllByIdReturning(ids);
 		List<MusicBandDto> deletedBands = bands.stream().map(mapper::toDto).toList();
 		eventPublisher.publishEvent(new EntityEvent<>(BULK_DELETED, deletedBands));
 		log.info("Bulk deleted music bands count={}", deletedBands.size());
@@ -206,13 +321,21 @@ public class MusicBandServiceImpl implements MusicBandService {
 	@Transactional
 	public MusicBandDto removeParticipant(Long id) {
 		log.info("Removing participant from music band id={}", id);
-		MusicBand musicBand = findById(id);
-		if (musicBand.getNumberOfParticipants() <= 1) {
-			throw new ServiceException(CANNOT_REMOVE_LAST_PARTICIPANT);
+		if (id == null) {
+			throw new ServiceException(MUST_BE_NOT_NULL, "MusicBand.id");
+		}
+		if (id <= 0) {
+			throw new ServiceException(ID_MUST_BE_POSITIVE, "MusicBand.id");
 		}
-		musicBand.setNumberOfParticipants(musicBand.getNumberOfParticipants() - 1);
-		MusicBandDto updatedBand = mapper.toDto(musicBandRepository.save(musicBand));
-		eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedBand));
+		// Условный UPDATE за один запрос; причину отказа выясняем только на неуспешном пути
+		MusicBand savedBand = musicBandRepository.decrementParticipants(id).orElseThrow(() -> musicBandRepository.existsById(id)
+				? new ServiceException(CANNOT_REMOVE_LAST_PARTICIPANT)
+				: new ServiceException(SOURCE_WITH_ID_NOT_FOUND, "MusicBand", id));
+		MusicBandDto updatedBand = mapper.toDto(savedBand);
+		// Прежнее состояние отличается только числом участников
+		MusicBandDto previousBand = mapper.toDto(savedBand);
+		previousBand.setNumberOfParticipants(savedBand.getNumberOfParticipants() + 1);
+		eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedBand, previousBand));
 		log.info("Removed participant from music band id={}", id);
 		return updatedBand;
 	}
@@ -0,0 +1,19 @@
+package org.is.bandmanager.service.musicBand.bulk;
+
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.bulk.BulkResult;
+import org.is.bandmanager.dto.request.MusicBandBulkCreateRequest;
+import org.is.bandmanager.dto.request.MusicBandBulkUpdateRequest;
+import org.is.model.AuditableEntity;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+public interface MusicBandBulkService {
+
+    // Корректные элементы записываются в одной транзакции, остальные возвращаются с ошибками
+    BulkResult<MusicBandDto> create(List<MusicBandBulkCreateRequest> requests);
+
+    BulkResult<MusicBandDto> update(List<MusicBandBulkUpdateRequest> requests, Predicate<AuditableEntity> updatable);
+
+}
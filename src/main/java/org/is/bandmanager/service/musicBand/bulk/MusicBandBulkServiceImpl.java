@@ -0,0 +1,327 @@
+package org.is.bandmanager.service.musicBand.bulk;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.MusicBandMapper;
+import org.is.bandmanager.dto.bulk.BulkItemResult;
+import org.is.bandmanager.dto.bulk.BulkResult;
+import org.is.bandmanager.dto.request.MusicBandBaseRequest;
+import org.is.bandmanager.dto.request.MusicBandBulkCreateRequest;
+import org.is.bandmanager.dto.request.MusicBandBulkUpdateRequest;
+import org.is.bandmanager.exception.message.BandManagerErrorMessage;
+import org.is.bandmanager.model.Album;
+import org.is.bandmanager.model.Coordinates;
+import org.is.bandmanager.model.MusicBand;
+import org.is.bandmanager.model.Person;
+import org.is.bandmanager.repository.AlbumRepository;
+import org.is.bandmanager.repository.CoordinatesRepository;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.is.bandmanager.repository.PersonRepository;
+import org.is.bandmanager.service.musicBand.write.MusicBandWriteExecutor;
+import org.is.event.EntityEvent;
+import org.is.exception.ErrorResponse;
+import org.is.exception.ServiceException;
+import org.is.model.AuditableEntity;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.SmartValidator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.is.bandmanager.constants.MusicBandConstants.MAX_BULK_WRITE_SIZE;
+import static org.is.bandmanager.exception.message.BandManagerErrorMessage.BATCH_SIZE_EXCEEDED;
+import static org.is.bandmanager.exception.message.BandManagerErrorMessage.CANNOT_ACCESS_SOURCE;
+import static org.is.bandmanager.exception.message.BandManagerErrorMessage.MUST_BE_NOT_NULL;
+import static org.is.bandmanager.exception.message.BandManagerErrorMessage.MUST_BE_UNIQUE;
+import static org.is.bandmanager.exception.message.BandManagerErrorMessage.SOURCE_WITH_ID_NOT_FOUND;
+import static org.is.bandmanager.exception.message.BandManagerErrorMessage.VERSION_MISMATCH;
+import static org.is.event.EventType.CREATED;
+import static org.is.event.EventType.UPDATED;
+
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MusicBandBulkServiceImpl implements MusicBandBulkService {
+
+    private final MusicBandRepository musicBandRepository;
+
+    private final PersonRepository personRepository;
+
+    private final AlbumRepository albumRepository;
+
+    private final CoordinatesRepository coordinatesRepository;
+
+    private final SmartValidator validator;
+
+    private final MusicBandMapper mapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final MusicBandWriteExecutor writeExecutor;
+
+    @Override
+    public BulkResult<MusicBandDto> create(List<MusicBandBulkCreateRequest> requests) {
+        checkSize(requests);
+        return writeExecutor.execute(() -> doCreate(requests));
+    }
+
+    private BulkResult<MusicBandDto> doCreate(List<MusicBandBulkCreateRequest> requests) {
+        log.info("Bulk creating music bands count={}", requests.size());
+        Dependencies dependencies = loadDependencies(requests);
+        Map<String, Long> idsByName = findIdsByNames(requests.stream().filter(Objects::nonNull).map(MusicBandBulkCreateRequest::getName).toList());
+        Set<String> batchNames = new HashSet<>();
+
+        List<BulkItemResult<MusicBandDto>> items = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<MusicBand> acceptedBands = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            MusicBandBulkCreateRequest request = requests.get(i);
+            ItemErrors errors = validate(request);
+            if (errors.isEmpty()) {
+                checkName(request.getName(), null, idsByName, batchNames, errors);
+                dependencies.check(request, errors);
+            }
+            if (!errors.isEmpty()) {
+                items.add(failure(i, errors));
+                continue;
+            }
+            MusicBand band = mapper.toEntity(request);
+            dependencies.apply(request, band);
+            acceptedIndexes.add(i);
+            acceptedBands.add(band);
+        }
+
+        // IDENTITY-ключ не даёт Hibernate пакетировать INSERT, но всё остальное — один проход без повторных чтений
+        List<MusicBand> savedBands = musicBandRepository.saveAll(acceptedBands);
+        List<MusicBandDto> createdBands = savedBands.stream().map(mapper::toDto).toList();
+        for (int j = 0; j < createdBands.size(); j++) {
+            items.add(success(acceptedIndexes.get(j), HttpStatus.CREATED, createdBands.get(j)));
+        }
+        if (!createdBands.isEmpty()) {
+            eventPublisher.publishEvent(new EntityEvent<>(CREATED, createdBands));
+        }
+        log.info("Bulk created music bands created={} failed={}", createdBands.size(), requests.size() - createdBands.size());
+        return result(items);
+    }
+
+    @Override
+    public BulkResult<MusicBandDto> update(List<MusicBandBulkUpdateRequest> requests, Predicate<AuditableEntity> updatable) {
+        checkSize(requests);
+        return writeExecutor.execute(() -> doUpdate(requests, updatable));
+    }
+
+    private BulkResult<MusicBandDto> doUpdate(List<MusicBandBulkUpdateRequest> requests, Predicate<AuditableEntity> updatable) {
+        log.info("Bulk updating music bands count={}", requests.size());
+        Dependencies dependencies = loadDependencies(requests);
+        Map<Long, MusicBand> bandsById = findAllById(musicBandRepository,
+                requests.stream().filter(Objects::nonNull).map(MusicBandBulkUpdateRequest::getId), MusicBand::getId);
+        Map<String, Long> idsByName = findIdsByNames(requests.stream().filter(Objects::nonNull).map(MusicBandBulkUpdateRequest::getName).toList());
+        Set<String> batchNames = new HashSet<>();
+        Set<Long> batchIds = new HashSet<>();
+
+        List<BulkItemResult<MusicBandDto>> items = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<MusicBand> acceptedBands = new ArrayList<>();
+        List<MusicBandDto> previousBands = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            MusicBandBulkUpdateRequest request = requests.get(i);
+            ItemErrors errors = validate(request);
+            MusicBand band = null;
+            if (errors.isEmpty()) {
+                Long id = request.getId();
+                band = bandsById.get(id);
+                if (!batchIds.add(id)) {
+                    errors.add("id", id, MUST_BE_UNIQUE, "MusicBand.id");
+                } else if (band == null) {
+                    errors.add("id", id, SOURCE_WITH_ID_NOT_FOUND, "MusicBand", id);
+                } else if (!updatable.test(band)) {
+                    errors.add("id", id, CANNOT_ACCESS_SOURCE, "MusicBand", id);
+                } else if (request.getVersion() != null && !request.getVersion().equals(band.getVersion())) {
+                    errors.add("version", request.getVersion(), VERSION_MISMATCH, "MusicBand", id, band.getVersion(), request.getVersion());
+                } else {
+                    checkName(request.getName(), id, idsByName, batchNames, errors);
+                    dependencies.check(request, errors);
+                }
+            }
+            if (!errors.isEmpty()) {
+                items.add(failure(i, errors));
+                continue;
+            }
+            previousBands.add(mapper.toDto(band));
+            mapper.updateEntityFromRequest(request, band);
+            dependencies.apply(request, band);
+            acceptedIndexes.add(i);
+            acceptedBands.add(band);
+        }
+
+        // Один flush: UPDATE уходят JDBC-пакетами, а DTO получают уже увеличенную @Version
+        musicBandRepository.flush();
+        List<MusicBandDto> updatedBands = acceptedBands.stream().map(mapper::toDto).toList();
+        for (int j = 0; j < updatedBands.size(); j++) {
+            items.add(success(acceptedIndexes.get(j), HttpStatus.OK, updatedBands.get(j)));
+        }
+        if (!updatedBands.isEmpty()) {
+            eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedBands, previousBands));
+        }
+        log.info("Bulk updated music bands updated={} failed={}", updatedBands.size(), requests.size() - updatedBands.size());
+        return result(items);
+    }
+
+    private static void checkSize(List<?> requests) {
+        if (requests == null) {
+            throw new ServiceException(MUST_BE_NOT_NULL, "MusicBand.bulk");
+        }
+        if (requests.size() > MAX_BULK_WRITE_SIZE) {
+            throw new ServiceException(BATCH_SIZE_EXCEEDED, "MusicBand.bulk", MAX_BULK_WRITE_SIZE);
+        }
+    }
+
+    private ItemErrors validate(Object request) {
+        ItemErrors errors = new ItemErrors();
+        if (request == null) {
+            errors.add("item", null, MUST_BE_NOT_NULL, "MusicBand");
+            return errors;
+        }
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(request, "request");
+        validator.validate(request, bindingResult);
+        bindingResult.getFieldErrors().forEach(fieldError -> errors.addValidation(
+                fieldError.getField(), fieldError.getRejectedValue(), fieldError.getDefaultMessage()));
+        return errors;
+    }
+
+    // Имя занято, если оно есть в БД у другой группы или уже встречалось в этом пакете
+    private static void checkName(String name, Long id, Map<String, Long> idsByName, Set<String> batchNames,
+                                  ItemErrors errors) {
+        Long ownerId = idsByName.get(name);
+        if (ownerId != null && !ownerId.equals(id) || !batchNames.add(name)) {
+            errors.add("name", name, MUST_BE_UNIQUE, "MusicBand.Name");
+        }
+    }
+
+    private Map<String, Long> findIdsByNames(Collection<String> names) {
+        Set<String> distinctNames = names.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (distinctNames.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> idsByName = new HashMap<>();
+        for (Object[] row : musicBandRepository.findIdsByNames(distinctNames)) {
+            idsByName.put((String) row[0], (Long) row[1]);
+        }
+        return idsByName;
+    }
+
+    // Все упомянутые в пакете зависимости — одним запросом на тип
+    private Dependencies loadDependencies(List<? extends MusicBandBaseRequest> requests) {
+        List<? extends MusicBandBaseRequest> present = requests.stream().filter(Objects::nonNull).toList();
+        return new Dependencies(
+                findAllById(personRepository, present.stream().map(MusicBandBaseRequest::getFrontManId), Person::getId),
+                findAllById(albumRepository, present.stream().map(MusicBandBaseRequest::getBestAlbumId), Album::getId),
+                findAllById(coordinatesRepository, present.stream().map(MusicBandBaseRequest::getCoordinatesId), Coordinates::getId));
+    }
+
+    private static <T> Map<Long, T> findAllById(JpaRepository<T, Long> repository, Stream<Long> ids,
+                                                Function<T, Long> idGetter) {
+        Set<Long> distinctIds = ids.filter(Objects::nonNull).collect(Collectors.toSet());
+        if (distinctIds.isEmpty()) {
+            return Map.of();
+        }
+        return repository.findAllById(distinctIds).stream().collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+
+    private static BulkItemResult<MusicBandDto> failure(int index, ItemErrors errors) {
+        return BulkItemResult.<MusicBandDto>builder().index(index).status(errors.status).errors(errors.details).build();
+    }
+
+    private static BulkItemResult<MusicBandDto> success(int index, HttpStatus status, MusicBandDto band) {
+        return BulkItemResult.<MusicBandDto>builder().index(index).status(status.value()).entity(band).build();
+    }
+
+    private static BulkResult<MusicBandDto> result(List<BulkItemResult<MusicBandDto>> items) {
+        List<BulkItemResult<MusicBandDto>> ordered = items.stream()
+                .sorted((left, right) -> Integer.compare(left.getIndex(), right.getIndex()))
+                .toList();
+        int succeeded = (int) ordered.stream().filter(item -> item.getErrors() == null).count();
+        return BulkResult.<MusicBandDto>builder()
+                .succeeded(succeeded)
+                .failed(ordered.size() - succeeded)
+                .items(ordered)
+                .build();
+    }
+
+    // Ошибки одного элемента; статус элемента — по первой ошибке
+    private static final class ItemErrors {
+
+        private final List<ErrorResponse.ErrorDetail> details = new ArrayList<>();
+
+        private int status;
+
+        boolean isEmpty() {
+            return details.isEmpty();
+        }
+
+        void add(String field, Object rejectedValue, BandManagerErrorMessage message, Object... args) {
+            add(message.getHttpStatus(), ErrorResponse.ErrorDetail.builder()
+                    .field(field)
+                    .message(message.getFormattedMessage(args))
+                    .rejectedValue(rejectedValue)
+                    .errorType("SERVICE_ERROR")
+                    .build());
+        }
+
+        void addValidation(String field, Object rejectedValue, String message) {
+            add(HttpStatus.BAD_REQUEST, ErrorResponse.ErrorDetail.builder()
+                    .field(field)
+                    .message(message)
+                    .rejectedValue(rejectedValue)
+                    .errorType("VALIDATION_ERROR")
+                    .build());
+        }
+
+        private void add(HttpStatus httpStatus, ErrorResponse.ErrorDetail detail) {
+            if (details.isEmpty()) {
+                status = httpStatus.value();
+            }
+            details.add(detail);
+        }
+
+    }
+
+    private record Dependencies(Map<Long, Person> persons, Map<Long, Album> albums, Map<Long, Coordinates> coordinates) {
+
+        void check(MusicBandBaseRequest request, ItemErrors errors) {
+            if (!persons.containsKey(request.getFrontManId())) {
+                errors.add("frontManId", request.getFrontManId(), SOURCE_WITH_ID_NOT_FOUND, "Person", request.getFrontManId());
+            }
+            if (!albums.containsKey(request.getBestAlbumId())) {
+                errors.add("bestAlbumId", request.getBestAlbumId(), SOURCE_WITH_ID_NOT_FOUND, "Album", request.getBestAlbumId());
+            }
+            if (!coordinates.containsKey(request.getCoordinatesId())) {
+                errors.add("coordinatesId", request.getCoordinatesId(), SOURCE_WITH_ID_NOT_FOUND, "Coordinates", request.getCoordinatesId());
+            }
+        }
+
+        void apply(MusicBandBaseRequest request, MusicBand band) {
+            band.setFrontMan(persons.get(request.getFrontManId()));
+            band.setBestAlbum(albums.get(request.getBestAlbumId()));
+            band.setCoordinates(coordinates.get(request.getCoordinatesId()));
+        }
+
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.is.bandmanager.service.musicBand.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.is.bandmanager.repository.predicates.MusicBandPredicates;
+import org.is.bandmanager.service.musicBand.listener.MusicBandChangeListener;
+import org.is.util.transaction.TransactionStateUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Кэш результатов MusicBandService.getAll(filter, config).
+// Размер ограничен суммарным числом строк в закэшированных страницах (LRU-вытеснение),
+// инвалидация точечная: сбрасываются только фильтры и страницы, которые могли измениться.
+@Slf4j
+@Component
+@Order(MusicBandChangeListener.QUERY_CACHE_ORDER)
+public class MusicBandQueryCache implements MusicBandChangeListener {
+
+    private final boolean enabled;
+
+    private final long maxRows;
+
+    private final LinkedHashMap<QueryKey, Page<MusicBandDto>> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long cachedRows;
+
+    // Увеличивается при каждой инвалидации; загрузка, пересёкшаяся с изменением, в кэш не кладётся
+    private long generation;
+
+    public MusicBandQueryCache(@Value("${band-manager.cache.filter-results.enabled:true}") boolean enabled,
+                               @Value("${band-manager.cache.filter-results.max-rows:20000}") long maxRows) {
+        this.enabled = enabled;
+        this.maxRows = maxRows;
+    }
+
+    public Page<MusicBandDto> get(MusicBandFilter filter, Pageable pageable, Supplier<Page<MusicBandDto>> loader) {
+        if (!enabled || TransactionStateUtil.isInsideWritingTransaction()) {
+            return loader.get();
+        }
+
+        QueryKey key = new QueryKey(canonical(filter), pageable);
+        long loadGeneration;
+        synchronized (this) {
+            Page<MusicBandDto> cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+
+        Page<MusicBandDto> page = loader.get();
+        synchronized (this) {
+            if (loadGeneration == generation && !entries.containsKey(key)) {
+                entries.put(key, page);
+                cachedRows += weight(page);
+                evictOverflow();
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void onBandsSaved(List<MusicBandDto> bands) {
+        invalidateAffectedBy(bands, List.of());
+    }
+
+    @Override
+    public void onBandsSaved(List<MusicBandDto> bands, List<MusicBandDto> previous) {
+        invalidateAffectedBy(bands, previous);
+    }
+
+    @Override
+    public void onBandsDeleted(List<MusicBandDto> bands) {
+        invalidateAffectedBy(bands, List.of());
+    }
+
+    @Override
+    public void onDependenciesUpdated(List<?> dependencies) {
+        invalidate((key, page) -> MusicBandPredicates.dependsOnJoinedEntities(key.filter())
+                || page.getContent().stream().anyMatch(band -> dependencies.stream().anyMatch(dependency -> MusicBandPredicates.references(band, dependency))));
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        cachedRows = 0;
+    }
+
+    // Группа, вошедшая в фильтр или вышедшая из него, сдвигает строки и totalElements на всех страницах
+    // этого фильтра, поэтому сбрасываются все они. Вышла — если подходила до изменения (состояние из события)
+    // или лежит на одной из закэшированных страниц фильтра
+    private synchronized void invalidateAffectedBy(List<MusicBandDto> bands, List<MusicBandDto> previous) {
+        Set<Integer> ids = bands.stream().map(MusicBandDto::getId).collect(Collectors.toSet());
+        Set<MusicBandFilter> checked = new HashSet<>();
+        Set<MusicBandFilter> affected = new HashSet<>();
+        for (Map.Entry<QueryKey, Page<MusicBandDto>> entry : entries.entrySet()) {
+            MusicBandFilter filter = entry.getKey().filter();
+            if (checked.add(filter) && (matchesAny(filter, bands) || matchesAny(filter, previous))) {
+                affected.add(filter);
+            }
+            if (entry.getValue().getContent().stream().anyMatch(cached -> ids.contains(cached.getId()))) {
+                affected.add(filter);
+            }
+        }
+        invalidate((key, page) -> affected.contains(key.filter()));
+    }
+
+    private static boolean matchesAny(MusicBandFilter filter, List<MusicBandDto> bands) {
+        return bands.stream().anyMatch(band -> MusicBandPredicates.matches(filter, band));
+    }
+
+    private synchronized void invalidate(EntryPredicate predicate) {
+        generation++;
+        int removed = 0;
+        Iterator<Map.Entry<QueryKey, Page<MusicBandDto>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<QueryKey, Page<MusicBandDto>> entry = iterator.next();
+            if (predicate.test(entry.getKey(), entry.getValue())) {
+                cachedRows -= weight(entry.getValue());
+                iterator.remove();
+                removed++;
+            }
+        }
+        log.debug("Invalidated {} cached music band pages, {} left", removed, entries.size());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<QueryKey, Page<MusicBandDto>>> iterator = entries.entrySet().iterator();
+        while (cachedRows > maxRows && iterator.hasNext()) {
+            cachedRows -= weight(iterator.next().getValue());
+            iterator.remove();
+        }
+    }
+
+    private static long weight(Page<MusicBandDto> page) {
+        return page.getNumberOfElements() + 1L;
+    }
+
+    // Копия фильтра: исходный объект изменяемый и не должен менять ключ уже закэшированной записи
+    private static MusicBandFilter canonical(MusicBandFilter filter) {
+        return filter == null ? MusicBandFilter.builder().build() : filter.toBuilder().build();
+    }
+
+    private record QueryKey(MusicBandFilter filter, Pageable pageable) {
+    }
+
+    @FunctionalInterface
+    private interface EntryPredicate {
+
+        boolean test(QueryKey key, Page<MusicBandDto> page);
+
+    }
+
+}
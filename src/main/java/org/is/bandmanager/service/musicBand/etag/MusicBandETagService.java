@@ -0,0 +1,17 @@
+package org.is.bandmanager.service.musicBand.etag;
+
+import org.is.bandmanager.dto.MusicBandDto;
+
+import java.util.Optional;
+
+public interface MusicBandETagService {
+
+    // Сильный ETag группы без загрузки из БД; пусто, если индекс версий недоступен или группы нет
+    Optional<String> findBandETag(Long id);
+
+    String getBandETag(MusicBandDto band);
+
+    // Слабый ETag для списков: меняется при любом изменении групп или их зависимостей
+    String getCollectionETag();
+
+}
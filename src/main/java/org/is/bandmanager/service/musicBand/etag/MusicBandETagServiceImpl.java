@@ -0,0 +1,46 @@
+package org.is.bandmanager.service.musicBand.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.service.musicBand.index.MusicBandVersionIndex;
+import org.is.event.EntityChangeCounter;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+
+@Service
+@RequiredArgsConstructor
+public class MusicBandETagServiceImpl implements MusicBandETagService {
+
+    private static final List<Class<?>> COLLECTION_TYPES = List.of(
+            MusicBandDto.class, CoordinatesDto.class, AlbumDto.class, PersonDto.class, LocationDto.class);
+
+    private final MusicBandVersionIndex versionIndex;
+
+    private final EntityChangeCounter changeCounter;
+
+    @Override
+    public Optional<String> findBandETag(Long id) {
+        if (id == null || !versionIndex.isAvailable()) {
+            return Optional.empty();
+        }
+        return versionIndex.findTag(id);
+    }
+
+    @Override
+    public String getBandETag(MusicBandDto band) {
+        return MusicBandVersionIndex.tagOf(band);
+    }
+
+    @Override
+    public String getCollectionETag() {
+        return "W/\"" + changeCounter.getEpoch() + "-" + changeCounter.getChangeCount(COLLECTION_TYPES) + "\"";
+    }
+
+}
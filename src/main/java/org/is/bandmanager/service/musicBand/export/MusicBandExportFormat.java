@@ -0,0 +1,23 @@
+package org.is.bandmanager.service.musicBand.export;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+@Getter
+public enum MusicBandExportFormat {
+
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    MusicBandExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+}
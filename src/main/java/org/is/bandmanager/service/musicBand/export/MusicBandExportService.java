@@ -0,0 +1,10 @@
+package org.is.bandmanager.service.musicBand.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface MusicBandExportService {
+
+    void export(MusicBandExportFormat format, OutputStream outputStream) throws IOException;
+
+}
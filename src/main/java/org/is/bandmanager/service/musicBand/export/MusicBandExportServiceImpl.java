@@ -0,0 +1,118 @@
+package org.is.bandmanager.service.musicBand.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.MusicBandMapper;
+import org.is.bandmanager.model.MusicBand;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MusicBandExportServiceImpl implements MusicBandExportService {
+
+    // Каждые N строк сбрасываем буфер в ответ и очищаем persistence context, чтобы heap не рос с размером каталога
+    private static final int FLUSH_INTERVAL = 500;
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "id", "name", "genre", "numberOfParticipants", "singlesCount", "description", "albumsCount",
+            "establishmentDate", "coordinatesX", "coordinatesY", "bestAlbumId", "bestAlbumName",
+            "frontManId", "frontManName", "createdBy", "version");
+
+    private final MusicBandRepository musicBandRepository;
+
+    private final MusicBandMapper mapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(MusicBandExportFormat format, OutputStream outputStream) throws IOException {
+        log.info("Exporting music bands format={}", format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == MusicBandExportFormat.CSV) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+        }
+
+        long exported = 0;
+        try (Stream<MusicBand> bands = musicBandRepository.streamAll()) {
+            Iterator<MusicBand> iterator = bands.iterator();
+            while (iterator.hasNext()) {
+                MusicBandDto band = mapper.toDto(iterator.next());
+                switch (format) {
+                    case NDJSON -> writeJsonLine(writer, band);
+                    case CSV -> writeCsvLine(writer, band);
+                }
+                if (++exported % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported music bands count={} format={}", exported, format);
+    }
+
+    private void writeJsonLine(Writer writer, MusicBandDto band) throws IOException {
+        writer.write(objectMapper.writeValueAsString(band));
+        writer.write('\n');
+    }
+
+    private void writeCsvLine(Writer writer, MusicBandDto band) throws IOException {
+        List<Object> values = List.of(
+                band.getId(),
+                band.getName(),
+                band.getGenre(),
+                band.getNumberOfParticipants(),
+                band.getSinglesCount(),
+                band.getDescription(),
+                band.getAlbumsCount(),
+                band.getEstablishmentDate().toInstant(),
+                band.getCoordinates().getX(),
+                nullToEmpty(band.getCoordinates().getY()),
+                band.getBestAlbum().getId(),
+                band.getBestAlbum().getName(),
+                band.getFrontMan().getId(),
+                band.getFrontMan().getName(),
+                nullToEmpty(band.getCreatedBy()),
+                nullToEmpty(band.getVersion()));
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i).toString()));
+        }
+        writer.write('\n');
+    }
+
+    private static Object nullToEmpty(Object value) {
+        return value == null ? "" : value;
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.is.bandmanager.service.musicBand.listener.MusicBandChangeListener;
+import org.is.util.transaction.TransactionStateUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Отсортированный мультисет albumsCount: значение -> число групп с этим значением.
+// Чтение — обход ключей ConcurrentSkipListMap без блокировок; запись сериализована монитором,
+// чтобы пара (counts, valueById) менялась согласованно.
+@Slf4j
+@Component
+@Order(MusicBandChangeListener.INDEX_ORDER)
+public class AlbumsCountIndex implements MusicBandChangeListener {
+
+    private final MusicBandRepository musicBandRepository;
+
+    private final boolean enabled;
+
+    private volatile ConcurrentNavigableMap<Long, Long> counts = new ConcurrentSkipListMap<>();
+
+    private final Map<Long, Long> valueById = new HashMap<>();
+
+    private volatile boolean ready;
+
+    // Число применённых изменений, под монитором: reconcile по нему видит запись, пришедшую во время сверки
+    private long writes;
+
+    public AlbumsCountIndex(MusicBandRepository musicBandRepository,
+                            @Value("${band-manager.index.albums-count.enabled:true}") boolean enabled) {
+        this.musicBandRepository = musicBandRepository;
+        this.enabled = enabled;
+    }
+
+    public List<Long> getDistinctValues() {
+        if (!ready || TransactionStateUtil.isInsideWritingTransaction()) {
+            return musicBandRepository.findDistinctAlbumsCount();
+        }
+        return new ArrayList<>(counts.keySet());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        if (!enabled) return;
+        rebuild();
+        ready = true;
+    }
+
+    @Scheduled(cron = "${band-manager.index.reconcile-interval:0 */10 * * * *}")
+    public void reconcile() {
+        if (!ready || matchesDatabase()) return;
+        // Запись могла закоммититься до запроса, а до индекса дойти после снимка: перед пересборкой проверяем ещё раз
+        if (matchesDatabase()) return;
+        synchronized (this) {
+            log.warn("Albums count index diverged from database, rebuilding");
+            rebuild();
+        }
+    }
+
+    // Запрос к БД — без монитора; сверка, на которую пришлась запись, откладывается до следующего запуска
+    private boolean matchesDatabase() {
+        long writesBefore;
+        synchronized (this) {
+            writesBefore = writes;
+        }
+        List<Long> expected = musicBandRepository.findDistinctAlbumsCount();
+        synchronized (this) {
+            return writes != writesBefore || expected.equals(new ArrayList<>(counts.keySet()));
+        }
+    }
+
+    @Override
+    public synchronized void onBandsSaved(List<MusicBandDto> bands) {
+        if (!ready) return;
+        writes++;
+        for (MusicBandDto band : bands) {
+            Long id = band.getId().longValue();
+            Long previous = valueById.put(id, band.getAlbumsCount());
+            if (!Objects.equals(previous, band.getAlbumsCount())) {
+                decrement(previous);
+                increment(band.getAlbumsCount());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onBandsDeleted(List<MusicBandDto> bands) {
+        if (!ready) return;
+        writes++;
+        bands.forEach(band -> decrement(valueById.remove(band.getId().longValue())));
+    }
+
+    // Собираем новую карту целиком и подменяем ссылку: читатели не видят промежуточного состояния
+    private synchronized void rebuild() {
+        ConcurrentNavigableMap<Long, Long> rebuilt = new ConcurrentSkipListMap<>();
+        valueById.clear();
+        for (Object[] row : musicBandRepository.findAllAlbumsCounts()) {
+            Long id = (Long) row[0];
+            Long value = (Long) row[1];
+            valueById.put(id, value);
+            if (value != null) {
+                rebuilt.merge(value, 1L, Long::sum);
+            }
+        }
+        counts = rebuilt;
+        log.info("Albums count index built bands={} distinct={}", valueById.size(), rebuilt.size());
+    }
+
+    private void increment(Long value) {
+        if (value != null) {
+            counts.merge(value, 1L, Long::sum);
+        }
+    }
+
+    private void decrement(Long value) {
+        if (value != null) {
+            counts.computeIfPresent(value, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.is.bandmanager.service.musicBand.listener.MusicBandChangeListener;
+import org.is.util.transaction.TransactionStateUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+// Пространственный индекс координат групп: неизменяемое k-d дерево плюс небольшая дельта изменений
+// с момента его построения. Читатели работают со снимком без блокировок; когда дельта разрастается,
+// дерево перестраивается из текущих точек без обращения к БД.
+@Slf4j
+@Component
+@Order(MusicBandChangeListener.INDEX_ORDER)
+public class CoordinatesSpatialIndex implements MusicBandChangeListener {
+
+    private static final int MIN_REBUILD_DELTA = 1024;
+
+    private final MusicBandRepository musicBandRepository;
+
+    private final boolean enabled;
+
+    private final int maxCandidates;
+
+    private final Map<Long, Point> points = new HashMap<>();
+
+    private final Map<Long, Set<Long>> bandIdsByCoordinatesId = new HashMap<>();
+
+    private volatile State state = State.of(Map.of());
+
+    private volatile boolean ready;
+
+    public CoordinatesSpatialIndex(MusicBandRepository musicBandRepository,
+                                   @Value("${band-manager.index.coordinates.enabled:true}") boolean enabled,
+                                   @Value("${band-manager.index.coordinates.max-candidates:1000}") int maxCandidates) {
+        this.musicBandRepository = musicBandRepository;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    public boolean isAvailable() {
+        return ready && !TransactionStateUtil.isInsideWritingTransaction();
+    }
+
+    // Id групп внутри прямоугольника (границы включительные, null — без ограничения);
+    // пусто, если кандидатов больше max-candidates и выгоднее отдать фильтр БД
+    public Optional<List<Long>> findIdsInBox(Integer minX, Integer maxX, Float minY, Float maxY) {
+        State current = state;
+        KdTree.Box box = KdTree.Box.of(minX, maxX, minY, maxY);
+        List<Long> ids = new ArrayList<>();
+        boolean complete = current.tree().search(box, id -> current.invalidated().contains(id) || ids.add(id) && ids.size() <= maxCandidates);
+        for (Map.Entry<Long, Point> entry : current.delta().entrySet()) {
+            if (!complete || ids.size() > maxCandidates) break;
+            if (box.contains(entry.getValue().x(), entry.getValue().y())) {
+                ids.add(entry.getKey());
+            }
+        }
+        return complete && ids.size() <= maxCandidates ? Optional.of(ids) : Optional.empty();
+    }
+
+    // Ближайшая по евклидову расстоянию группа; группы без coordinates.y не рассматриваются
+    public OptionalLong findNearest(double x, double y) {
+        State current = state;
+        KdTree.Nearest nearest = current.tree().nearest(x, y, current.invalidated()::contains);
+        long bestId = nearest.id;
+        double bestDistance = nearest.distance;
+        for (Map.Entry<Long, Point> entry : current.delta().entrySet()) {
+            Point point = entry.getValue();
+            if (Float.isNaN(point.y())) continue;
+            double distance = point.distance(x, y);
+            if (distance < bestDistance || distance == bestDistance && (bestId < 0 || entry.getKey() < bestId)) {
+                bestDistance = distance;
+                bestId = entry.getKey();
+            }
+        }
+        return bestId >= 0 ? OptionalLong.of(bestId) : OptionalLong.empty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        if (!enabled) return;
+        rebuild();
+        ready = true;
+    }
+
+    @Scheduled(cron = "${band-manager.index.reconcile-interval:0 */10 * * * *}")
+    public void reconcile() {
+        if (!ready) return;
+        long expected = musicBandRepository.count();
+        int actual;
+        synchronized (this) {
+            actual = points.size();
+        }
+        if (expected != actual) {
+            log.warn("Coordinates index diverged from database, rebuilding: expected={} actual={}", expected, actual);
+            rebuild();
+        }
+    }
+
+    @Override
+    public synchronized void onBandsSaved(List<MusicBandDto> bands) {
+        if (!ready) return;
+        Map<Long, Point> changed = new HashMap<>();
+        for (MusicBandDto band : bands) {
+            CoordinatesDto coordinates = band.getCoordinates();
+            if (coordinates == null) continue;
+            Long id = band.getId().longValue();
+            Point point = new Point(coordinates.getX(), coordinates.getY() != null ? coordinates.getY() : Float.NaN, coordinates.getId());
+            Point previous = points.put(id, point);
+            if (previous != null) {
+                unlink(previous.coordinatesId(), id);
+            }
+            bandIdsByCoordinatesId.computeIfAbsent(point.coordinatesId(), key -> new HashSet<>()).add(id);
+            if (!point.equals(previous)) {
+                changed.put(id, point);
+            }
+        }
+        publish(changed, Set.of());
+    }
+
+    @Override
+    public synchronized void onBandsDeleted(List<MusicBandDto> bands) {
+        if (!ready) return;
+        Set<Long> removed = new HashSet<>();
+        for (MusicBandDto band : bands) {
+            Long id = band.getId().longValue();
+            Point previous = points.remove(id);
+            if (previous != null) {
+                unlink(previous.coordinatesId(), id);
+                removed.add(id);
+            }
+        }
+        publish(Map.of(), removed);
+    }
+
+    @Override
+    public synchronized void onDependenciesUpdated(List<?> dependencies) {
+        if (!ready) return;
+        Map<Long, Point> changed = new HashMap<>();
+        for (Object dependency : dependencies) {
+            if (!(dependency instanceof CoordinatesDto coordinates)) continue;
+            for (Long id : bandIdsByCoordinatesId.getOrDefault(coordinates.getId(), Set.of())) {
+                Point point = new Point(coordinates.getX(), coordinates.getY() != null ? coordinates.getY() : Float.NaN, coordinates.getId());
+                points.put(id, point);
+                changed.put(id, point);
+            }
+        }
+        publish(changed, Set.of());
+    }
+
+    private synchronized void rebuild() {
+        points.clear();
+        bandIdsByCoordinatesId.clear();
+        for (Object[] row : musicBandRepository.findAllCoordinates()) {
+            Long id = (Long) row[0];
+            Long coordinatesId = (Long) row[1];
+            Float y = (Float) row[3];
+            points.put(id, new Point((Integer) row[2], y != null ? y : Float.NaN, coordinatesId));
+            bandIdsByCoordinatesId.computeIfAbsent(coordinatesId, key -> new HashSet<>()).add(id);
+        }
+        state = State.of(points);
+        log.info("Coordinates index built bands={}", points.size());
+    }
+
+    private void publish(Map<Long, Point> changed, Set<Long> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) return;
+        State current = state;
+        Map<Long, Point> delta = new HashMap<>(current.delta());
+        Set<Long> invalidated = new HashSet<>(current.invalidated());
+        removed.forEach(delta::remove);
+        delta.putAll(changed);
+        invalidated.addAll(removed);
+        invalidated.addAll(changed.keySet());
+        if (delta.size() + invalidated.size() > Math.max(MIN_REBUILD_DELTA, current.tree().size() / 16)) {
+            state = State.of(points);
+            log.debug("Coordinates index compacted bands={}", points.size());
+        } else {
+            state = new State(current.tree(), Map.copyOf(delta), Set.copyOf(invalidated));
+        }
+    }
+
+    private void unlink(Long coordinatesId, Long bandId) {
+        Set<Long> bandIds = bandIdsByCoordinatesId.get(coordinatesId);
+        if (bandIds != null && bandIds.remove(bandId) && bandIds.isEmpty()) {
+            bandIdsByCoordinatesId.remove(coordinatesId);
+        }
+    }
+
+    private record Point(int x, float y, Long coordinatesId) {
+
+        double distance(double pointX, double pointY) {
+            double dx = pointX - x;
+            double dy = pointY - y;
+            return dx * dx + dy * dy;
+        }
+
+    }
+
+    // tree — точки на момент построения; delta — актуальные точки изменённых с тех пор групп,
+    // invalidated — id, чьи записи в дереве устарели (изменены или удалены)
+    private record State(KdTree tree, Map<Long, Point> delta, Set<Long> invalidated) {
+
+        static State of(Map<Long, Point> source) {
+            int size = source.size();
+            int[] xs = new int[size];
+            float[] ys = new float[size];
+            long[] ids = new long[size];
+            int i = 0;
+            for (Map.Entry<Long, Point> entry : source.entrySet()) {
+                xs[i] = entry.getValue().x();
+                ys[i] = entry.getValue().y();
+                ids[i++] = entry.getKey();
+            }
+            return new State(new KdTree(xs, ys, ids), Map.of(), Set.of());
+        }
+
+    }
+
+}
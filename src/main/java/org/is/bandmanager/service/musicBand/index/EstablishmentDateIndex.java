@@ -0,0 +1,365 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.is.bandmanager.service.musicBand.listener.MusicBandChangeListener;
+import org.is.util.transaction.TransactionStateUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Отсортированные по (establishmentDate, id) параллельные массивы long[] millis / long[] ids плюс небольшая
+// дельта изменений с момента их построения. Снимок неизменяемый и подменяется целиком, поэтому чтение идёт
+// без блокировок; запись копирует только дельту, а когда та разрастается, снимок сливается в новые массивы.
+@Slf4j
+@Component
+@Order(MusicBandChangeListener.INDEX_ORDER)
+public class EstablishmentDateIndex implements MusicBandChangeListener {
+
+    private static final int MIN_COMPACT_DELTA = 1024;
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparingLong(Entry::millis).thenComparingLong(Entry::id);
+
+    private final MusicBandRepository musicBandRepository;
+
+    private final boolean enabled;
+
+    private volatile Snapshot snapshot = Snapshot.of(new long[0], new long[0]);
+
+    private final Map<Long, Long> millisById = new HashMap<>();
+
+    private long writes;
+
+    private volatile boolean ready;
+
+    public EstablishmentDateIndex(MusicBandRepository musicBandRepository,
+                                  @Value("${band-manager.index.establishment-date.enabled:true}") boolean enabled) {
+        this.musicBandRepository = musicBandRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isAvailable() {
+        return ready && !TransactionStateUtil.isInsideWritingTransaction();
+    }
+
+    // Id групп, основанных строго раньше date, в порядке (establishmentDate, id) или обратном
+    public IdSlice findIdsBefore(Date date, long offset, int limit, boolean descending) {
+        Snapshot current = snapshot;
+        int total = current.countBefore(date.getTime());
+        long from = descending ? Math.max(total - offset - limit, 0) : offset;
+        long to = descending ? total - offset : Math.min(offset + limit, total);
+        List<Long> ids = new ArrayList<>((int) Math.max(to - from, 0));
+        current.forEach(from, to, (millis, id) -> ids.add(id));
+        if (descending) {
+            Collections.reverse(ids);
+        }
+        return new IdSlice(ids, total);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        if (!enabled) return;
+        rebuild();
+        ready = true;
+    }
+
+    @Scheduled(cron = "${band-manager.index.reconcile-interval:0 */10 * * * *}")
+    public void reconcile() {
+        if (!ready || matchesDatabase()) return;
+        // Запись могла закоммититься до запроса, а до индекса дойти после снимка: перед пересборкой проверяем ещё раз
+        if (matchesDatabase()) return;
+        synchronized (this) {
+            log.warn("Establishment date index diverged from database, rebuilding: bands={}", snapshot.size());
+            rebuild();
+        }
+    }
+
+    @Override
+    public synchronized void onBandsSaved(List<MusicBandDto> bands) {
+        if (!ready) return;
+        List<Entry> removed = new ArrayList<>();
+        List<Entry> added = new ArrayList<>();
+        for (MusicBandDto band : bands) {
+            Long id = band.getId().longValue();
+            long millis = band.getEstablishmentDate().getTime();
+            Long previous = millisById.put(id, millis);
+            if (previous != null && previous == millis) {
+                continue;
+            }
+            if (previous != null) {
+                removed.add(new Entry(previous, id));
+            }
+            added.add(new Entry(millis, id));
+        }
+        apply(removed, added);
+    }
+
+    @Override
+    public synchronized void onBandsDeleted(List<MusicBandDto> bands) {
+        if (!ready) return;
+        List<Entry> removed = new ArrayList<>();
+        for (MusicBandDto band : bands) {
+            Long id = band.getId().longValue();
+            Long previous = millisById.remove(id);
+            if (previous != null) {
+                removed.add(new Entry(previous, id));
+            }
+        }
+        apply(removed, List.of());
+    }
+
+    private synchronized void rebuild() {
+        millisById.clear();
+        List<Entry> entries = new ArrayList<>();
+        for (Object[] row : musicBandRepository.findAllEstablishmentDates()) {
+            Long id = (Long) row[0];
+            long millis = ((Date) row[1]).getTime();
+            millisById.put(id, millis);
+            entries.add(new Entry(millis, id));
+        }
+        entries.sort(ENTRY_ORDER);
+        long[] millis = new long[entries.size()];
+        long[] ids = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            millis[i] = entries.get(i).millis();
+            ids[i] = entries.get(i).id();
+        }
+        snapshot = Snapshot.of(millis, ids);
+        log.info("Establishment date index built bands={}", entries.size());
+    }
+
+    // Число групп, сумма id и крайние даты основания — дешёвая сверка с БД без выгрузки всех строк
+    private boolean matchesDatabase() {
+        long writesBefore;
+        Snapshot current;
+        synchronized (this) {
+            writesBefore = writes;
+            current = snapshot;
+        }
+        Checksum actual = current.checksum();
+        Object[] row = musicBandRepository.findEstablishmentDateChecksum().get(0);
+        Checksum expected = new Checksum(
+                ((Number) row[0]).longValue(),
+                row[1] != null ? ((Number) row[1]).longValue() : 0,
+                row[2] != null ? ((Date) row[2]).getTime() : 0,
+                row[3] != null ? ((Date) row[3]).getTime() : 0);
+        synchronized (this) {
+            return writes != writesBefore || expected.equals(actual);
+        }
+    }
+
+    private void apply(List<Entry> removed, List<Entry> added) {
+        writes++;
+        if (removed.isEmpty() && added.isEmpty()) return;
+        Snapshot current = snapshot;
+        TreeSet<Integer> dropped = current.removedPositions();
+        TreeSet<Entry> delta = current.addedEntries();
+        for (Entry entry : removed) {
+            // Запись из дельты просто убирается, запись из базовых массивов помечается удалённой по позиции
+            if (!delta.remove(entry)) {
+                int position = current.indexOf(entry);
+                if (position >= 0) {
+                    dropped.add(position);
+                }
+            }
+        }
+        delta.addAll(added);
+        Snapshot next = current.withDelta(dropped, delta);
+        if (dropped.size() + delta.size() > Math.max(MIN_COMPACT_DELTA, current.ids().length / 16)) {
+            next = next.compact();
+            log.debug("Establishment date index compacted bands={}", next.size());
+        }
+        snapshot = next;
+    }
+
+    public record IdSlice(List<Long> ids, long total) {
+    }
+
+    private record Entry(long millis, long id) {
+    }
+
+    private record Checksum(long count, long idSum, long minMillis, long maxMillis) {
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+
+        void accept(long millis, long id);
+
+    }
+
+    // millis/ids — базовые массивы; removed — отсортированные позиции удалённых из них записей;
+    // added* — отсортированные добавления, insertions — позиция вставки каждого из них в базовые массивы
+    private record Snapshot(long[] millis, long[] ids, int[] removed,
+                            long[] addedMillis, long[] addedIds, int[] insertions) {
+
+        static Snapshot of(long[] millis, long[] ids) {
+            return new Snapshot(millis, ids, new int[0], new long[0], new long[0], new int[0]);
+        }
+
+        Snapshot withDelta(Set<Integer> dropped, Set<Entry> delta) {
+            int[] removedPositions = dropped.stream().mapToInt(Integer::intValue).toArray();
+            long[] deltaMillis = new long[delta.size()];
+            long[] deltaIds = new long[delta.size()];
+            int[] deltaInsertions = new int[delta.size()];
+            int i = 0;
+            for (Entry entry : delta) {
+                deltaMillis[i] = entry.millis();
+                deltaIds[i] = entry.id();
+                deltaInsertions[i++] = insertionPoint(entry.millis(), entry.id());
+            }
+            return new Snapshot(millis, ids, removedPositions, deltaMillis, deltaIds, deltaInsertions);
+        }
+
+        // Слияние базовых массивов с дельтой в новые базовые массивы за один проход
+        Snapshot compact() {
+            int size = size();
+            long[] mergedMillis = new long[size];
+            long[] mergedIds = new long[size];
+            int[] position = new int[1];
+            forEach(0, size, (entryMillis, id) -> {
+                mergedMillis[position[0]] = entryMillis;
+                mergedIds[position[0]++] = id;
+            });
+            return of(mergedMillis, mergedIds);
+        }
+
+        TreeSet<Integer> removedPositions() {
+            TreeSet<Integer> positions = new TreeSet<>();
+            for (int position : removed) {
+                positions.add(position);
+            }
+            return positions;
+        }
+
+        TreeSet<Entry> addedEntries() {
+            TreeSet<Entry> entries = new TreeSet<>(ENTRY_ORDER);
+            for (int i = 0; i < addedIds.length; i++) {
+                entries.add(new Entry(addedMillis[i], addedIds[i]));
+            }
+            return entries;
+        }
+
+        int size() {
+            return ids.length - removed.length + addedIds.length;
+        }
+
+        // Число элементов строго меньше bound с учётом удалений и добавлений
+        int countBefore(long bound) {
+            int position = lowerBound(millis, bound);
+            return position - lowerBound(removed, position) + lowerBound(addedMillis, bound);
+        }
+
+        // Позиция записи в базовых массивах или -1
+        int indexOf(Entry entry) {
+            int position = insertionPoint(entry.millis(), entry.id());
+            return position < ids.length && millis[position] == entry.millis() && ids[position] == entry.id() ? position : -1;
+        }
+
+        // Элементы с порядковыми номерами [from, to) объединённой последовательности по возрастанию;
+        // непрерывные участки базовых массивов пропускаются целиком, поэтому цена — O(дельта + to - from)
+        void forEach(long from, long to, EntryConsumer consumer) {
+            long rank = 0;
+            int position = 0;
+            int r = 0;
+            int a = 0;
+            while (rank < to) {
+                if (a < addedIds.length && insertions[a] <= position) {
+                    if (rank >= from) {
+                        consumer.accept(addedMillis[a], addedIds[a]);
+                    }
+                    rank++;
+                    a++;
+                } else if (r < removed.length && removed[r] == position) {
+                    position++;
+                    r++;
+                } else if (position < ids.length) {
+                    int next = ids.length;
+                    if (r < removed.length) next = Math.min(next, removed[r]);
+                    if (a < insertions.length) next = Math.min(next, insertions[a]);
+                    int start = position + (int) Math.max(Math.min(from - rank, next - position), 0);
+                    int end = position + (int) Math.min(to - rank, next - position);
+                    for (int i = start; i < end; i++) {
+                        consumer.accept(millis[i], ids[i]);
+                    }
+                    rank += next - position;
+                    position = next;
+                } else {
+                    break;
+                }
+            }
+        }
+
+        // Порядок возрастающий: первый элемент — самая ранняя дата, последний — самая поздняя
+        Checksum checksum() {
+            int size = size();
+            long[] idSum = new long[1];
+            long[] bounds = new long[2];
+            forEach(0, size, (entryMillis, id) -> idSum[0] += id);
+            forEach(0, Math.min(size, 1), (entryMillis, id) -> bounds[0] = entryMillis);
+            forEach(Math.max(size - 1, 0), size, (entryMillis, id) -> bounds[1] = entryMillis);
+            return new Checksum(size, idSum[0], bounds[0], bounds[1]);
+        }
+
+        // Первая позиция, где (millis, id) не меньше заданной пары
+        private int insertionPoint(long entryMillis, long id) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int result = Long.compare(millis[middle], entryMillis);
+                if (result < 0 || result == 0 && ids[middle] < id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Первая позиция с values[i] >= bound, то есть число элементов строго меньше bound
+        private static int lowerBound(long[] values, long bound) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] < bound) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static int lowerBound(int[] values, int bound) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] < bound) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+    }
+
+}
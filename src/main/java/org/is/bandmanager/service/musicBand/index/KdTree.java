@@ -0,0 +1,166 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import java.util.function.LongPredicate;
+
+// Неизменяемое 2d-дерево в неявном виде: узел диапазона [low, high) — его середина,
+// ось чередуется по глубине (чётная — x, нечётная — y). Отсутствующий y хранится как NaN,
+// Float.compare ставит NaN после всех чисел, поэтому порядок по y остаётся полным.
+final class KdTree {
+
+    private final int[] xs;
+
+    private final float[] ys;
+
+    private final long[] ids;
+
+    KdTree(int[] xs, float[] ys, long[] ids) {
+        this.xs = xs;
+        this.ys = ys;
+        this.ids = ids;
+        build(0, ids.length, 0);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    // Обходит точки внутри прямоугольника; consumer возвращает false, чтобы остановить обход
+    boolean search(Box box, LongPredicate consumer) {
+        return search(0, ids.length, 0, box, consumer);
+    }
+
+    // Ближайшая к (x, y) точка с определённым y, не отвергнутая excluded; id = -1, если таких нет
+    Nearest nearest(double x, double y, LongPredicate excluded) {
+        Nearest best = new Nearest();
+        nearest(0, ids.length, 0, x, y, excluded, best);
+        return best;
+    }
+
+    private boolean search(int low, int high, int depth, Box box, LongPredicate consumer) {
+        if (low >= high) return true;
+        int middle = (low + high) >>> 1;
+        if (box.contains(xs[middle], ys[middle]) && !consumer.test(ids[middle])) {
+            return false;
+        }
+        boolean goLeft;
+        boolean goRight;
+        if ((depth & 1) == 0) {
+            goLeft = box.minX() <= xs[middle];
+            goRight = xs[middle] <= box.maxX();
+        } else {
+            goLeft = Float.compare(box.minY(), ys[middle]) <= 0;
+            goRight = box.unboundedY() || Float.compare(ys[middle], box.maxY()) <= 0;
+        }
+        return (!goLeft || search(low, middle, depth + 1, box, consumer))
+                && (!goRight || search(middle + 1, high, depth + 1, box, consumer));
+    }
+
+    private void nearest(int low, int high, int depth, double x, double y, LongPredicate excluded, Nearest best) {
+        if (low >= high) return;
+        int middle = (low + high) >>> 1;
+        if (!Float.isNaN(ys[middle]) && !excluded.test(ids[middle])) {
+            double distance = distance(x, y, xs[middle], ys[middle]);
+            if (distance < best.distance || distance == best.distance && ids[middle] < best.id) {
+                best.distance = distance;
+                best.id = ids[middle];
+            }
+        }
+        boolean byX = (depth & 1) == 0;
+        if (!byX && Float.isNaN(ys[middle])) {
+            // Правее NaN-узла по y только точки без y — они в поиске не участвуют
+            nearest(low, middle, depth + 1, x, y, excluded, best);
+            return;
+        }
+        double delta = byX ? x - xs[middle] : y - ys[middle];
+        boolean leftFirst = delta <= 0;
+        nearest(leftFirst ? low : middle + 1, leftFirst ? middle : high, depth + 1, x, y, excluded, best);
+        if (delta * delta <= best.distance) {
+            nearest(leftFirst ? middle + 1 : low, leftFirst ? high : middle, depth + 1, x, y, excluded, best);
+        }
+    }
+
+    private static double distance(double x, double y, int pointX, float pointY) {
+        double dx = x - pointX;
+        double dy = y - pointY;
+        return dx * dx + dy * dy;
+    }
+
+    private void build(int low, int high, int depth) {
+        if (high - low <= 1) return;
+        int middle = (low + high) >>> 1;
+        select(low, high - 1, middle, (depth & 1) == 0);
+        build(low, middle, depth + 1);
+        build(middle + 1, high, depth + 1);
+    }
+
+    // Quickselect: после вызова на позиции k стоит k-й элемент по оси, слева не больше, справа не меньше
+    private void select(int left, int right, int k, boolean byX) {
+        while (left < right) {
+            int pivot = partition(left, right, (left + right) >>> 1, byX);
+            if (pivot == k) return;
+            if (k < pivot) {
+                right = pivot - 1;
+            } else {
+                left = pivot + 1;
+            }
+        }
+    }
+
+    private int partition(int left, int right, int pivotIndex, boolean byX) {
+        swap(pivotIndex, right);
+        int store = left;
+        for (int i = left; i < right; i++) {
+            if (compare(i, right, byX) < 0) {
+                swap(i, store++);
+            }
+        }
+        swap(store, right);
+        return store;
+    }
+
+    private int compare(int i, int j, boolean byX) {
+        int result = byX ? Integer.compare(xs[i], xs[j]) : Float.compare(ys[i], ys[j]);
+        return result != 0 ? result : Long.compare(ids[i], ids[j]);
+    }
+
+    private void swap(int i, int j) {
+        int x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+        float y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    // Границы включительные, как BETWEEN; при заданной границе по y точки без y не подходят
+    record Box(double minX, double maxX, float minY, float maxY, boolean unboundedY) {
+
+        static Box of(Integer minX, Integer maxX, Float minY, Float maxY) {
+            return new Box(
+                    minX != null ? minX : Double.NEGATIVE_INFINITY,
+                    maxX != null ? maxX : Double.POSITIVE_INFINITY,
+                    minY != null ? minY : Float.NEGATIVE_INFINITY,
+                    maxY != null ? maxY : Float.POSITIVE_INFINITY,
+                    minY == null && maxY == null);
+        }
+
+        boolean contains(int x, float y) {
+            if (x < minX || x > maxX) return false;
+            if (Float.isNaN(y)) return unboundedY;
+            return y >= minY && y <= maxY;
+        }
+
+    }
+
+    static final class Nearest {
+
+        double distance = Double.POSITIVE_INFINITY;
+
+        long id = -1;
+
+    }
+
+}
@@ -0,0 +1,159 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.MusicBandMapper;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.is.bandmanager.repository.predicates.MusicBandPredicates;
+import org.is.bandmanager.service.musicBand.listener.MusicBandChangeListener;
+import org.is.util.transaction.TransactionStateUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+// Top-k групп по (coordinates.x DESC, coordinates.y DESC NULLS FIRST, id), поддерживается по событиям.
+// Хранит точный префикс глобального порядка; к БД обращается только когда префикс опустел
+// (удалили все известные максимумы) или изменились сами координаты.
+@Slf4j
+@Component
+@Order(MusicBandChangeListener.INDEX_ORDER)
+public class MaxCoordinatesIndex implements MusicBandChangeListener {
+
+    private static final Comparator<Float> NULLS_FIRST_DESC = Comparator.nullsFirst(Comparator.<Float>reverseOrder());
+
+    private static final Comparator<MusicBandDto> ORDER = Comparator
+            .comparing((MusicBandDto band) -> band.getCoordinates().getX(), Comparator.reverseOrder())
+            .thenComparing(band -> band.getCoordinates().getY(), NULLS_FIRST_DESC)
+            .thenComparing(MusicBandDto::getId);
+
+    private final MusicBandRepository musicBandRepository;
+
+    private final MusicBandMapper mapper;
+
+    private final boolean enabled;
+
+    private final int capacity;
+
+    private final TreeSet<MusicBandDto> top = new TreeSet<>(ORDER);
+
+    private final Map<Integer, MusicBandDto> byId = new HashMap<>();
+
+    // В top лежат все группы каталога, а не только префикс
+    private boolean exhaustive;
+
+    private boolean stale = true;
+
+    // Растёт с каждым событием: префикс, загруженный во время изменения, в индекс не попадает
+    private long generation;
+
+    public MaxCoordinatesIndex(MusicBandRepository musicBandRepository,
+                               MusicBandMapper mapper,
+                               @Value("${band-manager.index.max-coordinates.enabled:true}") boolean enabled,
+                               @Value("${band-manager.index.max-coordinates.capacity:16}") int capacity) {
+        this.musicBandRepository = musicBandRepository;
+        this.mapper = mapper;
+        this.enabled = enabled;
+        this.capacity = capacity;
+    }
+
+    public Optional<MusicBandDto> findMax() {
+        if (!enabled || TransactionStateUtil.isInsideWritingTransaction()) {
+            return loadTop(1).stream().findFirst();
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            if (!stale && (exhaustive || !top.isEmpty())) {
+                return top.isEmpty() ? Optional.empty() : Optional.of(mapper.copy(top.first()));
+            }
+            loadGeneration = generation;
+        }
+
+        // Запрос к БД — без монитора, чтобы читатели и события не ждали его
+        List<MusicBandDto> loaded = loadTop(capacity);
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                rebuild(loaded);
+            }
+        }
+        return loaded.isEmpty() ? Optional.empty() : Optional.of(mapper.copy(loaded.get(0)));
+    }
+
+    @Override
+    public synchronized void onBandsSaved(List<MusicBandDto> bands) {
+        generation++;
+        if (stale) return;
+        for (MusicBandDto band : bands) {
+            remove(band.getId());
+            if (band.getCoordinates() == null) {
+                continue;
+            }
+            // Группа ниже известного префикса может уступать неизвестным группам — её место неизвестно
+            if (exhaustive || !top.isEmpty() && ORDER.compare(band, top.last()) < 0) {
+                add(band);
+            }
+        }
+        trim();
+    }
+
+    @Override
+    public synchronized void onBandsDeleted(List<MusicBandDto> bands) {
+        generation++;
+        if (stale) return;
+        bands.forEach(band -> remove(band.getId()));
+    }
+
+    @Override
+    public synchronized void onDependenciesUpdated(List<?> dependencies) {
+        generation++;
+        if (stale) return;
+        // Изменённые координаты могут поднять любую группу; прочие зависимости меняют только содержимое ответа
+        boolean affected = dependencies.stream().anyMatch(dependency -> dependency instanceof CoordinatesDto
+                || top.stream().anyMatch(band -> MusicBandPredicates.references(band, dependency)));
+        if (affected) {
+            stale = true;
+        }
+    }
+
+    private void rebuild(List<MusicBandDto> loaded) {
+        top.clear();
+        byId.clear();
+        loaded.forEach(this::add);
+        exhaustive = loaded.size() < capacity;
+        stale = false;
+        log.debug("Rebuilt max coordinates index size={} exhaustive={}", top.size(), exhaustive);
+    }
+
+    private List<MusicBandDto> loadTop(int limit) {
+        return musicBandRepository.findTopByCoordinates(PageRequest.of(0, limit)).stream().map(mapper::toDto).toList();
+    }
+
+    private void add(MusicBandDto band) {
+        top.add(band);
+        byId.put(band.getId(), band);
+    }
+
+    private void remove(Integer id) {
+        MusicBandDto existing = byId.remove(id);
+        if (existing != null) {
+            top.remove(existing);
+        }
+    }
+
+    private void trim() {
+        while (top.size() > capacity) {
+            byId.remove(top.pollLast().getId());
+            exhaustive = false;
+        }
+    }
+
+}
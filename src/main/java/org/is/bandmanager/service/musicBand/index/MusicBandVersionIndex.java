@@ -0,0 +1,233 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.is.bandmanager.service.musicBand.listener.MusicBandChangeListener;
+import org.is.util.transaction.TransactionStateUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Версии группы и всех вложенных в MusicBandDto сущностей по id группы: из них строится сильный ETag,
+// который можно сверить с If-None-Match, не обращаясь к БД и мапперу
+@Slf4j
+@Component
+@Order(MusicBandChangeListener.INDEX_ORDER)
+public class MusicBandVersionIndex implements MusicBandChangeListener {
+
+    private final MusicBandRepository musicBandRepository;
+
+    private final boolean enabled;
+
+    private final Map<Long, Versions> versionsById = new ConcurrentHashMap<>();
+
+    // Обратные индексы от id вложенной сущности к id ссылающихся на неё групп; меняются только под монитором
+    private final Map<Long, Set<Long>> bandIdsByCoordinatesId = new HashMap<>();
+
+    private final Map<Long, Set<Long>> bandIdsByAlbumId = new HashMap<>();
+
+    private final Map<Long, Set<Long>> bandIdsByPersonId = new HashMap<>();
+
+    private final Map<Long, Set<Long>> bandIdsByLocationId = new HashMap<>();
+
+    private volatile boolean ready;
+
+    public MusicBandVersionIndex(MusicBandRepository musicBandRepository,
+                                 @Value("${band-manager.index.versions.enabled:true}") boolean enabled) {
+        this.musicBandRepository = musicBandRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isAvailable() {
+        return ready && !TransactionStateUtil.isInsideWritingTransaction();
+    }
+
+    public Optional<String> findTag(Long id) {
+        Versions versions = versionsById.get(id);
+        return versions != null ? Optional.of(versions.tag(id)) : Optional.empty();
+    }
+
+    // Тот же тег, что хранит индекс, но вычисленный по уже загруженной группе
+    public static String tagOf(MusicBandDto band) {
+        return Versions.of(band).tag(band.getId().longValue());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        if (!enabled) return;
+        rebuild();
+        ready = true;
+    }
+
+    @Scheduled(cron = "${band-manager.index.reconcile-interval:0 */10 * * * *}")
+    public void reconcile() {
+        if (!ready) return;
+        long expected = musicBandRepository.count();
+        int actual = versionsById.size();
+        if (expected != actual) {
+            log.warn("Music band version index diverged from database, rebuilding: expected={} actual={}", expected, actual);
+            rebuild();
+        }
+    }
+
+    @Override
+    public synchronized void onBandsSaved(List<MusicBandDto> bands) {
+        if (!ready) return;
+        for (MusicBandDto band : bands) {
+            put(band.getId().longValue(), Versions.of(band));
+        }
+    }
+
+    @Override
+    public synchronized void onBandsDeleted(List<MusicBandDto> bands) {
+        if (!ready) return;
+        for (MusicBandDto band : bands) {
+            remove(band.getId().longValue());
+        }
+    }
+
+    @Override
+    public synchronized void onDependenciesUpdated(List<?> dependencies) {
+        if (!ready) return;
+        for (Object dependency : dependencies) {
+            // Копия: перепривязка группы меняет множества обратных индексов
+            for (Long id : List.copyOf(bandIdsOf(dependency))) {
+                Versions versions = versionsById.get(id);
+                if (versions != null) {
+                    put(id, versions.with(dependency));
+                }
+            }
+        }
+    }
+
+    private synchronized void rebuild() {
+        versionsById.clear();
+        bandIdsByCoordinatesId.clear();
+        bandIdsByAlbumId.clear();
+        bandIdsByPersonId.clear();
+        bandIdsByLocationId.clear();
+        for (Object[] row : musicBandRepository.findAllVersions()) {
+            put((Long) row[0], new Versions((Long) row[1],
+                    (Long) row[2], (Long) row[3],
+                    (Long) row[4], (Long) row[5],
+                    (Long) row[6], (Long) row[7],
+                    (Long) row[8], (Long) row[9]));
+        }
+        log.info("Music band version index built bands={}", versionsById.size());
+    }
+
+    private void put(Long id, Versions versions) {
+        Versions previous = versionsById.put(id, versions);
+        if (previous != null) {
+            unlink(id, previous);
+        }
+        link(bandIdsByCoordinatesId, versions.coordinatesId(), id);
+        link(bandIdsByAlbumId, versions.albumId(), id);
+        link(bandIdsByPersonId, versions.personId(), id);
+        link(bandIdsByLocationId, versions.locationId(), id);
+    }
+
+    private void remove(Long id) {
+        Versions previous = versionsById.remove(id);
+        if (previous != null) {
+            unlink(id, previous);
+        }
+    }
+
+    private void unlink(Long id, Versions versions) {
+        unlink(bandIdsByCoordinatesId, versions.coordinatesId(), id);
+        unlink(bandIdsByAlbumId, versions.albumId(), id);
+        unlink(bandIdsByPersonId, versions.personId(), id);
+        unlink(bandIdsByLocationId, versions.locationId(), id);
+    }
+
+    private Set<Long> bandIdsOf(Object dependency) {
+        if (dependency instanceof CoordinatesDto coordinates) {
+            return bandIdsByCoordinatesId.getOrDefault(coordinates.getId(), Set.of());
+        }
+        if (dependency instanceof AlbumDto album) {
+            return bandIdsByAlbumId.getOrDefault(album.getId(), Set.of());
+        }
+        if (dependency instanceof PersonDto person) {
+            return bandIdsByPersonId.getOrDefault(person.getId(), Set.of());
+        }
+        if (dependency instanceof LocationDto location) {
+            return bandIdsByLocationId.getOrDefault(location.getId(), Set.of());
+        }
+        return Set.of();
+    }
+
+    private static void link(Map<Long, Set<Long>> bandIdsByDependencyId, Long dependencyId, Long bandId) {
+        if (dependencyId == null) return;
+        bandIdsByDependencyId.computeIfAbsent(dependencyId, key -> new HashSet<>()).add(bandId);
+    }
+
+    private static void unlink(Map<Long, Set<Long>> bandIdsByDependencyId, Long dependencyId, Long bandId) {
+        if (dependencyId == null) return;
+        Set<Long> bandIds = bandIdsByDependencyId.get(dependencyId);
+        if (bandIds != null && bandIds.remove(bandId) && bandIds.isEmpty()) {
+            bandIdsByDependencyId.remove(dependencyId);
+        }
+    }
+
+    private record Versions(Long version,
+                            Long coordinatesId, Long coordinatesVersion,
+                            Long albumId, Long albumVersion,
+                            Long personId, Long personVersion,
+                            Long locationId, Long locationVersion) {
+
+        static Versions of(MusicBandDto band) {
+            CoordinatesDto coordinates = band.getCoordinates();
+            AlbumDto album = band.getBestAlbum();
+            PersonDto person = band.getFrontMan();
+            LocationDto location = person.getLocation();
+            return new Versions(band.getVersion(),
+                    coordinates.getId(), coordinates.getVersion(),
+                    album.getId(), album.getVersion(),
+                    person.getId(), person.getVersion(),
+                    location.getId(), location.getVersion());
+        }
+
+        Versions with(Object dependency) {
+            if (dependency instanceof CoordinatesDto coordinates && Objects.equals(coordinates.getId(), coordinatesId)) {
+                return new Versions(version, coordinatesId, coordinates.getVersion(), albumId, albumVersion, personId, personVersion, locationId, locationVersion);
+            }
+            if (dependency instanceof AlbumDto album && Objects.equals(album.getId(), albumId)) {
+                return new Versions(version, coordinatesId, coordinatesVersion, albumId, album.getVersion(), personId, personVersion, locationId, locationVersion);
+            }
+            if (dependency instanceof PersonDto person && Objects.equals(person.getId(), personId)) {
+                // У изменённого фронтмена могла смениться и локация
+                LocationDto location = person.getLocation();
+                return new Versions(version, coordinatesId, coordinatesVersion, albumId, albumVersion, personId, person.getVersion(),
+                        location != null ? location.getId() : locationId, location != null ? location.getVersion() : locationVersion);
+            }
+            if (dependency instanceof LocationDto location && Objects.equals(location.getId(), locationId)) {
+                return new Versions(version, coordinatesId, coordinatesVersion, albumId, albumVersion, personId, personVersion, locationId, location.getVersion());
+            }
+            return this;
+        }
+
+        String tag(long id) {
+            return "\"" + id + "-" + version + "-" + coordinatesVersion + "-" + albumVersion + "-" + personVersion + "-" + locationVersion + "\"";
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package org.is.bandmanager.service.musicBand.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.event.EntityEvent;
+import org.is.event.EventType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MusicBandChangeEventDispatcher {
+
+    private static final Set<Class<?>> DEPENDENCY_TYPES = Set.of(CoordinatesDto.class, AlbumDto.class, PersonDto.class, LocationDto.class);
+
+    private final List<MusicBandChangeListener> listeners;
+
+    // После коммита: откаченные транзакции не должны попадать в in-memory состояние
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEntityEvent(EntityEvent<?> event) {
+        if (event.getEntities().isEmpty()) return;
+
+        if (MusicBandDto.class.equals(event.getEntityType())) {
+            @SuppressWarnings("unchecked")
+            List<MusicBandDto> bands = (List<MusicBandDto>) event.getEntities();
+            @SuppressWarnings("unchecked")
+            List<MusicBandDto> previous = (List<MusicBandDto>) event.getPreviousEntities();
+            boolean deleted = event.getEventType() == EventType.DELETED || event.getEventType() == EventType.BULK_DELETED;
+            for (MusicBandChangeListener listener : listeners) {
+                try {
+                    if (deleted) {
+                        listener.onBandsDeleted(bands);
+                    } else {
+                        listener.onBandsSaved(bands, previous);
+                    }
+                } catch (Exception e) {
+                    log.error("Music band change listener {} failed", listener.getClass().getSimpleName(), e);
+                }
+            }
+        } else if (event.getEventType() == EventType.UPDATED && DEPENDENCY_TYPES.contains(event.getEntityType())) {
+            // Созданные зависимости ещё ни на что не ссылаются, а удалить используемые не даёт FK
+            for (MusicBandChangeListener listener : listeners) {
+                try {
+                    listener.onDependenciesUpdated(event.getEntities());
+                } catch (Exception e) {
+                    log.error("Music band change listener {} failed", listener.getClass().getSimpleName(), e);
+                }
+            }
+        }
+    }
+
+}
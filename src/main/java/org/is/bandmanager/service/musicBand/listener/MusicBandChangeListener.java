@@ -0,0 +1,31 @@
+package org.is.bandmanager.service.musicBand.listener;
+
+import org.is.bandmanager.dto.MusicBandDto;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+// Получатель закоммиченных изменений MusicBand для in-memory структур (кэши, индексы)
+public interface MusicBandChangeListener {
+
+    // Сначала индексы, потом кэш страниц: страница, перечитанная между сбросом кэша и обновлением индекса,
+    // иначе закэшировалась бы по устаревшим кандидатам
+    int INDEX_ORDER = 0;
+
+    int QUERY_CACHE_ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    default void onBandsSaved(List<MusicBandDto> bands) {
+    }
+
+    // previous — те же группы до изменения, если событие его несёт; индексам по id достаточно нового состояния
+    default void onBandsSaved(List<MusicBandDto> bands, List<MusicBandDto> previous) {
+        onBandsSaved(bands);
+    }
+
+    default void onBandsDeleted(List<MusicBandDto> bands) {
+    }
+
+    default void onDependenciesUpdated(List<?> dependencies) {
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.is.bandmanager.service.musicBand.write;
+
+import java.util.function.Supplier;
+
+// Транзакционная обёртка записи групп (одиночной и пакетной); реализация выбирается
+// свойством band-manager.write.concurrency-mode
+public interface MusicBandWriteExecutor {
+
+    <T> T execute(Supplier<T> write);
+
+}
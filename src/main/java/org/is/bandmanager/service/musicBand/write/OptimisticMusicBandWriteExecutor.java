@@ -0,0 +1,22 @@
+package org.is.bandmanager.service.musicBand.write;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Supplier;
+
+// READ COMMITTED без повторов: потерянные обновления отсекает @Version (409 STALE_OBJECT_ERROR),
+// дубликаты имени — уникальное ограничение uq_music_band_name (400 UNIQUE_VIOLATION)
+@Component
+@ConditionalOnProperty(name = "band-manager.write.concurrency-mode", havingValue = "optimistic")
+public class OptimisticMusicBandWriteExecutor implements MusicBandWriteExecutor {
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public <T> T execute(Supplier<T> write) {
+        return write.get();
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.is.bandmanager.service.musicBand.write;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Supplier;
+
+// Режим по умолчанию: SERIALIZABLE, конфликты сериализации повторяются с экспоненциальной задержкой
+@Component
+@ConditionalOnProperty(name = "band-manager.write.concurrency-mode", havingValue = "serializable", matchIfMissing = true)
+public class SerializableMusicBandWriteExecutor implements MusicBandWriteExecutor {
+
+    @Override
+    // Ошибки сериализации, дедлоки и таймауты блокировок Spring переводит в наследников
+    // PessimisticLockingFailureException, в том числе CannotAcquireLockException
+    @Retryable(
+            include = PessimisticLockingFailureException.class,
+            maxAttempts = 5,
+            backoff = @Backoff(delay = 250, multiplier = 2, maxDelay = 1000)
+    )
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public <T> T execute(Supplier<T> write) {
+        return write.get();
+    }
+
+}
@@ -84,7 +84,9 @@ public class PersonServiceImpl implements PersonService, CleanupStrategy<Person,
         Person updatingPerson = findById(id);
         mapper.updateEntityFromRequest(request, updatingPerson);
         handleDependencies(request, updatingPerson);
-        PersonDto updatedPerson = mapper.toDto(personRepository.save(updatingPerson));
+        Person savedPerson = personRepository.save(updatingPerson);
+        personRepository.flush();
+        PersonDto updatedPerson = mapper.toDto(savedPerson);
         eventPublisher.publishEvent(new EntityEvent<>(UPDATED, updatedPerson));
         return updatedPerson;
     }
@@ -1,24 +1,28 @@
 package org.is.bandmanager.service.subscription;
 
 import org.is.event.EntityEvent;
+import org.is.bandmanager.service.subscription.model.SubscriptionFormat;
 import org.is.bandmanager.service.subscription.model.request.SubscriptionRequest;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface SubscriptionService {
 
-    void createSubscription(String principalId, SubscriptionRequest<?> subscriptionRequest);
+    void createSubscription(String principalId, String sessionId, SubscriptionRequest<?> subscriptionRequest);
 
     void updateSubscription(String principalId, SubscriptionRequest<?> subscriptionRequest);
 
     void cancelSubscription(String principalId, UUID subscriptionId);
 
-    void cancelAllPrincipalSubscriptions(String principalId);
+    void cancelAllSessionSubscriptions(String sessionId);
 
-    void notifySubscription(UUID subscriptionId);
+    void notifySubscription(UUID subscriptionId, SubscriptionFormat format);
 
-    void handleEntityEventInternal(EntityEvent<?> entityEvent);
+    void handleEntityEventsInternal(List<EntityEvent<?>> entityEvents);
 
     void cleanupDeadSubscriptionsInternal();
 
+    void resyncAllInternal();
+
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package org.is.bandmanager.service.subscription;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.is.bandmanager.repository.filter.BestBandAwardFilter;
 import org.is.event.EntityEvent;
 import org.is.exception.ServiceException;
@@ -8,25 +8,41 @@ import org.is.bandmanager.repository.filter.EntityFilter;
 import org.is.bandmanager.repository.filter.MusicBandFilter;
 import org.is.bandmanager.service.bestBandAward.BestBandAwardService;
 import org.is.bandmanager.service.musicBand.MusicBandService;
+import org.is.bandmanager.service.subscription.delta.SubscriptionMessageFactory;
+import org.is.bandmanager.service.subscription.limiter.SubscriptionQueryLimiter;
+import org.is.bandmanager.service.subscription.matcher.SubscriptionChangeDetector;
+import org.is.bandmanager.service.subscription.model.ResultSnapshot;
 import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.bandmanager.service.subscription.model.SubscriptionFormat;
+import org.is.bandmanager.service.subscription.model.SubscriptionGroup;
+import org.is.bandmanager.service.subscription.model.SubscriptionGroupKey;
 import org.is.bandmanager.service.subscription.model.request.SubscriptionRequest;
 import org.is.bandmanager.service.subscription.notifier.SubscriptionNotifier;
 import org.is.bandmanager.service.subscription.storage.SubscriptionStorage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.CANNOT_ACCESS_SOURCE;
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.SOURCE_WITH_ID_NOT_FOUND;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class SubscriptionServiceImpl implements SubscriptionService {
 
+    private static final int GROUP_LOCK_STRIPES = 256;
+
     private final SubscriptionStorage storage;
 
     private final SubscriptionNotifier notifier;
@@ -35,9 +51,42 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
     private final BestBandAwardService bestBandAwardService;
 
+    private final SubscriptionChangeDetector changeDetector;
+
+    private final SubscriptionMessageFactory messageFactory;
+
+    private final SubscriptionQueryLimiter queryLimiter;
+
+    private final TaskExecutor executor;
+
+    // Равные ключи групп попадают на одну блокировку. ReentrantLock, а не монитор: виртуальный поток,
+    // ждущий JDBC внутри synchronized, занимает поток-носитель
+    private final Lock[] groupLocks = new Lock[GROUP_LOCK_STRIPES];
+
+    public SubscriptionServiceImpl(SubscriptionStorage storage,
+                                   SubscriptionNotifier notifier,
+                                   MusicBandService musicBandService,
+                                   BestBandAwardService bestBandAwardService,
+                                   SubscriptionChangeDetector changeDetector,
+                                   SubscriptionMessageFactory messageFactory,
+                                   SubscriptionQueryLimiter queryLimiter,
+                                   @Qualifier("subscriptionTaskExecutor") TaskExecutor executor) {
+        this.storage = storage;
+        this.notifier = notifier;
+        this.musicBandService = musicBandService;
+        this.bestBandAwardService = bestBandAwardService;
+        this.changeDetector = changeDetector;
+        this.messageFactory = messageFactory;
+        this.queryLimiter = queryLimiter;
+        this.executor = executor;
+        for (int i = 0; i < GROUP_LOCK_STRIPES; i++) {
+            groupLocks[i] = new ReentrantLock();
+        }
+    }
+
     @Override
-    public void createSubscription(String principalId, SubscriptionRequest<?> subscriptionRequest) {
-        Subscription<?> subscription = storage.createSubscription(principalId, subscriptionRequest);
+    public void createSubscription(String principalId, String sessionId, SubscriptionRequest<?> subscriptionRequest) {
+        Subscription<?> subscription = storage.createSubscription(principalId, sessionId, subscriptionRequest);
         notifier.notifySubscriptionMeta(subscription);
     }
 
@@ -46,6 +95,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         Subscription<?> subscription = getSubscription(subscriptionRequest.getSubscriptionId());
         assertSessionEquals(principalId, subscription);
         Subscription<?> updatedSubscription = storage.updateSubscription(subscriptionRequest);
+        notifier.releaseSubscriptions(List.of(updatedSubscription.getSubscriptionId()));
         notifier.notifySubscriptionMeta(updatedSubscription);
     }
 
@@ -54,33 +104,56 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         Subscription<?> subscription = getSubscription(subscriptionId);
         assertSessionEquals(principalId, subscription);
         storage.deleteSubscription(subscriptionId);
+        notifier.releaseSubscriptions(List.of(subscriptionId));
     }
 
     @Override
-    public void cancelAllPrincipalSubscriptions(String principalId) {
-        storage.deleteAllPrincipalSubscriptions(principalId);
+    public void cancelAllSessionSubscriptions(String sessionId) {
+        notifier.releaseSubscriptions(storage.deleteAllSessionSubscriptions(sessionId));
     }
 
     @Override
     @Async("subscriptionTaskExecutor")
-    public void notifySubscription(UUID subscriptionId) {
-        sendSubscriptionData(getSubscription(subscriptionId));
+    public void notifySubscription(UUID subscriptionId, SubscriptionFormat format) {
+        // Новая STOMP-подписка клиента: он ничего не знает о прошлых сообщениях, нужна полная страница
+        Subscription<?> subscription = getSubscription(subscriptionId);
+        subscription.setFormat(format);
+        SubscriptionGroupKey key = storage.getSubscriptionGroupKey(subscriptionId)
+                .orElseGet(() -> SubscriptionGroupKey.of(subscription));
+        sendGroupData(key, List.of(subscription), true);
     }
 
-    public void handleEntityEventInternal(EntityEvent<?> entityEvent) {
-        if (entityEvent.getEntities().isEmpty()) return;
+    public void handleEntityEventsInternal(List<EntityEvent<?>> entityEvents) {
+        List<EntityEvent<?>> events = entityEvents.stream().filter(event -> !event.getEntities().isEmpty()).toList();
+        if (events.isEmpty()) return;
 
-        if (entityEvent.getEntities().get(0).getClass().equals(org.is.bandmanager.dto.MusicBandDto.class)) {
-            List<Subscription<MusicBandFilter>> subscriptions = storage.getSubscriptionsByType(MusicBandFilter.class);
-            subscriptions.forEach(this::sendSubscriptionData);
-        } else if (entityEvent.getEntities().get(0).getClass().equals(org.is.bandmanager.dto.BestBandAwardDto.class)) {
-            List<Subscription<BestBandAwardFilter>> subscriptions = storage.getSubscriptionsByType(BestBandAwardFilter.class);
-            subscriptions.forEach(this::sendSubscriptionData);
+        // Перезапрашиваются только группы, чью страницу события могли изменить, и один раз на группу за пачку
+        notifyAffected(storage.getSubscriptionGroupsByType(MusicBandFilter.class), events);
+        notifyAffected(storage.getSubscriptionGroupsByType(BestBandAwardFilter.class), events);
+    }
+
+    private void notifyAffected(List<? extends SubscriptionGroup<?>> groups, List<EntityEvent<?>> events) {
+        for (SubscriptionGroup<?> group : groups) {
+            List<? extends Subscription<?>> affected = group.subscriptions().stream()
+                    .filter(subscription -> events.stream().anyMatch(event -> changeDetector.isAffected(subscription, event)))
+                    .toList();
+            if (!affected.isEmpty()) {
+                executor.execute(() -> sendGroupDataSafely(group.key(), affected, false));
+            }
         }
     }
 
     public void cleanupDeadSubscriptionsInternal() {
-        storage.deleteDeadSubscriptions();
+        notifier.releaseSubscriptions(storage.deleteDeadSubscriptions());
+    }
+
+    public void resyncAllInternal() {
+        // Страховка от пропущенных дельт: событие не несёт прежнего состояния строки,
+        // поэтому уход строки со страницы из-за правки на другой странице виден только при полном запросе
+        storage.getSubscriptionGroupsByType(MusicBandFilter.class).forEach(group ->
+                executor.execute(() -> sendGroupDataSafely(group.key(), group.subscriptions(), true)));
+        storage.getSubscriptionGroupsByType(BestBandAwardFilter.class).forEach(group ->
+                executor.execute(() -> sendGroupDataSafely(group.key(), group.subscriptions(), true)));
     }
 
     private Subscription<?> getSubscription(UUID id) {
@@ -93,9 +166,49 @@ public class SubscriptionServiceImpl implements SubscriptionService {
             throw new ServiceException(CANNOT_ACCESS_SOURCE, "Subscription", subscription.getSubscriptionId());
     }
 
-    private void sendSubscriptionData(Subscription<?> subscription) {
-        Page<?> subscriptionData = getSubscriptionData(subscription);
-        notifier.notifySubscription(subscription, subscriptionData);
+    // Группы рассылаются параллельно, каждая отдельной задачей subscriptionTaskExecutor
+    private void sendGroupDataSafely(SubscriptionGroupKey key, List<? extends Subscription<?>> subscriptions, boolean fullResync) {
+        try {
+            sendGroupData(key, subscriptions, fullResync);
+        } catch (RuntimeException e) {
+            log.warn("Failed to notify subscription group {}", key, e);
+        }
+    }
+
+    // Запрос и рассылка под блокировкой группы: иначе параллельные события могли бы разослать
+    // более старую страницу после более новой
+    private void sendGroupData(SubscriptionGroupKey key, List<? extends Subscription<?>> subscriptions, boolean fullResync) {
+        Lock lock = groupLocks[Math.floorMod(key.hashCode(), GROUP_LOCK_STRIPES)];
+        lock.lock();
+        try {
+            send(subscriptions, queryLimiter.call(() -> getSubscriptionData(subscriptions.get(0))), fullResync);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(List<? extends Subscription<?>> subscriptions, Page<?> data, boolean fullResync) {
+        List<Subscription<?>> pageSubscribers = new ArrayList<>();
+        Map<ResultSnapshot, List<Subscription<?>>> deltaSubscribers = new HashMap<>();
+        for (Subscription<?> subscription : subscriptions) {
+            if (subscription.isDeltaUpdates()) {
+                // Подписки с равными снимками получают одинаковые сообщения
+                deltaSubscribers.computeIfAbsent(fullResync ? null : subscription.getSnapshot(), k -> new ArrayList<>()).add(subscription);
+            } else {
+                pageSubscribers.add(subscription);
+            }
+        }
+
+        if (!pageSubscribers.isEmpty()) {
+            ResultSnapshot snapshot = ResultSnapshot.of(data);
+            pageSubscribers.forEach(subscription -> subscription.setSnapshot(snapshot));
+            notifier.notifySubscriptions(pageSubscribers, data);
+        }
+        deltaSubscribers.forEach((previous, members) ->
+                messageFactory.create(previous, data, fullResync).ifPresent(prepared -> {
+                    members.forEach(subscription -> subscription.setSnapshot(prepared.snapshot()));
+                    notifier.notifySubscriptions(members, prepared.message());
+                }));
     }
 
     private <T extends EntityFilter> Page<?> getSubscriptionData(Subscription<T> subscription) {
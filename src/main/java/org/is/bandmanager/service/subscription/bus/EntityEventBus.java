@@ -0,0 +1,11 @@
+package org.is.bandmanager.service.subscription.bus;
+
+import org.is.event.EntityEvent;
+
+// Доставляет события изменения сущностей подпискам всех узлов; подписки каждый узел обслуживает сам.
+// Реализация выбирается свойством band-manager.subscription.event-bus
+public interface EntityEventBus {
+
+    void publish(EntityEvent<?> event);
+
+}
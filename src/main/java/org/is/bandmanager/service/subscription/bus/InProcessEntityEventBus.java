@@ -0,0 +1,22 @@
+package org.is.bandmanager.service.subscription.bus;
+
+import lombok.RequiredArgsConstructor;
+import org.is.bandmanager.service.subscription.dispatcher.SubscriptionEventDispatcher;
+import org.is.event.EntityEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Один узел: событие сразу уходит локальным подпискам
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "band-manager.subscription.event-bus", havingValue = "in-process", matchIfMissing = true)
+public class InProcessEntityEventBus implements EntityEventBus {
+
+    private final SubscriptionEventDispatcher dispatcher;
+
+    @Override
+    public void publish(EntityEvent<?> event) {
+        dispatcher.dispatch(event);
+    }
+
+}
@@ -0,0 +1,229 @@
+package org.is.bandmanager.service.subscription.bus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.BestBandAwardDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.model.Album;
+import org.is.bandmanager.model.BestBandAward;
+import org.is.bandmanager.model.Coordinates;
+import org.is.bandmanager.model.Location;
+import org.is.bandmanager.model.MusicBand;
+import org.is.bandmanager.model.Person;
+import org.is.bandmanager.service.subscription.dispatcher.SubscriptionEventDispatcher;
+import org.is.bandmanager.service.subscription.matcher.SubscriptionChangeDetector;
+import org.is.event.EntityEvent;
+import org.is.event.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Несколько узлов: событие сразу уходит локальным подпискам и пишется в таблицу entity_event_outbox,
+// откуда его забирают остальные узлы: применяют к своим кэшам и индексам и раздают своим подпискам.
+// Запись идёт в транзакции изменения, поэтому откаченное изменение не разошлётся. Узлы ничего не знают
+// друг о друге: каждый читает журнал по возрастанию id, и рассылка масштабируется вместе с числом узлов
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "band-manager.subscription.event-bus", havingValue = "jdbc")
+public class JdbcEntityEventBus implements EntityEventBus {
+
+    private static final String INSERT = """
+            INSERT INTO entity_event_outbox (node_id, event_type, entity_type, payload, previous_payload)
+            VALUES (?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb))
+            """;
+
+    // Пропущенные id перечитываются: строка с меньшим id может закоммититься позже строки с большим
+    private static final String SELECT = """
+            SELECT id, node_id, event_type, entity_type, payload, previous_payload FROM entity_event_outbox
+            WHERE id > ? OR id = ANY(?)
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String SELECT_LAST_ID = "SELECT COALESCE(MAX(id), 0) FROM entity_event_outbox";
+
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM entity_event_outbox
+            WHERE created_at < CURRENT_TIMESTAMP - make_interval(secs => ?)
+            """;
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int MAX_GAPS = 1_000;
+
+    private static final Duration GAP_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final RowMapper<OutboxRow> ROW_MAPPER = (rs, rowNum) -> new OutboxRow(
+            rs.getLong("id"),
+            rs.getString("node_id"),
+            rs.getString("event_type"),
+            rs.getString("entity_type"),
+            rs.getString("payload"),
+            rs.getString("previous_payload"));
+
+    private static final Map<String, Class<?>> ENTITY_TYPES = SubscriptionChangeDetector.ENTITY_TYPES.stream()
+            .collect(Collectors.toMap(Class::getName, Function.identity()));
+
+    // Сущность L2-кэша Hibernate и её id для каждого DTO из журнала
+    private static final Map<Class<?>, CachedEntity> CACHED_ENTITIES = Map.of(
+            MusicBandDto.class, new CachedEntity(MusicBand.class, dto -> ((MusicBandDto) dto).getId()),
+            BestBandAwardDto.class, new CachedEntity(BestBandAward.class, dto -> ((BestBandAwardDto) dto).getId()),
+            CoordinatesDto.class, new CachedEntity(Coordinates.class, dto -> ((CoordinatesDto) dto).getId()),
+            AlbumDto.class, new CachedEntity(Album.class, dto -> ((AlbumDto) dto).getId()),
+            PersonDto.class, new CachedEntity(Person.class, dto -> ((PersonDto) dto).getId()),
+            LocationDto.class, new CachedEntity(Location.class, dto -> ((LocationDto) dto).getId()));
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final SubscriptionEventDispatcher dispatcher;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Duration retention;
+
+    // Пропущенные id и срок, до которого их ждём
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private long lastId = -1;
+
+    public JdbcEntityEventBus(SubscriptionEventDispatcher dispatcher,
+                              JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              EntityManagerFactory entityManagerFactory,
+                              @Value("${band-manager.subscription.event-bus.retention:PT1M}") Duration retention) {
+        this.dispatcher = dispatcher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.retention = retention;
+    }
+
+    @Override
+    public void publish(EntityEvent<?> event) {
+        dispatcher.dispatch(event);
+        if (event.getEntities().isEmpty() || !ENTITY_TYPES.containsKey(event.getEntityType().getName())) return;
+        String payload;
+        String previousPayload;
+        try {
+            payload = objectMapper.writeValueAsString(event.getEntities());
+            previousPayload = event.getPreviousEntities().isEmpty() ? null : objectMapper.writeValueAsString(event.getPreviousEntities());
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize {} event for other nodes", event.getEntityType().getSimpleName(), e);
+            return;
+        }
+        jdbcTemplate.update(INSERT, nodeId, event.getEventType().name(), event.getEntityType().getName(), payload, previousPayload);
+    }
+
+    @Scheduled(fixedDelayString = "${band-manager.subscription.event-bus.poll-interval:PT0.2S}", scheduler = "subscriptionTaskScheduler")
+    public synchronized void poll() {
+        // Журнал до запуска узла не нужен: его подписки ещё не существовали
+        if (lastId < 0) {
+            lastId = jdbcTemplate.queryForObject(SELECT_LAST_ID, Long.class);
+            return;
+        }
+        Long[] awaited = gaps.keySet().toArray(Long[]::new);
+        List<OutboxRow> rows = jdbcTemplate.query(SELECT, ps -> {
+            ps.setLong(1, lastId);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", awaited));
+            ps.setInt(3, BATCH_SIZE);
+        }, ROW_MAPPER);
+
+        long now = System.nanoTime();
+        for (OutboxRow row : rows) {
+            if (row.id() > lastId) {
+                for (long missing = lastId + 1; missing < row.id() && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now + GAP_TIMEOUT.toNanos());
+                }
+                lastId = row.id();
+            } else {
+                gaps.remove(row.id());
+            }
+            if (!nodeId.equals(row.nodeId())) {
+                receive(row);
+            }
+        }
+        // id, так и не появившийся за GAP_TIMEOUT, занят откаченной транзакцией
+        for (Iterator<Long> deadlines = gaps.values().iterator(); deadlines.hasNext(); ) {
+            if (deadlines.next() - now < 0) {
+                deadlines.remove();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${band-manager.subscription.event-bus.retention:PT1M}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED, retention.toMillis() / 1000.0);
+        log.debug("Deleted {} expired entity events from outbox", deleted);
+    }
+
+    private void receive(OutboxRow row) {
+        Class<?> entityType = ENTITY_TYPES.get(row.entityType());
+        if (entityType == null) {
+            log.warn("Skipping entity event {} of unknown type {}", row.id(), row.entityType());
+            return;
+        }
+        RemoteEntityEvent<Object> event;
+        try {
+            JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, entityType);
+            List<Object> entities = objectMapper.readValue(row.payload(), listType);
+            List<Object> previousEntities = row.previousPayload() == null ? List.of() : objectMapper.readValue(row.previousPayload(), listType);
+            event = new RemoteEntityEvent<>(EventType.valueOf(row.eventType()), entities, previousEntities);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Skipping unreadable entity event {}", row.id(), e);
+            return;
+        }
+        // Сначала кэши и индексы этого узла: перезапросы подписок должны читать уже сброшенный кэш.
+        // L2-кэш Hibernate вытесняем первым: иначе findById вернул бы старую строку при новой версии в индексе
+        evict(entityType, event.getEntities());
+        eventPublisher.publishEvent(event);
+        dispatcher.dispatch(event);
+    }
+
+    private void evict(Class<?> entityType, List<Object> entities) {
+        CachedEntity cachedEntity = CACHED_ENTITIES.get(entityType);
+        if (cachedEntity == null) return;
+        Cache cache = entityManagerFactory.getCache();
+        for (Object entity : entities) {
+            Number id = cachedEntity.id().apply(entity);
+            if (id != null) {
+                cache.evict(cachedEntity.entityClass(), id.longValue());
+            }
+        }
+    }
+
+    private record CachedEntity(Class<?> entityClass, Function<Object, Number> id) {
+    }
+
+    private record OutboxRow(long id, String nodeId, String eventType, String entityType, String payload, String previousPayload) {
+    }
+
+}
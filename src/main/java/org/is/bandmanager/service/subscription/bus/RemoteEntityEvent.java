@@ -0,0 +1,16 @@
+package org.is.bandmanager.service.subscription.bus;
+
+import org.is.event.EntityEvent;
+import org.is.event.EventType;
+
+import java.util.List;
+
+// Событие, принятое из журнала другого узла. Локальные кэши, индексы и счётчики изменений применяют его
+// как своё, а SubscriptionEventListener пропускает: иначе оно снова ушло бы в журнал
+public class RemoteEntityEvent<T> extends EntityEvent<T> {
+
+    public RemoteEntityEvent(EventType eventType, List<T> entities, List<T> previousEntities) {
+        super(eventType, entities, previousEntities);
+    }
+
+}
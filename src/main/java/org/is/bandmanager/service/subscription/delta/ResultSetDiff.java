@@ -0,0 +1,63 @@
+package org.is.bandmanager.service.subscription.delta;
+
+import org.is.bandmanager.service.subscription.model.ResultSnapshot;
+import org.is.bandmanager.service.subscription.model.message.DeltaOperation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Переход от строк прошлого снимка к новой странице: сначала REMOVE ушедших строк, затем проход
+// по новой странице слева направо с INSERT/MOVE на нужную позицию и UPDATE изменившихся версий.
+// Квадратичный по размеру страницы, что для страниц подписок (десятки строк) несущественно
+public final class ResultSetDiff {
+
+    private ResultSetDiff() {
+    }
+
+    public static List<DeltaOperation> diff(ResultSnapshot previous, List<?> rows) {
+        List<DeltaOperation> operations = new ArrayList<>();
+        Map<Long, Long> previousVersions = new HashMap<>();
+        for (int i = 0; i < previous.ids().size(); i++) {
+            previousVersions.put(previous.ids().get(i), previous.versions().get(i));
+        }
+        Set<Long> currentIds = new HashSet<>();
+        for (Object row : rows) {
+            currentIds.add(ResultSnapshot.idOf(row));
+        }
+
+        List<Long> working = new ArrayList<>(previous.ids().size());
+        for (Long id : previous.ids()) {
+            if (currentIds.contains(id)) {
+                working.add(id);
+            } else {
+                operations.add(DeltaOperation.remove(id));
+            }
+        }
+
+        for (int index = 0; index < rows.size(); index++) {
+            Object row = rows.get(index);
+            Long id = ResultSnapshot.idOf(row);
+            if (!previousVersions.containsKey(id)) {
+                working.add(index, id);
+                operations.add(DeltaOperation.insert(index, id, row));
+                continue;
+            }
+            if (!Objects.equals(working.get(index), id)) {
+                int from = working.indexOf(id);
+                working.remove(from);
+                working.add(index, id);
+                operations.add(DeltaOperation.move(id, from, index));
+            }
+            if (previousVersions.get(id) != ResultSnapshot.versionOf(row)) {
+                operations.add(DeltaOperation.update(id, row));
+            }
+        }
+        return operations;
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.is.bandmanager.service.subscription.delta;
+
+import org.is.bandmanager.service.subscription.model.ResultSnapshot;
+import org.is.bandmanager.service.subscription.model.message.DeltaOperation;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessage;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessageType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+// Выбирает между FULL и DELTA для очередной страницы подписки. FULL отправляется первым сообщением,
+// по запросу, после resync-every дельт подряд и когда дельта не короче самой страницы
+@Component
+public class SubscriptionMessageFactory {
+
+    private final int resyncEvery;
+
+    public SubscriptionMessageFactory(@Value("${band-manager.subscription.delta.resync-every:50}") int resyncEvery) {
+        this.resyncEvery = resyncEvery;
+    }
+
+    // Пусто, если страница не изменилась и отправлять нечего. Результат зависит только от прошлого снимка
+    // и страницы, так что для подписок с равными снимками его достаточно вычислить один раз
+    public Optional<Prepared> create(ResultSnapshot previous, Page<?> page, boolean forceFull) {
+        if (forceFull || previous == null || previous.deltasSinceFullSync() + 1 >= resyncEvery) {
+            return Optional.of(full(page));
+        }
+
+        List<DeltaOperation> operations = ResultSetDiff.diff(previous, page.getContent());
+        if (operations.isEmpty() && previous.totalElements() == page.getTotalElements()) {
+            return Optional.empty();
+        }
+        if (operations.size() >= Math.max(page.getNumberOfElements(), 1)) {
+            return Optional.of(full(page));
+        }
+        ResultSnapshot next = previous.next(page);
+        return Optional.of(new Prepared(message(page, next.sequence(), SubscriptionMessageType.DELTA)
+                .operations(operations)
+                .build(), next));
+    }
+
+    private Prepared full(Page<?> page) {
+        ResultSnapshot snapshot = ResultSnapshot.of(page);
+        return new Prepared(message(page, snapshot.sequence(), SubscriptionMessageType.FULL)
+                .content(page.getContent())
+                .build(), snapshot);
+    }
+
+    private static SubscriptionMessage.SubscriptionMessageBuilder message(Page<?> page, long sequence, SubscriptionMessageType type) {
+        return SubscriptionMessage.builder()
+                .type(type)
+                .sequence(sequence)
+                .number(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages());
+    }
+
+    public record Prepared(SubscriptionMessage message, ResultSnapshot snapshot) {
+    }
+
+}
@@ -0,0 +1,107 @@
+package org.is.bandmanager.service.subscription.dispatcher;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.service.subscription.SubscriptionService;
+import org.is.bandmanager.service.subscription.model.ResultSnapshot;
+import org.is.event.EntityEvent;
+import org.is.event.EventType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Копит события в окне и отдаёт их подпискам одной пачкой: всплеск из импорта или очистки
+// превращается в одно событие на тип сущности и тип изменения, а каждая подписка за окно
+// перезапрашивается не больше одного раза. Публикующий поток только дописывает событие в буфер
+@Slf4j
+@Component
+public class SubscriptionEventDispatcher {
+
+    private final SubscriptionService subscriptionService;
+
+    private final TaskExecutor executor;
+
+    private final TaskScheduler scheduler;
+
+    private final Duration window;
+
+    private final Object lock = new Object();
+
+    // Сущности по id внутри каждой пары (тип сущности, тип события): повторное изменение заменяет прежнее
+    private Map<BatchKey, Batch> pending = new LinkedHashMap<>();
+
+    private boolean flushScheduled;
+
+    public SubscriptionEventDispatcher(SubscriptionService subscriptionService,
+                                       @Qualifier("subscriptionTaskExecutor") TaskExecutor executor,
+                                       @Qualifier("subscriptionTaskScheduler") TaskScheduler scheduler,
+                                       @Value("${band-manager.subscription.coalesce-window:100ms}") Duration window) {
+        this.subscriptionService = subscriptionService;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.window = window;
+    }
+
+    public void dispatch(EntityEvent<?> event) {
+        if (event.getEntities().isEmpty()) return;
+        if (window.isZero() || window.isNegative()) {
+            executor.execute(() -> subscriptionService.handleEntityEventsInternal(List.of(event)));
+            return;
+        }
+        synchronized (lock) {
+            Batch batch = pending.computeIfAbsent(new BatchKey(event.getEntityType(), event.getEventType()), k -> new Batch());
+            for (Object entity : event.getEntities()) {
+                batch.entities().put(key(entity), entity);
+            }
+            // Прежнее состояние — самое раннее за окно: подписки видели страницу до первого изменения
+            for (Object previous : event.getPreviousEntities()) {
+                batch.previousEntities().putIfAbsent(key(previous), previous);
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, Instant.now().plus(window));
+            }
+        }
+    }
+
+    void flush() {
+        Map<BatchKey, Batch> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) return;
+
+        List<EntityEvent<?>> events = new ArrayList<>(batch.size());
+        batch.forEach((key, collected) -> events.add(new EntityEvent<>(key.eventType(),
+                new ArrayList<>(collected.entities().values()), new ArrayList<>(collected.previousEntities().values()))));
+        log.debug("Dispatching {} coalesced subscription events", events.size());
+        executor.execute(() -> subscriptionService.handleEntityEventsInternal(events));
+    }
+
+    private static Object key(Object entity) {
+        Object id = ResultSnapshot.idOf(entity);
+        return id != null ? id : entity;
+    }
+
+    private record BatchKey(Class<?> entityType, EventType eventType) {
+    }
+
+    private record Batch(Map<Object, Object> entities, Map<Object, Object> previousEntities) {
+
+        private Batch() {
+            this(new LinkedHashMap<>(), new LinkedHashMap<>());
+        }
+
+    }
+
+}
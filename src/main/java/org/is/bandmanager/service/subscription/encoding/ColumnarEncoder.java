@@ -0,0 +1,125 @@
+package org.is.bandmanager.service.subscription.encoding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessage;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Колоночное представление страницы: вложенные DTO разворачиваются в колонки с путями через точку
+// ("frontMan.location.x"), имена колонок передаются один раз, строки — массивами значений в том же порядке.
+// Значения сериализуются тем же ObjectMapper, поэтому совпадают с обычным JSON
+public final class ColumnarEncoder {
+
+    private ColumnarEncoder() {
+    }
+
+    public static JsonNode encode(ObjectMapper mapper, Object payload) {
+        if (payload instanceof Page<?> page) {
+            return page(mapper, page);
+        }
+        if (payload instanceof SubscriptionMessage message) {
+            return message(mapper, message);
+        }
+        return mapper.valueToTree(payload);
+    }
+
+    private static ObjectNode page(ObjectMapper mapper, Page<?> page) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("number", page.getNumber());
+        root.put("size", page.getSize());
+        root.put("totalElements", page.getTotalElements());
+        root.put("totalPages", page.getTotalPages());
+        putTable(root, mapper, page.getContent());
+        return root;
+    }
+
+    private static ObjectNode message(ObjectMapper mapper, SubscriptionMessage message) {
+        ObjectNode root = mapper.valueToTree(message);
+        if (message.getContent() != null) {
+            root.remove("content");
+            putTable(root, mapper, message.getContent());
+        }
+        if (root.get("operations") instanceof ArrayNode operations) {
+            // Строки INSERT/UPDATE заменяются массивами values по общему списку колонок сообщения
+            List<Map<String, JsonNode>> rows = new ArrayList<>();
+            Set<String> columns = new LinkedHashSet<>();
+            for (JsonNode operation : operations) {
+                JsonNode row = operation.get("row");
+                if (row != null) {
+                    Map<String, JsonNode> flat = flatten(row);
+                    columns.addAll(flat.keySet());
+                    rows.add(flat);
+                }
+            }
+            if (!rows.isEmpty()) {
+                Iterator<Map<String, JsonNode>> flatRows = rows.iterator();
+                for (JsonNode operation : operations) {
+                    if (operation.has("row")) {
+                        ObjectNode node = (ObjectNode) operation;
+                        node.remove("row");
+                        node.set("values", values(mapper, columns, flatRows.next()));
+                    }
+                }
+                root.set("columns", columnsNode(mapper, columns));
+            }
+        }
+        return root;
+    }
+
+    private static void putTable(ObjectNode root, ObjectMapper mapper, List<?> content) {
+        List<Map<String, JsonNode>> rows = new ArrayList<>(content.size());
+        Set<String> columns = new LinkedHashSet<>();
+        for (Object row : content) {
+            Map<String, JsonNode> flat = flatten(mapper.valueToTree(row));
+            columns.addAll(flat.keySet());
+            rows.add(flat);
+        }
+        ArrayNode rowsNode = mapper.createArrayNode();
+        for (Map<String, JsonNode> row : rows) {
+            rowsNode.add(values(mapper, columns, row));
+        }
+        root.set("columns", columnsNode(mapper, columns));
+        root.set("rows", rowsNode);
+    }
+
+    private static ArrayNode columnsNode(ObjectMapper mapper, Set<String> columns) {
+        ArrayNode node = mapper.createArrayNode();
+        columns.forEach(node::add);
+        return node;
+    }
+
+    private static ArrayNode values(ObjectMapper mapper, Set<String> columns, Map<String, JsonNode> row) {
+        ArrayNode node = mapper.createArrayNode();
+        for (String column : columns) {
+            node.add(row.getOrDefault(column, NullNode.getInstance()));
+        }
+        return node;
+    }
+
+    static Map<String, JsonNode> flatten(JsonNode node) {
+        Map<String, JsonNode> result = new LinkedHashMap<>();
+        flatten("", node, result);
+        return result;
+    }
+
+    private static void flatten(String prefix, JsonNode node, Map<String, JsonNode> result) {
+        if (node.isObject() && !node.isEmpty()) {
+            node.fields().forEachRemaining(field ->
+                    flatten(prefix.isEmpty() ? field.getKey() : prefix + "." + field.getKey(), field.getValue(), result));
+        } else {
+            result.put(prefix, node);
+        }
+    }
+
+}
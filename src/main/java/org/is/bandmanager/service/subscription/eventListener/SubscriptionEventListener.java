@@ -2,21 +2,23 @@ package org.is.bandmanager.service.subscription.eventListener;
 
 import lombok.RequiredArgsConstructor;
 import org.is.event.EntityEvent;
-import org.is.bandmanager.service.subscription.SubscriptionService;
+import org.is.bandmanager.service.subscription.bus.EntityEventBus;
+import org.is.bandmanager.service.subscription.bus.RemoteEntityEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
 public class SubscriptionEventListener {
 
-    private final SubscriptionService subscriptionService;
+    private final EntityEventBus eventBus;
 
-    @Async("subscriptionTaskExecutor")
+    // Синхронно: событие только попадает в буфер диспетчера (и в журнал для других узлов),
+    // запросы выполняются в subscriptionTaskExecutor. Событие другого узла шина уже раздала подпискам сама
     @EventListener(EntityEvent.class)
     public void handleEntityEvent(EntityEvent<?> entityEvent) {
-        subscriptionService.handleEntityEventInternal(entityEvent);
+        if (entityEvent instanceof RemoteEntityEvent) return;
+        eventBus.publish(entityEvent);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package org.is.bandmanager.service.subscription.inbound;
+
+import lombok.RequiredArgsConstructor;
+import org.is.bandmanager.service.subscription.storage.SubscriptionStorage;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+// Любой кадр клиента (heartbeat, ACK/NACK, SEND, SUBSCRIBE) подтверждает, что его STOMP-сессия жива,
+// и продлевает её подписки. Обращается к хранилищу напрямую: сервис подписок зависит от брокера, который ещё настраивается
+@Component
+@RequiredArgsConstructor
+public class SubscriptionLivenessInterceptor implements ChannelInterceptor {
+
+    private final SubscriptionStorage storage;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            storage.touchSession(sessionId);
+        }
+        return message;
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.is.bandmanager.service.subscription.limiter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Ограничивает число одновременных запросов подписок к БД. Пока рассылку выполнял пул из 10 потоков,
+// пределом был сам пул; на виртуальных потоках групп обрабатывается сколько угодно сразу,
+// и без ограничения они заняли бы все соединения пула. Ожидание разрешения не держит поток ОС
+@Component
+public class SubscriptionQueryLimiter {
+
+    private final Semaphore permits;
+
+    public SubscriptionQueryLimiter(MeterRegistry meterRegistry,
+                                    @Value("${band-manager.subscription.max-concurrent-queries:10}") int maxConcurrentQueries) {
+        this.permits = new Semaphore(Math.max(maxConcurrentQueries, 1), true);
+        Gauge.builder("bandmanager.subscription.queries.waiting", permits, Semaphore::getQueueLength)
+                .description("Subscription queries waiting for a database permit")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> query) {
+        permits.acquireUninterruptibly();
+        try {
+            return query.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+}
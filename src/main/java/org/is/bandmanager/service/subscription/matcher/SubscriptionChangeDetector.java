@@ -0,0 +1,72 @@
+package org.is.bandmanager.service.subscription.matcher;
+
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.BestBandAwardDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.repository.filter.BestBandAwardFilter;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.is.bandmanager.repository.predicates.BestBandAwardPredicates;
+import org.is.bandmanager.repository.predicates.MusicBandPredicates;
+import org.is.bandmanager.service.subscription.model.ResultSnapshot;
+import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.event.EntityEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Set;
+
+import static org.is.event.EventType.BULK_DELETED;
+import static org.is.event.EventType.DELETED;
+
+// Решает по событию, нужно ли перезапрашивать страницу подписки. Страница устарела, если изменённая
+// сущность на ней была, подходит под фильтр сейчас или подходила до изменения: выход строки из результата
+// за пределами страницы сдвигает смещения и totalElements. Прежнее состояние несёт само событие UPDATED
+@Component
+public class SubscriptionChangeDetector {
+
+    // Сущности, изменения которых могут затронуть страницы подписок
+    public static final Set<Class<?>> ENTITY_TYPES = Set.of(MusicBandDto.class, BestBandAwardDto.class,
+            CoordinatesDto.class, AlbumDto.class, PersonDto.class, LocationDto.class);
+
+    public boolean isAffected(Subscription<?> subscription, EntityEvent<?> event) {
+        ResultSnapshot snapshot = subscription.getSnapshot();
+        if (snapshot == null) return true;
+
+        if (subscription.getFilter() instanceof MusicBandFilter filter) {
+            for (Object entity : event.getEntities()) {
+                if (entity instanceof MusicBandDto band) {
+                    if (snapshot.containsRow(band) || subscription.getPredicate().test(band)) return true;
+                } else if (isBandDependency(entity)) {
+                    if (MusicBandPredicates.dependsOnJoinedEntities(filter) || snapshot.references(entity)) return true;
+                }
+            }
+            for (Object previous : event.getPreviousEntities()) {
+                if (previous instanceof MusicBandDto band && subscription.getPredicate().test(band)) return true;
+            }
+        } else if (subscription.getFilter() instanceof BestBandAwardFilter filter) {
+            boolean deletion = event.getEventType() == DELETED || event.getEventType() == BULK_DELETED;
+            for (Object entity : event.getEntities()) {
+                if (entity instanceof BestBandAwardDto award) {
+                    if (snapshot.containsRow(award) || subscription.getPredicate().test(award)) return true;
+                } else if (entity instanceof MusicBandDto band) {
+                    if (snapshot.references(band) || BestBandAwardPredicates.dependsOnBands(filter)) return true;
+                    // Награды удалённой группы удаляются каскадом и без отдельного события
+                    if (deletion && (filter.getBandId() == null || Objects.equals(filter.getBandId(), ResultSnapshot.idOf(band)))) return true;
+                }
+            }
+            for (Object previous : event.getPreviousEntities()) {
+                if (previous instanceof BestBandAwardDto award && subscription.getPredicate().test(award)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBandDependency(Object entity) {
+        return entity instanceof CoordinatesDto || entity instanceof AlbumDto
+                || entity instanceof PersonDto || entity instanceof LocationDto;
+    }
+
+}
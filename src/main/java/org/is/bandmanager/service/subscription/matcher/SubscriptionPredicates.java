@@ -0,0 +1,31 @@
+package org.is.bandmanager.service.subscription.matcher;
+
+import org.is.bandmanager.dto.BestBandAwardDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.filter.BestBandAwardFilter;
+import org.is.bandmanager.repository.filter.EntityFilter;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.is.bandmanager.repository.predicates.BestBandAwardPredicates;
+import org.is.bandmanager.repository.predicates.MusicBandPredicates;
+
+import java.util.function.Predicate;
+
+public final class SubscriptionPredicates {
+
+    private SubscriptionPredicates() {
+    }
+
+    // Предикат над DTO из событий: объекты чужого типа фильтру не соответствуют
+    public static Predicate<Object> compile(EntityFilter filter) {
+        if (filter instanceof MusicBandFilter bandFilter) {
+            Predicate<MusicBandDto> predicate = MusicBandPredicates.compile(bandFilter);
+            return dto -> dto instanceof MusicBandDto band && predicate.test(band);
+        }
+        if (filter instanceof BestBandAwardFilter awardFilter) {
+            Predicate<BestBandAwardDto> predicate = BestBandAwardPredicates.compile(awardFilter);
+            return dto -> dto instanceof BestBandAwardDto award && predicate.test(award);
+        }
+        return dto -> false;
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.is.bandmanager.service.subscription.model;
+
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.BestBandAwardDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Что было отправлено подписчику последним: id строк страницы, их версии и сущности, на которые
+// они ссылаются. По нему решается, может ли событие изменить страницу, и строится дельта.
+// sequence и deltasSinceFullSync — состояние протокола дельта-обновлений. Равные снимки дают одинаковые
+// сообщения, поэтому подписки одной группы с равными снимками получают одно сообщение на всех
+public record ResultSnapshot(List<Long> ids, List<Long> versions, Set<Reference> references, long totalElements,
+                             long sequence, int deltasSinceFullSync) {
+
+    public static ResultSnapshot of(Page<?> page) {
+        return of(page, 0, 0);
+    }
+
+    public ResultSnapshot next(Page<?> page) {
+        return of(page, sequence + 1, deltasSinceFullSync + 1);
+    }
+
+    private static ResultSnapshot of(Page<?> page, long sequence, int deltasSinceFullSync) {
+        List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+        List<Long> versions = new ArrayList<>(page.getNumberOfElements());
+        Set<Reference> references = new HashSet<>();
+        for (Object row : page.getContent()) {
+            ids.add(idOf(row));
+            versions.add(versionOf(row));
+            if (row instanceof MusicBandDto band) {
+                addReference(references, band.getCoordinates());
+                addReference(references, band.getBestAlbum());
+                addReference(references, band.getFrontMan());
+                addReference(references, band.getFrontMan() != null ? band.getFrontMan().getLocation() : null);
+            } else if (row instanceof BestBandAwardDto award && award.getBandId() != null) {
+                references.add(new Reference(MusicBandDto.class, award.getBandId()));
+            }
+        }
+        return new ResultSnapshot(List.copyOf(ids), List.copyOf(versions), Set.copyOf(references), page.getTotalElements(),
+                sequence, deltasSinceFullSync);
+    }
+
+    public boolean containsRow(Object dto) {
+        return ids.contains(idOf(dto));
+    }
+
+    public boolean references(Object dto) {
+        return references.contains(new Reference(dto.getClass(), idOf(dto)));
+    }
+
+    public static Long idOf(Object dto) {
+        if (dto instanceof MusicBandDto band) return band.getId() != null ? band.getId().longValue() : null;
+        if (dto instanceof BestBandAwardDto award) return award.getId();
+        if (dto instanceof CoordinatesDto coordinates) return coordinates.getId();
+        if (dto instanceof AlbumDto album) return album.getId();
+        if (dto instanceof PersonDto person) return person.getId();
+        if (dto instanceof LocationDto location) return location.getId();
+        return null;
+    }
+
+    // Версия строки вместе с версиями вложенных сущностей: правка фронтмена меняет строку группы,
+    // а переименование группы — строку награды, хотя собственная @Version строки остаётся прежней
+    public static long versionOf(Object row) {
+        if (row instanceof MusicBandDto band) {
+            long hash = version(band.getVersion());
+            hash = 31 * hash + (band.getCoordinates() != null ? version(band.getCoordinates().getVersion()) : -1);
+            hash = 31 * hash + (band.getBestAlbum() != null ? version(band.getBestAlbum().getVersion()) : -1);
+            PersonDto frontMan = band.getFrontMan();
+            hash = 31 * hash + (frontMan != null ? version(frontMan.getVersion()) : -1);
+            hash = 31 * hash + (frontMan != null && frontMan.getLocation() != null ? version(frontMan.getLocation().getVersion()) : -1);
+            return hash;
+        }
+        if (row instanceof BestBandAwardDto award) {
+            return 31 * version(award.getVersion()) + (award.getBandName() != null ? award.getBandName().hashCode() : 0);
+        }
+        return row != null ? row.hashCode() : 0;
+    }
+
+    private static long version(Long version) {
+        return version != null ? version : -1;
+    }
+
+    private static void addReference(Set<Reference> references, Object dto) {
+        if (dto != null && idOf(dto) != null) {
+            references.add(new Reference(dto.getClass(), idOf(dto)));
+        }
+    }
+
+    public record Reference(Class<?> type, Long id) {
+    }
+
+}
@@ -2,12 +2,15 @@ package org.is.bandmanager.service.subscription.model;
 
 import lombok.Builder;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import org.is.bandmanager.repository.filter.EntityFilter;
+import org.is.bandmanager.service.subscription.matcher.SubscriptionPredicates;
 import org.is.util.pageable.PageableRequest;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 @Getter
 @Builder
@@ -18,6 +21,9 @@ public class Subscription<T extends EntityFilter> {
 
     private String principalId;
 
+    // STOMP-сессия (вкладка), создавшая подписку: по ней считаются жизнь подписки и медленный потребитель
+    private String sessionId;
+
     private T filter;
 
     private PageableRequest pageableRequest;
@@ -26,4 +32,20 @@ public class Subscription<T extends EntityFilter> {
 
     private Instant touchedAt;
 
+    private boolean deltaUpdates;
+
+    // Выбирается клиентом при STOMP-подписке на канал с данными
+    @Setter
+    @Builder.Default
+    private volatile SubscriptionFormat format = SubscriptionFormat.JSON;
+
+    // Фильтр, скомпилированный в предикат при первом событии
+    @ToString.Exclude
+    @Getter(lazy = true)
+    private final Predicate<Object> predicate = SubscriptionPredicates.compile(filter);
+
+    @Setter
+    @ToString.Exclude
+    private volatile ResultSnapshot snapshot;
+
 }
@@ -0,0 +1,22 @@
+package org.is.bandmanager.service.subscription.model;
+
+import java.util.Locale;
+
+// Формат сообщений подписки, который клиент выбирает заголовком format в STOMP SUBSCRIBE.
+// COLUMNAR передаёт строки массивами значений и один раз — список колонок
+public enum SubscriptionFormat {
+
+    JSON, COLUMNAR;
+
+    public static final String HEADER = "format";
+
+    public static SubscriptionFormat fromHeader(String value) {
+        if (value == null || value.isBlank()) return JSON;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return JSON;
+        }
+    }
+
+}
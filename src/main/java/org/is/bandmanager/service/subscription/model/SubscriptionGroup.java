@@ -0,0 +1,10 @@
+package org.is.bandmanager.service.subscription.model;
+
+import org.is.bandmanager.repository.filter.EntityFilter;
+
+import java.util.List;
+
+// Подписки с одинаковым запросом: страница запрашивается один раз на группу, а запрос и рассылка
+// группы сериализуются блокировкой по её ключу
+public record SubscriptionGroup<T extends EntityFilter>(SubscriptionGroupKey key, List<Subscription<T>> subscriptions) {
+}
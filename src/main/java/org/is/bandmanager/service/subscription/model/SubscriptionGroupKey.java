@@ -0,0 +1,21 @@
+package org.is.bandmanager.service.subscription.model;
+
+import org.is.bandmanager.repository.filter.EntityFilter;
+import org.is.util.pageable.PageableRequest;
+
+import java.util.List;
+import java.util.Locale;
+
+// Канонический вид запроса подписки: подписки с равными ключами получают одну и ту же страницу
+public record SubscriptionGroupKey(EntityFilter filter, int page, int size, List<String> sort, String direction) {
+
+    public static SubscriptionGroupKey of(Subscription<?> subscription) {
+        PageableRequest pageable = subscription.getPageableRequest();
+        return new SubscriptionGroupKey(subscription.getFilter(),
+                pageable.getPage(),
+                pageable.getSize(),
+                pageable.getSort() != null ? pageable.getSort().stream().toList() : List.of(),
+                pageable.getDirection() != null ? pageable.getDirection().toUpperCase(Locale.ROOT) : null);
+    }
+
+}
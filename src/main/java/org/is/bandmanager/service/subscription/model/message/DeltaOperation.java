@@ -0,0 +1,26 @@
+package org.is.bandmanager.service.subscription.model.message;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Операции применяются клиентом по порядку к строкам предыдущего сообщения:
+// REMOVE(id), INSERT(index, row), MOVE(id, from -> index), UPDATE(id, row)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeltaOperation(DeltaOperationType op, Long id, Integer from, Integer index, Object row) {
+
+    public static DeltaOperation insert(int index, Long id, Object row) {
+        return new DeltaOperation(DeltaOperationType.INSERT, id, null, index, row);
+    }
+
+    public static DeltaOperation update(Long id, Object row) {
+        return new DeltaOperation(DeltaOperationType.UPDATE, id, null, null, row);
+    }
+
+    public static DeltaOperation remove(Long id) {
+        return new DeltaOperation(DeltaOperationType.REMOVE, id, null, null, null);
+    }
+
+    public static DeltaOperation move(Long id, int from, int index) {
+        return new DeltaOperation(DeltaOperationType.MOVE, id, from, index, null);
+    }
+
+}
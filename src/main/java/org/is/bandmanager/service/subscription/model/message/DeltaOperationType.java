@@ -0,0 +1,5 @@
+package org.is.bandmanager.service.subscription.model.message;
+
+public enum DeltaOperationType {
+    INSERT, UPDATE, REMOVE, MOVE
+}
@@ -0,0 +1,35 @@
+package org.is.bandmanager.service.subscription.model.message;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+// Сообщение подписки с дельта-обновлениями. FULL начинает отсчёт sequence с нуля, каждая DELTA увеличивает его
+// на единицу: пропуск номера означает, что клиенту нужно дождаться FULL или переподписаться.
+// Подписку определяет destination, поэтому одно сообщение можно разослать всем подписчикам группы
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SubscriptionMessage {
+
+    private final SubscriptionMessageType type;
+
+    private final long sequence;
+
+    private final int number;
+
+    private final int size;
+
+    private final long totalElements;
+
+    private final int totalPages;
+
+    // Вся страница — только в FULL
+    private final List<?> content;
+
+    // Изменения относительно предыдущего сообщения — только в DELTA
+    private final List<DeltaOperation> operations;
+
+}
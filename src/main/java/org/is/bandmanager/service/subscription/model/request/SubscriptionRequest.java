@@ -23,4 +23,11 @@ public class SubscriptionRequest<T extends EntityFilter> {
 
     private PageableRequest pageableRequest;
 
+    // Вместо страницы целиком присылать изменения относительно предыдущего сообщения
+    private Boolean deltaUpdates;
+
+    public SubscriptionRequest(UUID subscriptionId, T filter, PageableRequest pageableRequest) {
+        this(subscriptionId, filter, pageableRequest, null);
+    }
+
 }
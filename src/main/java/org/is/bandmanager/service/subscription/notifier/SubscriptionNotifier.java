@@ -1,12 +1,22 @@
 package org.is.bandmanager.service.subscription.notifier;
 
 import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessage;
 import org.springframework.data.domain.Page;
 
+import java.util.List;
+import java.util.UUID;
+
 public interface SubscriptionNotifier {
 
     void notifySubscriptionMeta(Subscription<?> subscription);
 
-    void notifySubscription(Subscription<?> subscription, Page<?> data);
+    // Одно и то же содержимое всем подпискам: сериализуется один раз
+    void notifySubscriptions(List<? extends Subscription<?>> subscriptions, Page<?> data);
+
+    void notifySubscriptions(List<? extends Subscription<?>> subscriptions, SubscriptionMessage message);
+
+    // Подписки отменены или изменены: ещё не отправленные им сообщения больше не нужны
+    void releaseSubscriptions(List<UUID> subscriptionIds);
 
 }
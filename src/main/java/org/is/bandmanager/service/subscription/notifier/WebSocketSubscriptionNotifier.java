@@ -1,21 +1,50 @@
 package org.is.bandmanager.service.subscription.notifier;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.service.subscription.encoding.ColumnarEncoder;
 import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.bandmanager.service.subscription.model.SubscriptionFormat;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessage;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessageType;
+import org.is.bandmanager.service.subscription.outbound.SubscriptionOutbox;
 import org.springframework.data.domain.Page;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class WebSocketSubscriptionNotifier implements SubscriptionNotifier {
 
     private final SimpMessagingTemplate messagingTemplate;
 
+    // Тот же ObjectMapper, что у JSON-конвертера брокера: заранее сериализованное сообщение
+    // не отличается от того, что получилось бы при convertAndSendToUser
+    private final ObjectMapper objectMapper;
+
+    private final SubscriptionOutbox outbox;
+
     private static final String DESTINATION = "/queue/subscriptions-%s";
 
+    public WebSocketSubscriptionNotifier(SimpMessagingTemplate messagingTemplate, SubscriptionOutbox outbox) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = brokerObjectMapper(messagingTemplate.getMessageConverter());
+        this.outbox = outbox;
+    }
+
     @Override
     public void notifySubscriptionMeta(Subscription<?> subscription) {
         try {
@@ -30,13 +59,51 @@ public class WebSocketSubscriptionNotifier implements SubscriptionNotifier {
     }
 
     @Override
-    public void notifySubscription(Subscription<?> subscription, Page<?> data) {
+    public void notifySubscriptions(List<? extends Subscription<?>> subscriptions, Page<?> data) {
+        send(subscriptions, data, true);
+    }
+
+    @Override
+    public void notifySubscriptions(List<? extends Subscription<?>> subscriptions, SubscriptionMessage message) {
+        send(subscriptions, message, message.getType() == SubscriptionMessageType.FULL);
+    }
+
+    @Override
+    public void releaseSubscriptions(List<UUID> subscriptionIds) {
+        subscriptionIds.forEach(outbox::remove);
+    }
+
+    // snapshot — сообщение целиком заменяет состояние клиента, и ещё не отправленные предыдущие можно отбросить
+    private void send(List<? extends Subscription<?>> subscriptions, Object payload, boolean snapshot) {
+        // Каждый формат кодируется один раз на всю группу. Сообщение неизменяемо, а заголовки назначения
+        // брокер добавляет к копии, поэтому один массив байт уходит всем подписчикам с этим форматом
+        Map<SubscriptionFormat, Message<byte[]>> encoded = new EnumMap<>(SubscriptionFormat.class);
+        for (Subscription<?> subscription : subscriptions) {
+            SubscriptionFormat format = subscription.getFormat();
+            Message<byte[]> message = encoded.computeIfAbsent(format, key -> encode(payload, key));
+            if (message != null) {
+                outbox.submit(subscription, snapshot, () -> send(subscription, message));
+            }
+        }
+    }
+
+    private Message<byte[]> encode(Object payload, SubscriptionFormat format) {
         try {
-            messagingTemplate.convertAndSendToUser(
-                    subscription.getPrincipalId(),
-                    DESTINATION.formatted(subscription.getSubscriptionId()),
-                    data
-            );
+            byte[] json = format == SubscriptionFormat.COLUMNAR
+                    ? objectMapper.writeValueAsBytes(ColumnarEncoder.encode(objectMapper, payload))
+                    : objectMapper.writeValueAsBytes(payload);
+            return MessageBuilder.withPayload(json)
+                    .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Failed to serialize subscription update as {}", format, e);
+            return null;
+        }
+    }
+
+    private void send(Subscription<?> subscription, Message<byte[]> message) {
+        try {
+            messagingTemplate.send(userDestination(subscription), message);
             log.debug("Sent subscription update to session {} (subscriptionId={})",
                     subscription.getPrincipalId(), subscription.getSubscriptionId());
         } catch (Exception e) {
@@ -44,5 +111,24 @@ public class WebSocketSubscriptionNotifier implements SubscriptionNotifier {
         }
     }
 
-}
+    // То же, что делает convertAndSendToUser перед отправкой
+    private String userDestination(Subscription<?> subscription) {
+        String user = subscription.getPrincipalId().replace("/", "%2F");
+        return messagingTemplate.getUserDestinationPrefix() + user + DESTINATION.formatted(subscription.getSubscriptionId());
+    }
 
+    private static ObjectMapper brokerObjectMapper(MessageConverter converter) {
+        if (converter instanceof MappingJackson2MessageConverter jackson) {
+            return jackson.getObjectMapper();
+        }
+        if (converter instanceof CompositeMessageConverter composite) {
+            for (MessageConverter nested : composite.getConverters()) {
+                if (nested instanceof MappingJackson2MessageConverter jackson) {
+                    return jackson.getObjectMapper();
+                }
+            }
+        }
+        return new ObjectMapper().findAndRegisterModules();
+    }
+
+}
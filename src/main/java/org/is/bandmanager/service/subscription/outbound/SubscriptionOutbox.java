@@ -0,0 +1,263 @@
+package org.is.bandmanager.service.subscription.outbound;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.service.subscription.model.Subscription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Поток сообщений каждой подписки с обратной связью от сокета: в брокер уходит не больше max-in-flight
+// кадров, ещё не записанных в сессию, остальные ждут. Новый снимок (страница или FULL) вытесняет ждущие
+// кадры, DELTA встают в очередь за ними. Подписка, у которой копится больше max-pending кадров,
+// считается медленным потребителем, и закрывается сессия (вкладка), создавшая подписку
+@Slf4j
+@Component
+public class SubscriptionOutbox {
+
+    private static final String SUBSCRIPTION_DESTINATION = "\ndestination:/user/queue/subscriptions-";
+
+    private static final int UUID_LENGTH = 36;
+
+    private final int maxInFlight;
+
+    private final int maxPending;
+
+    private final long inFlightTimeoutNanos;
+
+    private final Map<UUID, Lane> lanes = new ConcurrentHashMap<>();
+
+    // По id WebSocket-сессии: он же simpSessionId STOMP-кадров, который записан в подписке
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Counter dropped;
+
+    private final Counter slowConsumers;
+
+    public SubscriptionOutbox(MeterRegistry meterRegistry,
+                              @Value("${band-manager.websocket.subscription.max-in-flight:2}") int maxInFlight,
+                              @Value("${band-manager.websocket.subscription.max-pending:64}") int maxPending,
+                              @Value("${band-manager.websocket.subscription.in-flight-timeout:10s}") Duration inFlightTimeout) {
+        this.maxInFlight = Math.max(maxInFlight, 1);
+        this.maxPending = maxPending;
+        this.inFlightTimeoutNanos = inFlightTimeout.toNanos();
+        Gauge.builder("bandmanager.subscription.outbound.inflight", inFlight, AtomicInteger::get)
+                .description("Subscription frames handed to the broker but not yet written to a session")
+                .register(meterRegistry);
+        Gauge.builder("bandmanager.subscription.outbound.pending", pending, AtomicInteger::get)
+                .description("Subscription frames held back until the session catches up")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("bandmanager.subscription.outbound.dropped")
+                .description("Stale subscription frames replaced by a newer snapshot")
+                .register(meterRegistry);
+        this.slowConsumers = Counter.builder("bandmanager.websocket.slow.consumer.disconnects")
+                .description("WebSocket sessions closed because they could not keep up")
+                .register(meterRegistry);
+    }
+
+    // send передаёт кадр брокеру и выполняется под монитором очереди подписки, поэтому кадры не переставляются
+    public void submit(Subscription<?> subscription, boolean snapshot, Runnable send) {
+        Lane lane = lanes.computeIfAbsent(subscription.getSubscriptionId(), id -> new Lane(subscription.getSessionId()));
+        boolean overflow;
+        synchronized (lane) {
+            // Подписку только что отменили или изменили: кадр по её прежнему состоянию не нужен
+            if (lane.released) return;
+            expireLost(lane);
+            if (snapshot && !lane.pending.isEmpty()) {
+                dropped.increment(lane.pending.size());
+                pending.addAndGet(-lane.pending.size());
+                lane.pending.clear();
+            }
+            lane.pending.add(send);
+            pending.incrementAndGet();
+            drain(lane);
+            overflow = lane.pending.size() > maxPending;
+        }
+        if (overflow) {
+            log.warn("Subscription {} has more than {} frames pending, closing slow session {}",
+                    subscription.getSubscriptionId(), maxPending, subscription.getSessionId());
+            close(subscription.getSessionId());
+        }
+    }
+
+    // Отменённая или изменённая подписка: её очередь и учёт кадров в пути больше не нужны
+    public void remove(UUID subscriptionId) {
+        Lane lane = lanes.remove(subscriptionId);
+        if (lane != null) {
+            discard(lane);
+        }
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new TrackingHandler(handler);
+    }
+
+    void onDelivered(UUID subscriptionId) {
+        Lane lane = lanes.get(subscriptionId);
+        if (lane == null) return;
+        synchronized (lane) {
+            if (lane.sentAt.pollFirst() != null) {
+                inFlight.decrementAndGet();
+            }
+            drain(lane);
+        }
+    }
+
+    private void drain(Lane lane) {
+        while (lane.sentAt.size() < maxInFlight && !lane.pending.isEmpty()) {
+            Runnable send = lane.pending.pollFirst();
+            pending.decrementAndGet();
+            lane.sentAt.addLast(System.nanoTime());
+            inFlight.incrementAndGet();
+            send.run();
+        }
+    }
+
+    // Кадр, отправленный до STOMP-подписки клиента, брокер отбрасывает, и подтверждения о записи не будет
+    private void expireLost(Lane lane) {
+        long now = System.nanoTime();
+        while (!lane.sentAt.isEmpty() && now - lane.sentAt.peekFirst() >= inFlightTimeoutNanos) {
+            lane.sentAt.pollFirst();
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void close(String sessionId) {
+        WebSocketSession session = sessionId != null ? sessions.get(sessionId) : null;
+        if (session == null) return;
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Failed to close slow session {}", sessionId, e);
+        }
+    }
+
+    // Закрылась одна вкладка: очереди подписок других сессий того же пользователя не трогаем
+    private void release(String sessionId) {
+        sessions.remove(sessionId);
+        lanes.entrySet().removeIf(entry -> {
+            if (!sessionId.equals(entry.getValue().sessionId)) return false;
+            discard(entry.getValue());
+            return true;
+        });
+    }
+
+    private void discard(Lane lane) {
+        synchronized (lane) {
+            lane.released = true;
+            inFlight.addAndGet(-lane.sentAt.size());
+            pending.addAndGet(-lane.pending.size());
+            lane.sentAt.clear();
+            lane.pending.clear();
+        }
+    }
+
+    static UUID subscriptionIdOf(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text) || !text.getPayload().startsWith("MESSAGE")) return null;
+        String frame = text.getPayload();
+        // Ищем только среди заголовков, не просматривая тело кадра
+        int headersEnd = frame.indexOf("\n\n");
+        int start = headersEnd >= 0 ? frame.lastIndexOf(SUBSCRIPTION_DESTINATION, headersEnd) : -1;
+        if (start < 0) return null;
+        start += SUBSCRIPTION_DESTINATION.length();
+        if (start + UUID_LENGTH > frame.length()) return null;
+        try {
+            return UUID.fromString(frame.substring(start, start + UUID_LENGTH));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Lane {
+
+        private final String sessionId;
+
+        // Время передачи брокеру кадров, ещё не записанных в сессию
+        private final Deque<Long> sentAt = new ArrayDeque<>();
+
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+
+        private boolean released;
+
+        private Lane(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+    }
+
+    // Подменяет сессию обёрткой, которая сообщает о записанных в сокет кадрах подписок.
+    // Буфер и лимиты Spring (ConcurrentWebSocketSessionDecorator) работают поверх неё
+    private final class TrackingHandler extends WebSocketHandlerDecorator {
+
+        private TrackingHandler(WebSocketHandler delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+            TrackingSession trackingSession = new TrackingSession(session);
+            sessions.put(session.getId(), trackingSession);
+            super.afterConnectionEstablished(trackingSession);
+        }
+
+        @Override
+        public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+            super.handleMessage(sessions.getOrDefault(session.getId(), session), message);
+        }
+
+        @Override
+        public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+            super.handleTransportError(sessions.getOrDefault(session.getId(), session), exception);
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+            WebSocketSession trackingSession = sessions.get(session.getId());
+            release(session.getId());
+            if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                slowConsumers.increment();
+            }
+            super.afterConnectionClosed(trackingSession != null ? trackingSession : session, closeStatus);
+        }
+
+    }
+
+    private final class TrackingSession extends WebSocketSessionDecorator {
+
+        private TrackingSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            super.sendMessage(message);
+            UUID subscriptionId = subscriptionIdOf(message);
+            if (subscriptionId != null) {
+                onDelivered(subscriptionId);
+            }
+        }
+
+    }
+
+}
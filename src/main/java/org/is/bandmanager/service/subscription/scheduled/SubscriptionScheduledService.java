@@ -1,7 +1,6 @@
 package org.is.bandmanager.service.subscription.scheduled;
 
 import lombok.RequiredArgsConstructor;
-import org.is.bandmanager.constants.SubscriptionsConstants;
 import org.is.bandmanager.service.subscription.SubscriptionService;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -14,9 +13,15 @@ public class SubscriptionScheduledService {
     private final SubscriptionService subscriptionService;
 
     @Async("subscriptionTaskExecutor")
-    @Scheduled(fixedRate = SubscriptionsConstants.DEAD_SUBSCRIPTION_CHECK_INTERVAL_MILLISECONDS)
+    @Scheduled(fixedDelayString = "${band-manager.subscription.expiry-check-interval:PT10S}")
     public void cancelDeadSubscriptions() {
         subscriptionService.cleanupDeadSubscriptionsInternal();
     }
 
+    @Async("subscriptionTaskExecutor")
+    @Scheduled(fixedDelayString = "${band-manager.subscription.resync-interval:PT5M}", initialDelayString = "${band-manager.subscription.resync-interval:PT5M}")
+    public void resyncSubscriptions() {
+        subscriptionService.resyncAllInternal();
+    }
+
 }
\ No newline at end of file
@@ -1,55 +1,97 @@
 package org.is.bandmanager.service.subscription.storage;
 
-import lombok.RequiredArgsConstructor;
-import org.is.bandmanager.constants.SubscriptionsConstants;
 import org.is.exception.ServiceException;
 import org.is.bandmanager.repository.filter.EntityFilter;
 import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.bandmanager.service.subscription.model.SubscriptionGroup;
+import org.is.bandmanager.service.subscription.model.SubscriptionGroupKey;
 import org.is.bandmanager.service.subscription.model.request.SubscriptionRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.is.util.pageable.PageableRequest;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
 
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.MUST_BE_NOT_NULL;
 import static org.is.bandmanager.exception.message.BandManagerErrorMessage.SOURCE_WITH_ID_NOT_FOUND;
 
 @Service
-@RequiredArgsConstructor
 public class InMemorySubscriptionStorage implements SubscriptionStorage {
 
+    private static final int STRIPES = 64;
+
     private final ConcurrentMap<UUID, Subscription<? extends EntityFilter>> subscriptions = new ConcurrentHashMap<>();
-    private final ConcurrentMap<Class<? extends EntityFilter>, Set<UUID>> typeIndex = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, Set<UUID>> sessionIndex = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<? extends EntityFilter>, TypeIndex> typeIndex = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ClientSession> sessionIndex = new ConcurrentHashMap<>();
+
+    // Изменения одной подписки сериализуются на её полосе: все индексы обновляются вместе
+    private final Object[] stripes = new Object[STRIPES];
+
+    // Одна запись на сессию с подписками: срок пересчитывается, только когда запись подходит к голове очереди
+    private final DelayQueue<Expiry> expiryQueue = new DelayQueue<>();
+
+    private final Clock clock;
+
+    private final long idleTimeoutMillis;
+
+    @Autowired
+    public InMemorySubscriptionStorage(@Value("${band-manager.subscription.idle-timeout:2m}") Duration idleTimeout) {
+        this(Clock.systemUTC(), idleTimeout);
+    }
+
+    InMemorySubscriptionStorage(Clock clock, Duration idleTimeout) {
+        this.clock = clock;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
 
     @Override
-    public <T extends EntityFilter> Subscription<T> createSubscription(String principalId, SubscriptionRequest<T> request) {
+    public <T extends EntityFilter> Subscription<T> createSubscription(String principalId, String sessionId, SubscriptionRequest<T> request) {
         UUID id = UUID.randomUUID();
+        Instant now = clock.instant();
 
         Subscription<T> sub = Subscription.<T>builder()
                 .subscriptionId(id)
                 .principalId(principalId)
+                .sessionId(sessionId)
                 .filter(request.getFilter())
                 .pageableRequest(Optional.ofNullable(request.getPageableRequest()).orElse(new PageableRequest()))
-                .createdAt(Instant.now())
-                .touchedAt(Instant.now())
+                .createdAt(now)
+                .touchedAt(now)
+                .deltaUpdates(Boolean.TRUE.equals(request.getDeltaUpdates()))
                 .build();
 
-        subscriptions.put(id, sub);
-        typeIndex.computeIfAbsent(request.getFilter().getClass(), k -> ConcurrentHashMap.newKeySet()).add(id);
-        sessionIndex.computeIfAbsent(principalId, k -> ConcurrentHashMap.newKeySet()).add(id);
-
+        synchronized (stripe(id)) {
+            subscriptions.put(id, sub);
+            typeIndex(sub).add(sub);
+            sessionIndex.compute(sessionId, (k, session) -> {
+                ClientSession result = session;
+                if (result == null) {
+                    result = new ClientSession(sessionId, now.toEpochMilli());
+                    expiryQueue.add(new Expiry(result, now.toEpochMilli() + idleTimeoutMillis));
+                }
+                result.ids.add(id);
+                return result;
+            });
+        }
+        touchSession(sessionId);
         return sub;
     }
 
@@ -59,27 +101,31 @@ public class InMemorySubscriptionStorage implements SubscriptionStorage {
             throw new ServiceException(MUST_BE_NOT_NULL, "Subscription.ID");
         }
 
-        @SuppressWarnings("unchecked")
-        Subscription<T> existing = (Subscription<T>) subscriptions.get(request.getSubscriptionId());
-        if (existing == null) {
-            throw new ServiceException(SOURCE_WITH_ID_NOT_FOUND, "Subscription", request.getSubscriptionId());
-        }
-
-        if (!existing.getFilter().getClass().equals(request.getFilter().getClass())) {
-            typeIndex.get(existing.getFilter().getClass()).remove(existing.getSubscriptionId());
-            typeIndex.computeIfAbsent(request.getFilter().getClass(), k -> ConcurrentHashMap.newKeySet()).add(existing.getSubscriptionId());
-        }
+        Subscription<T> updated;
+        synchronized (stripe(request.getSubscriptionId())) {
+            @SuppressWarnings("unchecked")
+            Subscription<T> existing = (Subscription<T>) subscriptions.get(request.getSubscriptionId());
+            if (existing == null) {
+                throw new ServiceException(SOURCE_WITH_ID_NOT_FOUND, "Subscription", request.getSubscriptionId());
+            }
 
-        Subscription<T> updated = Subscription.<T>builder()
-                .subscriptionId(existing.getSubscriptionId())
-                .principalId(existing.getPrincipalId())
-                .filter(request.getFilter())
-                .pageableRequest(Optional.ofNullable(request.getPageableRequest()).orElse(new PageableRequest()))
-                .createdAt(existing.getCreatedAt())
-                .touchedAt(Instant.now())
-                .build();
+            updated = Subscription.<T>builder()
+                    .subscriptionId(existing.getSubscriptionId())
+                    .principalId(existing.getPrincipalId())
+                    .sessionId(existing.getSessionId())
+                    .filter(request.getFilter())
+                    .pageableRequest(Optional.ofNullable(request.getPageableRequest()).orElse(new PageableRequest()))
+                    .createdAt(existing.getCreatedAt())
+                    .touchedAt(clock.instant())
+                    .deltaUpdates(Boolean.TRUE.equals(request.getDeltaUpdates()))
+                    .format(existing.getFormat())
+                    .build();
 
-        subscriptions.put(updated.getSubscriptionId(), updated);
+            subscriptions.put(updated.getSubscriptionId(), updated);
+            typeIndex(existing).remove(existing);
+            typeIndex(updated).add(updated);
+        }
+        touchSession(updated.getSessionId());
         return updated;
     }
 
@@ -89,57 +135,223 @@ public class InMemorySubscriptionStorage implements SubscriptionStorage {
         return Optional.ofNullable((Subscription<T>) subscriptions.get(id));
     }
 
+    // Общий неизменяемый снимок: между изменениями подписок события не создают новых списков
     @Override
-    @SuppressWarnings("unchecked")
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public <T extends EntityFilter> List<Subscription<T>> getSubscriptionsByType(Class<T> filterType) {
-        Set<UUID> ids = typeIndex.getOrDefault(filterType, Collections.emptySet());
-        return ids.stream()
-                .map(subscriptions::get)
-                .filter(Objects::nonNull)
-                .map(s -> (Subscription<T>) s)
-                .collect(Collectors.toList());
+        TypeIndex index = typeIndex.get(filterType);
+        return index == null ? List.of() : (List) index.snapshot().subscriptions();
     }
 
     @Override
-    public void deleteSubscription(UUID subscriptionId) {
-        Subscription<?> removed = subscriptions.remove(subscriptionId);
-        if (removed != null) {
-            typeIndex.getOrDefault(removed.getFilter().getClass(), Collections.emptySet()).remove(subscriptionId);
-            sessionIndex.getOrDefault(removed.getPrincipalId(), Collections.emptySet()).remove(subscriptionId);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T extends EntityFilter> List<SubscriptionGroup<T>> getSubscriptionGroupsByType(Class<T> filterType) {
+        TypeIndex index = typeIndex.get(filterType);
+        return index == null ? List.of() : (List) index.snapshot().groups();
+    }
+
+    // Ключ группы, в которой подписка состоит сейчас
+    @Override
+    public Optional<SubscriptionGroupKey> getSubscriptionGroupKey(UUID subscriptionId) {
+        Subscription<?> subscription = subscriptions.get(subscriptionId);
+        if (subscription == null) return Optional.empty();
+        TypeIndex index = typeIndex.get(subscription.getFilter().getClass());
+        if (index == null) return Optional.empty();
+        return Optional.ofNullable(index.groups.get(SubscriptionGroupKey.of(subscription))).map(GroupEntry::key);
+    }
+
+    // Вызывается на каждый входящий STOMP-кадр, поэтому только пишет время в уже существующую запись.
+    // Кадры одной вкладки не продлевают подписки другой вкладки того же пользователя
+    @Override
+    public void touchSession(String sessionId) {
+        ClientSession session = sessionIndex.get(sessionId);
+        if (session != null) {
+            session.lastSeenMillis = clock.millis();
         }
     }
 
     @Override
-    public List<UUID> deleteAllPrincipalSubscriptions(String sessionId) {
-        Set<UUID> ids = sessionIndex.remove(sessionId);
-        if (ids == null) return List.of();
+    public void deleteSubscription(UUID subscriptionId) {
+        remove(subscriptionId);
+    }
+
+    @Override
+    public List<UUID> deleteAllSessionSubscriptions(String sessionId) {
+        ClientSession session = sessionIndex.remove(sessionId);
+        return session == null ? List.of() : deleteAll(session);
+    }
+
+    // Из очереди берутся только сессии с истёкшим сроком. Сессию, которая с тех пор подавала признаки жизни,
+    // возвращаем в очередь с новым сроком, молчавшую удаляем вместе с подписками
+    @Override
+    public List<UUID> deleteDeadSubscriptions() {
+        List<UUID> removed = new ArrayList<>();
+        Expiry expiry;
+        while ((expiry = expiryQueue.poll()) != null) {
+            ClientSession session = expiry.session;
+            if (sessionIndex.get(session.sessionId) != session) continue;
+            long deadline = session.lastSeenMillis + idleTimeoutMillis;
+            if (deadline > clock.millis()) {
+                expiryQueue.add(new Expiry(session, deadline));
+            } else if (sessionIndex.remove(session.sessionId, session)) {
+                removed.addAll(deleteAll(session));
+            }
+        }
+        return removed;
+    }
+
+    private List<UUID> deleteAll(ClientSession session) {
         List<UUID> deleted = new ArrayList<>();
-        for (UUID id : ids) {
-            Subscription<?> sub = subscriptions.remove(id);
-            if (sub != null) {
-                typeIndex.getOrDefault(sub.getFilter().getClass(), Collections.emptySet()).remove(id);
+        for (UUID id : session.ids) {
+            if (remove(id)) {
                 deleted.add(id);
             }
         }
         return deleted;
     }
 
-    @Override
-    public List<UUID> deleteDeadSubscriptions() {
-        Instant threshold = Instant.now().minusSeconds(SubscriptionsConstants.DEAD_SUBSCRIPTION_LIMIT_SECONDS);
-        List<UUID> removed = new ArrayList<>();
-        for (Map.Entry<UUID, Subscription<? extends EntityFilter>> entry : subscriptions.entrySet()) {
-            if (entry.getValue().getTouchedAt().isBefore(threshold)) {
-                UUID id = entry.getKey();
-                Subscription<?> sub = subscriptions.remove(id);
-                if (sub != null) {
-                    typeIndex.getOrDefault(sub.getFilter().getClass(), Collections.emptySet()).remove(id);
-                    sessionIndex.getOrDefault(sub.getPrincipalId(), Collections.emptySet()).remove(id);
-                    removed.add(id);
+    private boolean remove(UUID id) {
+        synchronized (stripe(id)) {
+            Subscription<?> sub = subscriptions.remove(id);
+            if (sub == null) return false;
+            typeIndex(sub).remove(sub);
+            sessionIndex.computeIfPresent(sub.getSessionId(), (k, session) -> {
+                session.ids.remove(id);
+                return session.ids.isEmpty() ? null : session;
+            });
+            return true;
+        }
+    }
+
+    private TypeIndex typeIndex(Subscription<?> subscription) {
+        return typeIndex.computeIfAbsent(subscription.getFilter().getClass(), k -> new TypeIndex());
+    }
+
+    private Object stripe(UUID id) {
+        return stripes[Math.floorMod(id.hashCode(), STRIPES)];
+    }
+
+    // Подписки одного типа фильтра и их группы. Снимок для чтения пересобирается лениво
+    // при первом обращении после изменения, а итерация по нему не берёт блокировок
+    private final class TypeIndex {
+
+        private final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        // Подписки с одинаковыми фильтром и страницей: запрос выполняется один раз на группу
+        private final ConcurrentMap<SubscriptionGroupKey, GroupEntry> groups = new ConcurrentHashMap<>();
+
+        private volatile boolean dirty;
+
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+        private void add(Subscription<?> subscription) {
+            UUID id = subscription.getSubscriptionId();
+            ids.add(id);
+            groups.compute(SubscriptionGroupKey.of(subscription), (key, entry) -> {
+                GroupEntry result = entry != null ? entry : new GroupEntry(key, ConcurrentHashMap.newKeySet());
+                result.ids().add(id);
+                return result;
+            });
+            dirty = true;
+        }
+
+        // Опустевшая группа удаляется атомарно, чтобы не потерять параллельно добавленную подписку
+        private void remove(Subscription<?> subscription) {
+            UUID id = subscription.getSubscriptionId();
+            ids.remove(id);
+            groups.computeIfPresent(SubscriptionGroupKey.of(subscription), (key, entry) -> {
+                entry.ids().remove(id);
+                return entry.ids().isEmpty() ? null : entry;
+            });
+            dirty = true;
+        }
+
+        private Snapshot snapshot() {
+            if (!dirty) return snapshot;
+            synchronized (this) {
+                if (!dirty) return snapshot;
+                // Флаг сбрасывается до чтения индексов: изменение во время сборки снова его поднимет
+                dirty = false;
+                Snapshot rebuilt = new Snapshot(members(ids), groups());
+                snapshot = rebuilt;
+                return rebuilt;
+            }
+        }
+
+        private List<SubscriptionGroup<EntityFilter>> groups() {
+            List<SubscriptionGroup<EntityFilter>> result = new ArrayList<>(groups.size());
+            for (GroupEntry entry : groups.values()) {
+                List<Subscription<EntityFilter>> members = members(entry.ids());
+                if (!members.isEmpty()) {
+                    result.add(new SubscriptionGroup<>(entry.key(), members));
                 }
             }
+            return Collections.unmodifiableList(result);
         }
-        return removed;
+
+        @SuppressWarnings("unchecked")
+        private List<Subscription<EntityFilter>> members(Set<UUID> memberIds) {
+            Subscription<?>[] members = new Subscription<?>[memberIds.size()];
+            int size = 0;
+            for (UUID id : memberIds) {
+                Subscription<?> subscription = subscriptions.get(id);
+                if (subscription == null) continue;
+                if (size == members.length) {
+                    members = Arrays.copyOf(members, size * 2 + 1);
+                }
+                members[size++] = subscription;
+            }
+            return (List<Subscription<EntityFilter>>) (List<?>) Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(members, size)));
+        }
+
+    }
+
+    private static final class ClientSession {
+
+        private final String sessionId;
+
+        private final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        private volatile long lastSeenMillis;
+
+        private ClientSession(String sessionId, long lastSeenMillis) {
+            this.sessionId = sessionId;
+            this.lastSeenMillis = lastSeenMillis;
+        }
+
+    }
+
+    // Срок записи неизменен, пока она в очереди: свежий lastSeenMillis учитывается при её извлечении
+    private final class Expiry implements Delayed {
+
+        private final ClientSession session;
+
+        private final long deadlineMillis;
+
+        private Expiry(ClientSession session, long deadlineMillis) {
+            this.session = session;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - clock.millis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((Expiry) other).deadlineMillis);
+        }
+
+    }
+
+    private record GroupEntry(SubscriptionGroupKey key, Set<UUID> ids) {
+    }
+
+    private record Snapshot(List<Subscription<EntityFilter>> subscriptions, List<SubscriptionGroup<EntityFilter>> groups) {
+
+        private static final Snapshot EMPTY = new Snapshot(List.of(), List.of());
+
     }
 
 }
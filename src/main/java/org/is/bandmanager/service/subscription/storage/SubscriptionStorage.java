@@ -2,6 +2,8 @@ package org.is.bandmanager.service.subscription.storage;
 
 import org.is.bandmanager.repository.filter.EntityFilter;
 import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.bandmanager.service.subscription.model.SubscriptionGroup;
+import org.is.bandmanager.service.subscription.model.SubscriptionGroupKey;
 import org.is.bandmanager.service.subscription.model.request.SubscriptionRequest;
 
 import java.util.List;
@@ -10,7 +12,7 @@ import java.util.UUID;
 
 public interface SubscriptionStorage {
 
-    <T extends EntityFilter> Subscription<T> createSubscription(String principalId, SubscriptionRequest<T> subscriptionRequest);
+    <T extends EntityFilter> Subscription<T> createSubscription(String principalId, String sessionId, SubscriptionRequest<T> subscriptionRequest);
 
     <T extends EntityFilter> Subscription<T> updateSubscription(SubscriptionRequest<T> subscriptionRequest);
 
@@ -18,9 +20,15 @@ public interface SubscriptionStorage {
 
     <T extends EntityFilter> List<Subscription<T>> getSubscriptionsByType(Class<T> filterType);
 
+    <T extends EntityFilter> List<SubscriptionGroup<T>> getSubscriptionGroupsByType(Class<T> filterType);
+
+    Optional<SubscriptionGroupKey> getSubscriptionGroupKey(UUID subscriptionId);
+
+    void touchSession(String sessionId);
+
     void deleteSubscription(UUID subscriptionId);
 
-    List<UUID> deleteAllPrincipalSubscriptions(String principalId);
+    List<UUID> deleteAllSessionSubscriptions(String sessionId);
 
     List<UUID> deleteDeadSubscriptions();
 
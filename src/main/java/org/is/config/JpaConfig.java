@@ -2,6 +2,8 @@ package org.is.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.CurrentDateTimeProvider;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -10,7 +12,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Optional;
 
 @Configuration
-@EnableJpaAuditing(auditorAwareRef = "auditorAware")
+@EnableJpaAuditing(auditorAwareRef = "auditorAware", dateTimeProviderRef = "auditingDateTimeProvider")
 public class JpaConfig {
 
     @Bean
@@ -18,6 +20,12 @@ public class JpaConfig {
         return this::getCurrentAuditor;
     }
 
+    // Отдельный бин, чтобы native UPDATE проставлял last_modified_date из того же источника, что и аудит
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider() {
+        return CurrentDateTimeProvider.INSTANCE;
+    }
+
     private Optional<String> getCurrentAuditor() {
         return Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication())
                 .map(authentication -> extractUsername(authentication.getPrincipal()));
@@ -1,18 +1,28 @@
 package org.is.config;
 
 import jakarta.annotation.Nonnull;
+import org.is.bandmanager.service.subscription.inbound.SubscriptionLivenessInterceptor;
+import org.is.bandmanager.service.subscription.outbound.SubscriptionOutbox;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -21,9 +31,39 @@ import java.util.UUID;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final SubscriptionOutbox subscriptionOutbox;
+
+    private final SubscriptionLivenessInterceptor subscriptionLivenessInterceptor;
+
+    private final TaskScheduler messageBrokerTaskScheduler;
+
+    private final Duration sendTimeLimit;
+
+    private final DataSize sendBufferSizeLimit;
+
+    private final Duration heartbeat;
+
+    // Планировщик брокера создаётся той же конфигурацией, что использует этот класс, поэтому берётся лениво
+    public WebSocketConfig(SubscriptionOutbox subscriptionOutbox,
+                           SubscriptionLivenessInterceptor subscriptionLivenessInterceptor,
+                           @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler,
+                           @Value("${band-manager.websocket.send-time-limit:10s}") Duration sendTimeLimit,
+                           @Value("${band-manager.websocket.send-buffer-size-limit:512KB}") DataSize sendBufferSizeLimit,
+                           @Value("${band-manager.websocket.heartbeat:10s}") Duration heartbeat) {
+        this.subscriptionOutbox = subscriptionOutbox;
+        this.subscriptionLivenessInterceptor = subscriptionLivenessInterceptor;
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+        this.sendTimeLimit = sendTimeLimit;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.heartbeat = heartbeat;
+    }
+
+    // Брокер шлёт heartbeat клиенту и закрывает сессию, от которой не приходит кадров дольше согласованного интервала
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeat.toMillis(), heartbeat.toMillis()})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -44,6 +84,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    // Сессия, которая дольше sendTimeLimit не может принять кадр или копит больше sendBufferSizeLimit,
+    // закрывается Spring со статусом SESSION_NOT_RELIABLE и не задерживает рассылку остальным
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis());
+        registration.setSendBufferSizeLimit((int) sendBufferSizeLimit.toBytes());
+        registration.addDecoratorFactory(subscriptionOutbox::decorate);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(subscriptionLivenessInterceptor);
+    }
+
     @Override
     public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
         messageConverters.add(new StringMessageConverter());
@@ -0,0 +1,42 @@
+package org.is.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Счётчик закоммиченных изменений по типу сущности (типу DTO в EntityEvent).
+// epoch отличает запуски приложения: после рестарта счётчики начинаются с нуля
+@Component
+public class EntityChangeCounter {
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final Map<Class<?>, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    // Сумма монотонных счётчиков тоже монотонна, поэтому годится как версия набора таблиц
+    public long getChangeCount(Collection<Class<?>> entityTypes) {
+        long count = 0;
+        for (Class<?> entityType : entityTypes) {
+            AtomicLong counter = counters.get(entityType);
+            if (counter != null) {
+                count += counter.get();
+            }
+        }
+        return count;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEntityEvent(EntityEvent<?> event) {
+        if (event.getEntityType() == null) return;
+        counters.computeIfAbsent(event.getEntityType(), type -> new AtomicLong()).incrementAndGet();
+    }
+
+}
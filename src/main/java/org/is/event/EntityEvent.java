@@ -15,18 +15,27 @@ public class EntityEvent<T> {
 
     private final List<T> entities;
 
+    // Состояние тех же сущностей до UPDATED, если оно известно: по нему видно, что строка вышла из фильтра
+    private final List<T> previousEntities;
+
     private final Instant timestamp;
 
     public EntityEvent(EventType eventType, T entity) {
-        this.eventType = eventType;
-        this.entities = List.of(entity);
-        this.entityType = entity.getClass();
-        this.timestamp = Instant.now();
+        this(eventType, List.of(entity), List.of());
+    }
+
+    public EntityEvent(EventType eventType, T entity, T previousEntity) {
+        this(eventType, List.of(entity), List.of(previousEntity));
     }
 
     public EntityEvent(EventType eventType, List<T> entities) {
+        this(eventType, entities, List.of());
+    }
+
+    public EntityEvent(EventType eventType, List<T> entities, List<T> previousEntities) {
         this.eventType = eventType;
         this.entities = entities;
+        this.previousEntities = previousEntities;
         this.entityType = !entities.isEmpty() ? entities.get(0).getClass() : null;
         this.timestamp = Instant.now();
     }
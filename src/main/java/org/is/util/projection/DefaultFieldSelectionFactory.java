@@ -0,0 +1,46 @@
+package org.is.util.projection;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@Component
+@RequiredArgsConstructor
+public class DefaultFieldSelectionFactory implements FieldSelectionFactory {
+
+    private final ProjectionConfigProvider configProvider;
+
+    @Override
+    public FieldSelection create(List<String> fields, Class<?> entityType) {
+        Map<String, String> selectable = configProvider.getProjectionConfig(entityType).getSelectableFields();
+
+        // Имя вложенного объекта (например, coordinates) раскрывается во все его поля;
+        // неизвестные поля отбрасываются так же, как неизвестные поля сортировки
+        Map<String, String> selected = new LinkedHashMap<>();
+        for (String field : fields == null ? List.<String>of() : fields) {
+            String name = field.trim();
+            if (selectable.containsKey(name)) {
+                selected.put(name, selectable.get(name));
+                continue;
+            }
+            selectable.forEach((key, path) -> {
+                if (key.startsWith(name + ".")) {
+                    selected.put(key, path);
+                }
+            });
+        }
+
+        if (selected.isEmpty()) {
+            selected.putAll(selectable);
+        }
+
+        return new FieldSelection(selected.entrySet().stream()
+                .map(entry -> new FieldSelection.Field(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+}
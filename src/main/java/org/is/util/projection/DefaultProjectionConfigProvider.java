@@ -0,0 +1,27 @@
+package org.is.util.projection;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+public class DefaultProjectionConfigProvider implements ProjectionConfigProvider {
+
+    private final Map<Class<?>, ProjectionConfig> projectionConfigs;
+
+    public DefaultProjectionConfigProvider(List<ProjectionConfig> configs) {
+        this.projectionConfigs = configs.stream()
+                .collect(Collectors.toMap(ProjectionConfig::getEntityClass, config -> config));
+    }
+
+    @Override
+    public ProjectionConfig getProjectionConfig(Class<?> entityClass) {
+        if (projectionConfigs.containsKey(entityClass)) {
+            return projectionConfigs.get(entityClass);
+        }
+        throw new IllegalArgumentException("No projection configuration for: " + entityClass);
+    }
+
+}
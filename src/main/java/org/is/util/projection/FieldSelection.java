@@ -0,0 +1,11 @@
+package org.is.util.projection;
+
+import java.util.List;
+
+// Выбранные поля ответа в порядке запроса: name — ключ в JSON (вложенность через точку), path — путь атрибута сущности
+public record FieldSelection(List<Field> fields) {
+
+    public record Field(String name, String path) {
+    }
+
+}
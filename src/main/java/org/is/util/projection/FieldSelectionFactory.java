@@ -0,0 +1,9 @@
+package org.is.util.projection;
+
+import java.util.List;
+
+public interface FieldSelectionFactory {
+
+    FieldSelection create(List<String> fields, Class<?> entityType);
+
+}
@@ -0,0 +1,12 @@
+package org.is.util.projection;
+
+import java.util.Map;
+
+public interface ProjectionConfig {
+
+    Class<?> getEntityClass();
+
+    // Имя поля в ответе -> путь атрибута сущности; вложенные поля ответа пишутся через точку
+    Map<String, String> getSelectableFields();
+
+}
@@ -0,0 +1,7 @@
+package org.is.util.projection;
+
+public interface ProjectionConfigProvider {
+
+    ProjectionConfig getProjectionConfig(Class<?> entityClass);
+
+}
@@ -0,0 +1,131 @@
+package org.is.util.projection;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Постраничная выборка только выбранных колонок: в SELECT попадают пути из FieldSelection,
+// LEFT JOIN добавляется лишь для связей, чьи поля запрошены или участвуют в сортировке
+public final class ProjectionQuery {
+
+    private ProjectionQuery() {
+    }
+
+    public static <T> Page<Map<String, Object>> findAll(EntityManager entityManager, Class<T> entityClass,
+                                                        Specification<T> specification, FieldSelection selection,
+                                                        Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        PathResolver paths = new PathResolver(root);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (FieldSelection.Field field : selection.fields()) {
+            selections.add(paths.get(field.path()));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            Path<?> path = paths.get(order.getProperty());
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        query.orderBy(orders);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Map<String, Object>> content = typedQuery.getResultList().stream()
+                .map(tuple -> toMap(tuple, selection))
+                .toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityManager, entityClass, specification));
+    }
+
+    private static <T> long count(EntityManager entityManager, Class<T> entityClass, Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Значение "frontMan.location.x" кладётся как {"frontMan": {"location": {"x": ...}}}
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toMap(Tuple tuple, FieldSelection selection) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<FieldSelection.Field> fields = selection.fields();
+        for (int i = 0; i < fields.size(); i++) {
+            String[] segments = fields.get(i).name().split("\\.");
+            Map<String, Object> target = result;
+            for (int j = 0; j < segments.length - 1; j++) {
+                target = (Map<String, Object>) target.computeIfAbsent(segments[j], key -> new LinkedHashMap<>());
+            }
+            target.put(segments[segments.length - 1], tuple.get(i));
+        }
+        return result;
+    }
+
+    private static final class PathResolver {
+
+        private final Root<?> root;
+
+        private final Map<String, From<?, ?>> joins = new HashMap<>();
+
+        PathResolver(Root<?> root) {
+            this.root = root;
+        }
+
+        Path<?> get(String path) {
+            String[] segments = path.split("\\.");
+            // Id связи первого уровня читается из внешнего ключа без JOIN
+            if (segments.length == 2 && "id".equals(segments[1]) && !joins.containsKey(segments[0])) {
+                return root.get(segments[0]).get("id");
+            }
+            From<?, ?> from = root;
+            StringBuilder prefix = new StringBuilder();
+            for (int i = 0; i < segments.length - 1; i++) {
+                if (i > 0) prefix.append('.');
+                prefix.append(segments[i]);
+                From<?, ?> parent = from;
+                String attribute = segments[i];
+                from = joins.computeIfAbsent(prefix.toString(), key -> parent.join(attribute, JoinType.LEFT));
+            }
+            return from.get(segments[segments.length - 1]);
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.is.util.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionStateUtil {
+
+    // Чтение внутри пишущей транзакции должно видеть её незакоммиченные изменения,
+    // поэтому in-memory структуры, обновляемые после коммита, в таком случае не используются
+    public static boolean isInsideWritingTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+}
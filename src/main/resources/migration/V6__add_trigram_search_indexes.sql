@@ -0,0 +1,6 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_music_band_name_trgm ON music_band USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_music_band_description_trgm ON music_band USING gin (description gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_person_name_trgm ON person USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_album_name_trgm ON album USING gin (name gin_trgm_ops);
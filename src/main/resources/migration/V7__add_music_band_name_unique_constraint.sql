@@ -0,0 +1,7 @@
+-- Уникальность имени группы обеспечивает БД, а не проверка существования внутри SERIALIZABLE-транзакции.
+-- Уже существующие дубликаты получают суффикс с id, чтобы ограничение можно было создать
+UPDATE music_band mb
+SET name = mb.name || ' (' || mb.id || ')'
+WHERE EXISTS (SELECT 1 FROM music_band other WHERE other.name = mb.name AND other.id < mb.id);
+
+ALTER TABLE music_band ADD CONSTRAINT uq_music_band_name UNIQUE (name);
@@ -0,0 +1,13 @@
+-- События изменения сущностей для подписок на других узлах (band-manager.subscription.event-bus=jdbc).
+-- Узлы читают строки по возрастанию id, записи старше band-manager.subscription.event-bus.retention удаляются
+CREATE TABLE entity_event_outbox
+(
+    id          BIGSERIAL PRIMARY KEY,
+    node_id     VARCHAR(36)  NOT NULL,
+    event_type  VARCHAR(32)  NOT NULL,
+    entity_type VARCHAR(255) NOT NULL,
+    payload     JSONB        NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_entity_event_outbox_created_at ON entity_event_outbox (created_at);
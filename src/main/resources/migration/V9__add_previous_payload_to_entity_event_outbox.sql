@@ -0,0 +1,3 @@
+-- Состояние сущностей до UPDATED: по нему другие узлы видят, что строка вышла из фильтра
+ALTER TABLE entity_event_outbox
+    ADD COLUMN previous_payload JSONB;
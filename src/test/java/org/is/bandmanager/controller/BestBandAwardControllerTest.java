@@ -323,6 +323,22 @@ class BestBandAwardControllerTest extends AbstractIntegrationTest {
                 .jsonPath("$.page.totalPages").isEqualTo(0);
     }
 
+    @Test
+    void shouldReturnOnlyRequestedBestBandAwardFields() {
+        // Given
+        bestBandAwardRepository.save(createBestBandAward(testBand, MusicGenre.ROCK, LocalDateTime.now()));
+
+        // When & Then - только выбранные поля
+        getClient().get("/best-band-awards?fields=bandName,genre")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].bandName").isEqualTo("Test Band")
+                .jsonPath("$.content[0].genre").isEqualTo("ROCK")
+                .jsonPath("$.content[0].id").doesNotExist()
+                .jsonPath("$.content[0].createdDate").doesNotExist();
+    }
+
     private BestBandAwardRequest createValidBestBandAwardRequest() {
         return createBestBandAwardRequest(testBand.getId(), MusicGenre.ROCK);
     }
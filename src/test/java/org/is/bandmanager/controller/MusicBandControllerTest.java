@@ -1,6 +1,11 @@
 package org.is.bandmanager.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.is.bandmanager.config.IntegrationTest;
+import org.is.bandmanager.constants.MusicBandConstants;
+import org.is.bandmanager.dto.request.MusicBandBulkCreateRequest;
+import org.is.bandmanager.dto.request.MusicBandBulkUpdateRequest;
 import org.is.bandmanager.dto.request.MusicBandCreateRequest;
 import org.is.bandmanager.dto.request.MusicBandUpdateRequest;
 import org.is.bandmanager.model.Album;
@@ -18,10 +23,18 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.is.bandmanager.model.Color.BLACK;
@@ -52,6 +65,12 @@ class MusicBandControllerTest extends AbstractIntegrationTest {
     @Autowired
     private LocationRepository locationRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private Coordinates savedCoordinates;
     private Album savedAlbum;
     private Person savedPerson;
@@ -193,6 +212,52 @@ class MusicBandControllerTest extends AbstractIntegrationTest {
                 .jsonPath("$.frontMan.id").isEqualTo(savedPerson.getId());
     }
 
+    @Test
+    void shouldReturnNotModifiedWhenBandETagMatches() {
+        MusicBand saved = musicBandRepository.save(MusicBand.builder().name("Test Band").coordinates(savedCoordinates).genre(ROCK).numberOfParticipants(5L).singlesCount(10L).description("Some description").bestAlbum(savedAlbum).albumsCount(3L).establishmentDate(new Date()).frontMan(savedPerson).build());
+
+        String eTag = getClient().get("/music-bands/{id}", saved.getId())
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        getClient().getIfNoneMatch(eTag, "/music-bands/{id}", saved.getId())
+                .expectStatus().isNotModified();
+
+        // После изменения версия в теге другая — старый тег больше не совпадает
+        getClient().putWithBody("/music-bands/{id}", createMusicBandUpdateRequest(), saved.getId())
+                .expectStatus().isOk();
+
+        getClient().getIfNoneMatch(eTag, "/music-bands/{id}", saved.getId())
+                .expectStatus().isOk()
+                .expectHeader().value("ETag", value -> assertThat(value).isNotEqualTo(eTag))
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Radiohead");
+    }
+
+    @Test
+    void shouldReturnNotModifiedForUnchangedPage() {
+        createAndSaveBand("Band A", 5L, 10L, 3L);
+
+        String eTag = getClient().get("/music-bands?genre=ROCK")
+                .expectStatus().isOk()
+                .expectHeader().value("ETag", value -> assertThat(value).startsWith("W/"))
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        getClient().getIfNoneMatch(eTag, "/music-bands?genre=ROCK")
+                .expectStatus().isNotModified();
+
+        getClient().post("/music-bands", createMusicBandCreateRequest())
+                .expectStatus().isCreated();
+
+        getClient().getIfNoneMatch(eTag, "/music-bands?genre=ROCK")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2);
+    }
+
     @Test
     void shouldReturnNotFoundWhenGettingNonExistentBand() {
         getClient().get("/music-bands/{id}", 9999)
@@ -233,6 +298,54 @@ class MusicBandControllerTest extends AbstractIntegrationTest {
         assertThat(updated.getFrontMan().getId()).isEqualTo(newPerson.getId());
     }
 
+    @Test
+    void shouldBulkCreateValidBandsAndReportInvalidOnes() {
+        List<MusicBandBulkCreateRequest> requests = List.of(
+                createMusicBandBulkCreateRequest("Bulk One", savedPerson.getId()),
+                createMusicBandBulkCreateRequest("Bulk Two", 9999L),
+                createMusicBandBulkCreateRequest("Bulk One", savedPerson.getId()),
+                createMusicBandBulkCreateRequest("Bulk Three", savedPerson.getId()));
+
+        getClient().post("/music-bands/bulk", requests)
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.succeeded").isEqualTo(2)
+                .jsonPath("$.failed").isEqualTo(2)
+                .jsonPath("$.items[0].status").isEqualTo(201)
+                .jsonPath("$.items[0].entity.name").isEqualTo("Bulk One")
+                .jsonPath("$.items[1].status").isEqualTo(404)
+                .jsonPath("$.items[1].errors[0].field").isEqualTo("frontManId")
+                .jsonPath("$.items[2].status").isEqualTo(400)
+                .jsonPath("$.items[2].errors[0].field").isEqualTo("name")
+                .jsonPath("$.items[3].entity.frontMan.id").isEqualTo(savedPerson.getId());
+
+        assertThat(musicBandRepository.findAll()).extracting(MusicBand::getName).containsExactlyInAnyOrder("Bulk One", "Bulk Three");
+    }
+
+    @Test
+    void shouldBulkUpdateBandsWithPerItemErrors() {
+        MusicBand first = musicBandRepository.save(MusicBand.builder().name("First").coordinates(savedCoordinates).genre(ROCK).numberOfParticipants(5L).singlesCount(10L).description("First description").bestAlbum(savedAlbum).albumsCount(3L).establishmentDate(new Date()).frontMan(savedPerson).build());
+        MusicBand second = musicBandRepository.save(MusicBand.builder().name("Second").coordinates(savedCoordinates).genre(ROCK).numberOfParticipants(5L).singlesCount(10L).description("Second description").bestAlbum(savedAlbum).albumsCount(3L).establishmentDate(new Date()).frontMan(savedPerson).build());
+
+        List<MusicBandBulkUpdateRequest> requests = List.of(
+                createMusicBandBulkUpdateRequest(first.getId(), "First Renamed", first.getVersion()),
+                createMusicBandBulkUpdateRequest(second.getId(), "Second Renamed", second.getVersion() + 1),
+                createMusicBandBulkUpdateRequest(9999L, "Missing", null));
+
+        getClient().putWithBody("/music-bands/bulk", requests)
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.succeeded").isEqualTo(1)
+                .jsonPath("$.failed").isEqualTo(2)
+                .jsonPath("$.items[0].entity.name").isEqualTo("First Renamed")
+                .jsonPath("$.items[0].entity.version").isEqualTo(first.getVersion() + 1)
+                .jsonPath("$.items[1].status").isEqualTo(409)
+                .jsonPath("$.items[2].status").isEqualTo(404);
+
+        assertThat(musicBandRepository.findById(first.getId()).orElseThrow().getName()).isEqualTo("First Renamed");
+        assertThat(musicBandRepository.findById(second.getId()).orElseThrow().getName()).isEqualTo("Second");
+    }
+
     @Test
     void shouldReturnNotFoundWhenUpdatingNonExistentBand() {
 	    MusicBandUpdateRequest updateRequest = createMusicBandUpdateRequest();
@@ -258,6 +371,31 @@ class MusicBandControllerTest extends AbstractIntegrationTest {
         assertThat(musicBandRepository.existsById(saved.getId())).isFalse();
     }
 
+    @Test
+    void shouldBulkDeleteBandsWithTheirAwards() {
+        // Given
+        MusicBand first = musicBandRepository.save(MusicBand.builder().name("First").coordinates(savedCoordinates).genre(ROCK).numberOfParticipants(4L).singlesCount(7L).description("temp").bestAlbum(savedAlbum).albumsCount(3L).establishmentDate(new Date()).frontMan(savedPerson).build());
+        MusicBand second = musicBandRepository.save(MusicBand.builder().name("Second").coordinates(savedCoordinates).genre(POST_ROCK).numberOfParticipants(2L).singlesCount(1L).description("temp").bestAlbum(savedAlbum).albumsCount(1L).establishmentDate(new Date()).frontMan(savedPerson).build());
+        MusicBand kept = musicBandRepository.save(MusicBand.builder().name("Kept").coordinates(savedCoordinates).genre(ROCK).numberOfParticipants(3L).singlesCount(2L).description("temp").bestAlbum(savedAlbum).albumsCount(2L).establishmentDate(new Date()).frontMan(savedPerson).build());
+        jdbcTemplate.update("INSERT INTO best_band_award (band_id, genre) VALUES (?, 'ROCK'), (?, 'ROCK')", first.getId(), kept.getId());
+
+        // When / Then: несуществующий id молча пропускается, ответ собран из удалённых строк
+        getClient().deleteWithBody("/music-bands", List.of(second.getId(), first.getId(), 9999L))
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(second.getId())
+                .jsonPath("$[0].genre").isEqualTo("POST_ROCK")
+                .jsonPath("$[1].id").isEqualTo(first.getId())
+                .jsonPath("$[1].name").isEqualTo("First")
+                .jsonPath("$[1].coordinates.id").isEqualTo(savedCoordinates.getId())
+                .jsonPath("$[1].frontMan.location.id").isEqualTo(savedPerson.getLocation().getId());
+
+        assertThat(musicBandRepository.findAll()).extracting(MusicBand::getId).containsExactly(kept.getId());
+        assertThat(jdbcTemplate.queryForList("SELECT band_id FROM best_band_award", Long.class)).containsExactly(kept.getId());
+        jdbcTemplate.update("DELETE FROM best_band_award");
+    }
+
     @Test
     void shouldReturnNotFoundWhenDeletingNonExistentBand() {
         getClient().delete("/music-bands/{id}", 9999)
@@ -287,6 +425,119 @@ class MusicBandControllerTest extends AbstractIntegrationTest {
                 .jsonPath("$.coordinates.id").isEqualTo(c1.getId());
     }
 
+    @Test
+    void shouldGetBandsByIdsInRequestOrder() {
+        MusicBand first = createAndSaveBand("First Band", savedCoordinates);
+        MusicBand second = createAndSaveBand("Second Band", savedCoordinates);
+
+        getClient().post("/music-bands/batch-get", List.of(second.getId(), 9999L, first.getId(), second.getId()))
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(second.getId())
+                .jsonPath("$[1].id").isEqualTo(first.getId())
+                .jsonPath("$[1].frontMan.location").exists();
+    }
+
+    @Test
+    void shouldExportBandsAsNdjson() throws Exception {
+        MusicBand first = createAndSaveBand("First Band", savedCoordinates);
+        MusicBand second = createAndSaveBand("Second Band", savedCoordinates);
+
+        String body = getClient().get("/music-bands/export")
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectHeader().contentDisposition(ContentDisposition.attachment().filename("music-bands.ndjson").build())
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        JsonNode firstLine = objectMapper.readTree(lines.get(0));
+        JsonNode secondLine = objectMapper.readTree(lines.get(1));
+        assertThat(firstLine.get("id").asLong()).isEqualTo(first.getId());
+        assertThat(firstLine.get("name").asText()).isEqualTo("First Band");
+        assertThat(firstLine.get("frontMan").get("id").asLong()).isEqualTo(savedPerson.getId());
+        assertThat(secondLine.get("id").asLong()).isEqualTo(second.getId());
+        assertThat(secondLine.get("name").asText()).isEqualTo("Second Band");
+    }
+
+    @Test
+    void shouldExportBandsAsCsv() {
+        Coordinates withoutY = coordinatesRepository.save(Coordinates.builder().x(42).y(null).build());
+        MusicBand band = createAndSaveBand("Csv Band", withoutY);
+        band.setDescription("Loud, \"heavy\" band");
+        musicBandRepository.save(band);
+
+        String body = getClient().get("/music-bands/export?format=CSV")
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(new MediaType("text", "csv"))
+                .expectHeader().contentDisposition(ContentDisposition.attachment().filename("music-bands.csv").build())
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).isEqualTo("id,name,genre,numberOfParticipants,singlesCount,description,albumsCount,"
+                + "establishmentDate,coordinatesX,coordinatesY,bestAlbumId,bestAlbumName,frontManId,frontManName,createdBy,version");
+        assertThat(lines.get(1))
+                .startsWith(band.getId() + ",Csv Band,ROCK,5,10,\"Loud, \"\"heavy\"\" band\",5,")
+                .contains(",42,," + savedAlbum.getId() + ",Best Album," + savedPerson.getId() + ",John Doe,");
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenBatchTooLarge() {
+        List<Long> ids = LongStream.rangeClosed(1, MusicBandConstants.MAX_BATCH_GET_SIZE + 1).boxed().toList();
+
+        getClient().post("/music-bands/batch-get", ids)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldSearchBandsBySubstringAndFuzzyMatch() {
+        // В проде расширение создаёт миграция V6, схема тестов строится через create-drop
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        MusicBand radiohead = createAndSaveBand("Radiohead", savedCoordinates);
+        MusicBand metallica = createAndSaveBand("Metallica", savedCoordinates);
+
+        getClient().get("/music-bands/search?q=radiohed")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(1)
+                .jsonPath("$.content[0].id").isEqualTo(radiohead.getId());
+
+        getClient().get("/music-bands/search?q=TALL")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(1)
+                .jsonPath("$.content[0].id").isEqualTo(metallica.getId());
+    }
+
+    @Test
+    void shouldReturnBadRequestForBlankSearchQuery() {
+        getClient().get("/music-bands/search?q= ")
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldGetNearestBand() {
+        Coordinates near = coordinatesRepository.save(Coordinates.builder().x(10).y(10f).build());
+        Coordinates far = coordinatesRepository.save(Coordinates.builder().x(100).y(100f).build());
+        Coordinates withoutY = coordinatesRepository.save(Coordinates.builder().x(12).y(null).build());
+
+        MusicBand nearBand = createAndSaveBand("Near Band", near);
+        createAndSaveBand("Far Band", far);
+        createAndSaveBand("Band Without Y", withoutY);
+
+        getClient().get("/music-bands/nearest?x=12&y=11")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(nearBand.getId())
+                .jsonPath("$.coordinates.id").isEqualTo(near.getId());
+    }
+
     @Test
     void shouldGetBandsEstablishedBeforeDate() throws Exception {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
@@ -304,6 +555,39 @@ class MusicBandControllerTest extends AbstractIntegrationTest {
                 .jsonPath("$[0].name").isEqualTo("Old Band");
     }
 
+    @Test
+    void shouldGetPageOfBandsEstablishedBeforeDate() throws Exception {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        MusicBand oldest = createAndSaveBandWithDate("Oldest Band", sdf.parse("2005-01-01"));
+        MusicBand old = createAndSaveBandWithDate("Old Band", sdf.parse("2010-01-01"));
+        createAndSaveBandWithDate("New Band", sdf.parse("2020-01-01"));
+
+        getClient().get("/music-bands/established-before/page?date=2015-01-01&page=0&size=1&direction=DESC")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(2)
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].id").isEqualTo(old.getId());
+
+        getClient().get("/music-bands/established-before/page?date=2015-01-01&page=1&size=1&direction=DESC")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].id").isEqualTo(oldest.getId());
+    }
+
+    @Test
+    void shouldCapPageSizeOfBandsEstablishedBeforeDate() throws Exception {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        MusicBand old = createAndSaveBandWithDate("Old Band", sdf.parse("2010-01-01"));
+
+        getClient().get("/music-bands/established-before/page?date=2015-01-01&size=" + Integer.MAX_VALUE)
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size").isEqualTo(MusicBandConstants.MAX_PAGE_SIZE)
+                .jsonPath("$.totalElements").isEqualTo(1)
+                .jsonPath("$.content[0].id").isEqualTo(old.getId());
+    }
+
     @Test
     void shouldReturnBadRequestWhenDateParameterMissing() {
         getClient().get("/music-bands/established-before")
@@ -379,6 +663,35 @@ class MusicBandControllerTest extends AbstractIntegrationTest {
         assertThat(unchanged.getNumberOfParticipants()).isEqualTo(1L);
     }
 
+    @Test
+    void shouldNotLoseParticipantUpdatesUnderConcurrency() throws Exception {
+        // Given
+        MusicBand band = createAndSaveBandWithParticipants("Crowded Band", 5L);
+        Long initialVersion = musicBandRepository.findById(band.getId()).orElseThrow().getVersion();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When: восемь одновременных запросов, успешными могут быть только четыре
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            statuses.add(executor.submit(() -> getClient().put("/music-bands/{id}/remove-participant", band.getId())
+                    .returnResult(String.class)
+                    .getStatus()
+                    .value()));
+        }
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> status : statuses) {
+            results.add(status.get());
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(results).filteredOn(status -> status == 200).hasSize(4);
+        assertThat(results).filteredOn(status -> status == 400).hasSize(4);
+        MusicBand updated = musicBandRepository.findById(band.getId()).orElseThrow();
+        assertThat(updated.getNumberOfParticipants()).isEqualTo(1L);
+        assertThat(updated.getVersion()).isEqualTo(initialVersion + 4);
+    }
+
     @Test
     void shouldReturnNotFoundWhenRemovingFromNonExistentBand() {
         getClient().put("/music-bands/{id}/remove-participant", 9999)
@@ -646,8 +959,52 @@ class MusicBandControllerTest extends AbstractIntegrationTest {
                 .jsonPath("$.page.number").isEqualTo(0);
     }
 
+    @Test
+    void shouldReturnOnlyRequestedFields() {
+        createAndSaveBand("Band B", 5L, 10L, 3L);
+        createAndSaveBand("Band A", 5L, 10L, 3L);
+
+        getClient().get("/music-bands?fields=id,name,genre&sort=name")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.content[0].name").isEqualTo("Band A")
+                .jsonPath("$.content[0].genre").isEqualTo("ROCK")
+                .jsonPath("$.content[0].id").isNumber()
+                .jsonPath("$.content[0].coordinates").doesNotExist()
+                .jsonPath("$.content[0].frontMan").doesNotExist()
+                .jsonPath("$.content[0].description").doesNotExist()
+                .jsonPath("$.page.totalElements").isEqualTo(2);
+    }
+
+    @Test
+    void shouldReturnRequestedNestedFieldsWithFilter() {
+        Person mike = createPerson("Mike Smith");
+        createAndSaveBandWithFrontMan("Band One", savedPerson);
+        createAndSaveBandWithFrontMan("Band Two", mike);
+
+        getClient().get("/music-bands?fields=name,frontMan.name,coordinates&frontManName=Mike Smith")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].name").isEqualTo("Band Two")
+                .jsonPath("$.content[0].frontMan.name").isEqualTo("Mike Smith")
+                .jsonPath("$.content[0].frontMan.location").doesNotExist()
+                .jsonPath("$.content[0].coordinates.x").isEqualTo(10)
+                .jsonPath("$.content[0].coordinates.y").isEqualTo(5.5)
+                .jsonPath("$.content[0].id").doesNotExist();
+    }
+
     // Вспомогательные методы для тестов
 
+    private MusicBandBulkCreateRequest createMusicBandBulkCreateRequest(String name, Long frontManId) {
+        return MusicBandBulkCreateRequest.builder().name(name).coordinatesId(savedCoordinates.getId()).genre(ROCK).numberOfParticipants(5L).singlesCount(10L).description("Description for " + name).bestAlbumId(savedAlbum.getId()).albumsCount(9L).establishmentDate(new Date()).frontManId(frontManId).build();
+    }
+
+    private MusicBandBulkUpdateRequest createMusicBandBulkUpdateRequest(Long id, String name, Long version) {
+        return MusicBandBulkUpdateRequest.builder().id(id).name(name).version(version).coordinatesId(savedCoordinates.getId()).genre(POST_ROCK).numberOfParticipants(6L).singlesCount(11L).description("Description for " + name).bestAlbumId(savedAlbum.getId()).albumsCount(4L).establishmentDate(new Date()).frontManId(savedPerson.getId()).build();
+    }
+
     private void createAndSaveBand(String name, Long numberOfParticipants, Long singlesCount, Long albumsCount) {
         musicBandRepository.save(MusicBand.builder().name(name).coordinates(savedCoordinates).genre(ROCK).numberOfParticipants(numberOfParticipants).singlesCount(singlesCount).description("Description for " + name).bestAlbum(savedAlbum).albumsCount(albumsCount).establishmentDate(new Date()).frontMan(savedPerson).build());
     }
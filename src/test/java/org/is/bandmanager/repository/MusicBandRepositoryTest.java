@@ -0,0 +1,133 @@
+package org.is.bandmanager.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.is.bandmanager.config.IntegrationTest;
+import org.is.bandmanager.controller.AbstractIntegrationTest;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.MusicBandMapper;
+import org.is.bandmanager.model.Album;
+import org.is.bandmanager.model.Coordinates;
+import org.is.bandmanager.model.Location;
+import org.is.bandmanager.model.MusicBand;
+import org.is.bandmanager.model.Person;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.is.bandmanager.model.Color.BLACK;
+import static org.is.bandmanager.model.Color.BLUE;
+import static org.is.bandmanager.model.Country.USA;
+import static org.is.bandmanager.model.MusicGenre.ROCK;
+
+@IntegrationTest
+class MusicBandRepositoryTest extends AbstractIntegrationTest {
+
+    private static final int BANDS_COUNT = 12;
+
+    @Autowired
+    private MusicBandRepository musicBandRepository;
+
+    @Autowired
+    private CoordinatesRepository coordinatesRepository;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private MusicBandMapper mapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        // Каждая группа ссылается на собственные зависимости, чтобы N+1 проявился на каждой строке
+        for (int i = 0; i < BANDS_COUNT; i++) {
+            Coordinates coordinates = coordinatesRepository.save(Coordinates.builder().x(i).y(i + 0.5f).build());
+            Album album = albumRepository.save(Album.builder().name("Album " + i).tracks(10L).sales(100).build());
+            Location location = locationRepository.save(Location.builder().x(i).y(1L).z(2L).build());
+            Person person = personRepository.save(Person.builder().name("Person " + i).eyeColor(BLUE).hairColor(BLACK).location(location).weight(70f).nationality(USA).build());
+            musicBandRepository.save(MusicBand.builder().name("Band " + i).coordinates(coordinates).genre(ROCK).numberOfParticipants(4L).singlesCount(3L).description("Description " + i).bestAlbum(album).albumsCount(2L).establishmentDate(new Date()).frontMan(person).build());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        musicBandRepository.deleteAll();
+        coordinatesRepository.deleteAll();
+        albumRepository.deleteAll();
+        personRepository.deleteAll();
+        locationRepository.deleteAll();
+    }
+
+    @Test
+    void shouldLoadFilteredPageWithSingleSelectAndCount() {
+        Statistics statistics = resetStatistics();
+
+        Page<MusicBand> page = musicBandRepository.findWithFilter(MusicBandFilter.builder().genre(ROCK).build(), PageRequest.of(0, 5, Sort.by("id")));
+        List<MusicBandDto> dtos = page.map(mapper::toDto).getContent();
+
+        assertThat(dtos).hasSize(5);
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getFrontMan().getLocation()).isNotNull());
+        // Одна выборка страницы + один count-запрос, независимо от размера страницы
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldLoadFilteredPageWithJoinedFilterWithoutSecondarySelects() {
+        Statistics statistics = resetStatistics();
+
+        Page<MusicBand> page = musicBandRepository.findWithFilter(MusicBandFilter.builder().frontManName("Person 3").build(), PageRequest.of(0, 10, Sort.by("frontMan.name")));
+        List<MusicBandDto> dtos = page.map(mapper::toDto).getContent();
+
+        assertThat(dtos).hasSize(1);
+        assertThat(dtos.get(0).getBestAlbum().getName()).isEqualTo("Album 3");
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldApplyCoordinateBoundsToCandidateIds() {
+        List<Long> candidates = musicBandRepository.findAll().stream().map(MusicBand::getId).toList();
+        MusicBandFilter filter = MusicBandFilter.builder().minCoordinateX(2).maxCoordinateX(4).build();
+
+        Page<MusicBand> page = musicBandRepository.findWithFilter(filter, candidates, PageRequest.of(0, BANDS_COUNT, Sort.by("id")));
+
+        assertThat(page.getContent()).extracting(MusicBand::getName).containsExactly("Band 2", "Band 3", "Band 4");
+    }
+
+    @Test
+    void shouldLoadWholeCatalogueWithSingleSelect() {
+        Statistics statistics = resetStatistics();
+
+        List<MusicBandDto> dtos = musicBandRepository.findAll().stream().map(mapper::toDto).toList();
+
+        assertThat(dtos).hasSize(BANDS_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Statistics resetStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
+}
@@ -0,0 +1,170 @@
+package org.is.bandmanager.service.musicBand.cache;
+
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.model.MusicGenre;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MusicBandQueryCacheTest {
+
+    private static final Pageable PAGEABLE = PageRequest.of(0, 10);
+
+    private MusicBandQueryCache cache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new MusicBandQueryCache(true, 100);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void shouldReturnCachedPageForEqualFilter() {
+        // Given
+        cache.get(MusicBandFilter.builder().genre(MusicGenre.ROCK).build(), PAGEABLE, () -> load(band(1, MusicGenre.ROCK)));
+
+        // When
+        Page<MusicBandDto> result = cache.get(MusicBandFilter.builder().genre(MusicGenre.ROCK).build(), PAGEABLE, () -> load(band(2, MusicGenre.ROCK)));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(result.getContent()).extracting(MusicBandDto::getId).containsExactly(1);
+    }
+
+    @Test
+    void shouldInvalidateOnlyPagesAffectedBySavedBand() {
+        // Given
+        MusicBandFilter rockFilter = MusicBandFilter.builder().genre(MusicGenre.ROCK).build();
+        MusicBandFilter soulFilter = MusicBandFilter.builder().genre(MusicGenre.SOUL).build();
+        cache.get(rockFilter, PAGEABLE, () -> load(band(1, MusicGenre.ROCK)));
+        cache.get(soulFilter, PAGEABLE, () -> load(band(2, MusicGenre.SOUL)));
+
+        // When
+        cache.onBandsSaved(List.of(band(3, MusicGenre.ROCK)));
+        cache.get(rockFilter, PAGEABLE, () -> load(band(1, MusicGenre.ROCK), band(3, MusicGenre.ROCK)));
+        cache.get(soulFilter, PAGEABLE, () -> load());
+
+        // Then
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldInvalidatePageContainingBandThatNoLongerMatches() {
+        // Given
+        MusicBandFilter rockFilter = MusicBandFilter.builder().genre(MusicGenre.ROCK).build();
+        cache.get(rockFilter, PAGEABLE, () -> load(band(1, MusicGenre.ROCK)));
+
+        // When
+        cache.onBandsSaved(List.of(band(1, MusicGenre.SOUL)));
+        Page<MusicBandDto> result = cache.get(rockFilter, PAGEABLE, this::load);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(result.getContent()).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateOtherPagesOfFilterWhenBandLeavesIt() {
+        // Given
+        MusicBandFilter rockFilter = MusicBandFilter.builder().genre(MusicGenre.ROCK).build();
+        Pageable secondPage = PageRequest.of(1, 1);
+        cache.get(rockFilter, PageRequest.of(0, 1), () -> load(band(1, MusicGenre.ROCK)));
+        cache.get(rockFilter, secondPage, () -> load(band(2, MusicGenre.ROCK)));
+
+        // When
+        cache.onBandsSaved(List.of(band(1, MusicGenre.SOUL)));
+        Page<MusicBandDto> result = cache.get(rockFilter, secondPage, this::load);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(result.getContent()).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateFilterThatBandMatchedBeforeUpdate() {
+        // Given
+        MusicBandFilter rockFilter = MusicBandFilter.builder().genre(MusicGenre.ROCK).build();
+        MusicBandFilter soulFilter = MusicBandFilter.builder().genre(MusicGenre.SOUL).build();
+        cache.get(rockFilter, PAGEABLE, () -> load(band(1, MusicGenre.ROCK)));
+        cache.get(soulFilter, PAGEABLE, () -> load(band(2, MusicGenre.SOUL)));
+
+        // When
+        cache.onBandsSaved(List.of(band(3, MusicGenre.POST_PUNK)), List.of(band(3, MusicGenre.ROCK)));
+        cache.get(rockFilter, PAGEABLE, () -> load(band(1, MusicGenre.ROCK)));
+        cache.get(soulFilter, PAGEABLE, this::load);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldInvalidatePagesReferencingUpdatedFrontMan() {
+        // Given
+        MusicBandFilter filter = MusicBandFilter.builder().build();
+        cache.get(filter, PAGEABLE, () -> load(band(1, MusicGenre.ROCK)));
+
+        // When
+        cache.onDependenciesUpdated(List.of(PersonDto.builder().id(1L).name("Renamed").build()));
+        cache.get(filter, PAGEABLE, this::load);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedPagesWhenRowLimitExceeded() {
+        // Given
+        cache = new MusicBandQueryCache(true, 4);
+        MusicBandFilter first = MusicBandFilter.builder().name("first").build();
+        MusicBandFilter second = MusicBandFilter.builder().name("second").build();
+        cache.get(first, PAGEABLE, () -> load(band(1, MusicGenre.ROCK)));
+
+        // When
+        cache.get(second, PAGEABLE, () -> load(band(2, MusicGenre.ROCK), band(3, MusicGenre.ROCK)));
+        cache.get(first, PAGEABLE, this::load);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldBypassCacheWhenDisabled() {
+        // Given
+        cache = new MusicBandQueryCache(false, 100);
+        MusicBandFilter filter = MusicBandFilter.builder().build();
+
+        // When
+        cache.get(filter, PAGEABLE, this::load);
+        cache.get(filter, PAGEABLE, this::load);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private Page<MusicBandDto> load(MusicBandDto... bands) {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of(bands), PAGEABLE, bands.length);
+    }
+
+    private static MusicBandDto band(int id, MusicGenre genre) {
+        return MusicBandDto.builder()
+                .id(id)
+                .name("Band " + id)
+                .genre(genre)
+                .frontMan(PersonDto.builder().id((long) id).name("Person " + id).build())
+                .build();
+    }
+
+}
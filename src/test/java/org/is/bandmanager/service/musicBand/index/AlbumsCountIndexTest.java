@@ -0,0 +1,135 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AlbumsCountIndexTest {
+
+    @Mock
+    private MusicBandRepository musicBandRepository;
+
+    @Test
+    void shouldServeDistinctValuesFromWarmedIndex() {
+        // Given
+        AlbumsCountIndex index = warmedIndex();
+
+        // When
+        List<Long> result = index.getDistinctValues();
+
+        // Then
+        assertThat(result).containsExactly(1L, 3L);
+        verify(musicBandRepository, never()).findDistinctAlbumsCount();
+    }
+
+    @Test
+    void shouldKeepValueWhileAnotherBandStillHasIt() {
+        // Given
+        AlbumsCountIndex index = warmedIndex();
+
+        // When
+        index.onBandsSaved(List.of(band(1, 5L)));
+
+        // Then
+        assertThat(index.getDistinctValues()).containsExactly(1L, 3L, 5L);
+    }
+
+    @Test
+    void shouldDropValueWhenLastBandWithItRemoved() {
+        // Given
+        AlbumsCountIndex index = warmedIndex();
+
+        // When
+        index.onBandsDeleted(List.of(band(3, 1L)));
+
+        // Then
+        assertThat(index.getDistinctValues()).containsExactly(3L);
+    }
+
+    @Test
+    void shouldCountCreatedBandsAndIgnoreRepeatedEvents() {
+        // Given
+        AlbumsCountIndex index = warmedIndex();
+
+        // When
+        index.onBandsSaved(List.of(band(4, 7L)));
+        index.onBandsSaved(List.of(band(4, 7L)));
+        index.onBandsDeleted(List.of(band(4, 7L)));
+
+        // Then
+        assertThat(index.getDistinctValues()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void shouldRebuildWhenReconcileFindsDivergence() {
+        // Given
+        AlbumsCountIndex index = warmedIndex();
+        when(musicBandRepository.findDistinctAlbumsCount()).thenReturn(List.of(2L));
+        when(musicBandRepository.findAllAlbumsCounts()).thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+
+        // When
+        index.reconcile();
+
+        // Then
+        assertThat(index.getDistinctValues()).containsExactly(2L);
+        verify(musicBandRepository, times(2)).findAllAlbumsCounts();
+    }
+
+    @Test
+    void shouldNotRebuildWhenWriteLandsDuringReconcile() {
+        // Given
+        AlbumsCountIndex index = warmedIndex();
+        when(musicBandRepository.findDistinctAlbumsCount()).thenAnswer(invocation -> {
+            index.onBandsSaved(List.of(band(4, 5L)));
+            return List.of(1L, 3L);
+        });
+
+        // When
+        index.reconcile();
+
+        // Then
+        assertThat(index.getDistinctValues()).containsExactly(1L, 3L, 5L);
+        verify(musicBandRepository, times(1)).findAllAlbumsCounts();
+    }
+
+    @Test
+    void shouldQueryDatabaseWhenDisabled() {
+        // Given
+        AlbumsCountIndex index = new AlbumsCountIndex(musicBandRepository, false);
+        index.warmUp();
+        when(musicBandRepository.findDistinctAlbumsCount()).thenReturn(List.of(4L));
+
+        // When
+        List<Long> result = index.getDistinctValues();
+
+        // Then
+        assertThat(result).containsExactly(4L);
+    }
+
+    private AlbumsCountIndex warmedIndex() {
+        when(musicBandRepository.findAllAlbumsCounts()).thenReturn(List.of(
+                new Object[]{1L, 3L},
+                new Object[]{2L, 3L},
+                new Object[]{3L, 1L}));
+        AlbumsCountIndex index = new AlbumsCountIndex(musicBandRepository, true);
+        index.warmUp();
+        return index;
+    }
+
+    private static MusicBandDto band(int id, Long albumsCount) {
+        return MusicBandDto.builder().id(id).albumsCount(albumsCount).build();
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoordinatesSpatialIndexTest {
+
+    @Mock
+    private MusicBandRepository musicBandRepository;
+
+    private CoordinatesSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(musicBandRepository.findAllCoordinates()).thenReturn(List.of(
+                new Object[]{1L, 11L, 0, 0f},
+                new Object[]{2L, 12L, 10, 10f},
+                new Object[]{3L, 13L, 20, null},
+                new Object[]{4L, 14L, -5, 3f}));
+        index = new CoordinatesSpatialIndex(musicBandRepository, true, 100);
+        index.warmUp();
+    }
+
+    @Test
+    void shouldFindBandsInsideInclusiveBox() {
+        // When
+        List<Long> ids = index.findIdsInBox(0, 10, 0f, 10f).orElseThrow();
+
+        // Then
+        assertThat(ids).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void shouldIncludeBandsWithoutYOnlyWhenYIsUnbounded() {
+        // When
+        List<Long> xOnly = index.findIdsInBox(15, null, null, null).orElseThrow();
+        List<Long> withY = index.findIdsInBox(15, null, -100f, null).orElseThrow();
+
+        // Then
+        assertThat(xOnly).containsExactly(3L);
+        assertThat(withY).isEmpty();
+    }
+
+    @Test
+    void shouldReflectSavedDeletedAndMovedBands() {
+        // When
+        index.onBandsSaved(List.of(band(1, 11, 100, 100f), band(5, 15, 5, 5f)));
+        index.onBandsDeleted(List.of(band(2, 12, 10, 10f)));
+
+        // Then
+        assertThat(index.findIdsInBox(0, 10, 0f, 10f).orElseThrow()).containsExactly(5L);
+        assertThat(index.findIdsInBox(90, 110, null, null).orElseThrow()).containsExactly(1L);
+    }
+
+    @Test
+    void shouldMoveAllBandsSharingUpdatedCoordinates() {
+        // When
+        index.onDependenciesUpdated(List.of(CoordinatesDto.builder().id(12L).x(50).y(50f).build()));
+
+        // Then
+        assertThat(index.findIdsInBox(40, 60, 40f, 60f).orElseThrow()).containsExactly(2L);
+        assertThat(index.findIdsInBox(0, 10, 0f, 10f).orElseThrow()).containsExactly(1L);
+    }
+
+    @Test
+    void shouldGiveUpWhenCandidatesExceedLimit() {
+        // Given
+        index = new CoordinatesSpatialIndex(musicBandRepository, true, 1);
+        index.warmUp();
+
+        // When / Then
+        assertThat(index.findIdsInBox(null, null, null, null)).isEmpty();
+        assertThat(index.findIdsInBox(20, 20, null, null)).isPresent();
+    }
+
+    @Test
+    void shouldFindNearestBandIgnoringBandsWithoutY() {
+        // When / Then
+        assertThat(index.findNearest(19, 0).getAsLong()).isEqualTo(2L);
+        index.onBandsSaved(List.of(band(6, 16, 18, 1f)));
+        assertThat(index.findNearest(19, 0).getAsLong()).isEqualTo(6L);
+    }
+
+    @Test
+    void shouldMatchBruteForceAcrossCompactions() {
+        // Given
+        Random random = new Random(42);
+        Map<Long, float[]> expected = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            float[] point = {random.nextInt(201) - 100, random.nextInt(10) == 0 ? Float.NaN : random.nextFloat() * 200 - 100};
+            expected.put(id, point);
+            rows.add(new Object[]{id, id, (int) point[0], Float.isNaN(point[1]) ? null : point[1]});
+        }
+        when(musicBandRepository.findAllCoordinates()).thenReturn(rows);
+        index = new CoordinatesSpatialIndex(musicBandRepository, true, 10_000);
+        index.warmUp();
+
+        // When
+        for (int i = 0; i < 2500; i++) {
+            long id = random.nextInt(3500) + 1;
+            if (random.nextInt(4) == 0) {
+                index.onBandsDeleted(List.of(band(id, id, 0, 0f)));
+                expected.remove(id);
+            } else {
+                int x = random.nextInt(201) - 100;
+                float y = random.nextFloat() * 200 - 100;
+                index.onBandsSaved(List.of(band(id, id, x, y)));
+                expected.put(id, new float[]{x, y});
+            }
+        }
+
+        // Then
+        for (int i = 0; i < 50; i++) {
+            int minX = random.nextInt(201) - 100;
+            int maxX = minX + random.nextInt(60);
+            float minY = random.nextFloat() * 200 - 100;
+            float maxY = minY + random.nextFloat() * 60;
+            List<Long> bruteForce = expected.entrySet().stream()
+                    .filter(entry -> entry.getValue()[0] >= minX && entry.getValue()[0] <= maxX
+                            && entry.getValue()[1] >= minY && entry.getValue()[1] <= maxY)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertThat(index.findIdsInBox(minX, maxX, minY, maxY).orElseThrow()).containsExactlyInAnyOrderElementsOf(bruteForce);
+
+            double x = random.nextDouble() * 200 - 100;
+            double y = random.nextDouble() * 200 - 100;
+            long nearest = expected.entrySet().stream()
+                    .filter(entry -> !Float.isNaN(entry.getValue()[1]))
+                    .min(Comparator.<Map.Entry<Long, float[]>>comparingDouble(entry -> distance(entry.getValue(), x, y)).thenComparing(Map.Entry::getKey))
+                    .orElseThrow()
+                    .getKey();
+            assertThat(index.findNearest(x, y).getAsLong()).isEqualTo(nearest);
+        }
+    }
+
+    private static double distance(float[] point, double x, double y) {
+        double dx = x - (int) point[0];
+        double dy = y - point[1];
+        return dx * dx + dy * dy;
+    }
+
+    private static MusicBandDto band(long id, long coordinatesId, int x, Float y) {
+        return MusicBandDto.builder()
+                .id((int) id)
+                .coordinates(CoordinatesDto.builder().id(coordinatesId).x(x).y(y).build())
+                .build();
+    }
+
+}
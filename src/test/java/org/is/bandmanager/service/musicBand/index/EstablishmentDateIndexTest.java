@@ -0,0 +1,158 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EstablishmentDateIndexTest {
+
+    @Mock
+    private MusicBandRepository musicBandRepository;
+
+    private EstablishmentDateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(musicBandRepository.findAllEstablishmentDates()).thenReturn(List.of(
+                new Object[]{3L, new Date(300)},
+                new Object[]{1L, new Date(100)},
+                new Object[]{2L, new Date(100)},
+                new Object[]{4L, new Date(400)}));
+        index = new EstablishmentDateIndex(musicBandRepository, true);
+        index.warmUp();
+    }
+
+    @Test
+    void shouldCountAndSliceBandsStrictlyBeforeDate() {
+        // When
+        EstablishmentDateIndex.IdSlice slice = index.findIdsBefore(new Date(400), 0, 10, false);
+
+        // Then
+        assertThat(slice.total()).isEqualTo(3);
+        assertThat(slice.ids()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldSliceRequestedPageInDescendingOrder() {
+        // When
+        EstablishmentDateIndex.IdSlice slice = index.findIdsBefore(new Date(500), 1, 2, true);
+
+        // Then
+        assertThat(slice.total()).isEqualTo(4);
+        assertThat(slice.ids()).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void shouldReturnEmptySliceBeyondLastPage() {
+        // When
+        EstablishmentDateIndex.IdSlice slice = index.findIdsBefore(new Date(500), 10, 2, false);
+
+        // Then
+        assertThat(slice.total()).isEqualTo(4);
+        assertThat(slice.ids()).isEmpty();
+    }
+
+    @Test
+    void shouldNotPresizeSliceBeyondMatchingBands() {
+        // When
+        EstablishmentDateIndex.IdSlice slice = index.findIdsBefore(new Date(400), 1, Integer.MAX_VALUE, false);
+
+        // Then
+        assertThat(slice.total()).isEqualTo(3);
+        assertThat(slice.ids()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void shouldMoveUpdatedBandAndInsertCreatedBand() {
+        // When
+        index.onBandsSaved(List.of(band(4, 50), band(5, 200)));
+
+        // Then
+        assertThat(index.findIdsBefore(new Date(1000), 0, 10, false).ids()).containsExactly(4L, 1L, 2L, 5L, 3L);
+    }
+
+    @Test
+    void shouldDropDeletedBands() {
+        // When
+        index.onBandsDeleted(List.of(band(1, 100), band(3, 300)));
+
+        // Then
+        assertThat(index.findIdsBefore(new Date(1000), 0, 10, false).ids()).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void shouldRestoreOrderWhenBandMovedBack() {
+        // When
+        index.onBandsSaved(List.of(band(1, 500)));
+        index.onBandsSaved(List.of(band(1, 100)));
+
+        // Then
+        assertThat(index.findIdsBefore(new Date(1000), 0, 10, false).ids()).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void shouldKeepOrderAfterDeltaCompaction() {
+        // Given
+        List<MusicBandDto> created = IntStream.rangeClosed(5, 2004).mapToObj(id -> band(id, 1000 - id % 7)).toList();
+
+        // When
+        created.forEach(band -> index.onBandsSaved(List.of(band)));
+        index.onBandsDeleted(List.of(band(2, 100)));
+
+        // Then
+        List<Long> ids = index.findIdsBefore(new Date(995), 0, 10, false).ids();
+        assertThat(ids).containsExactly(1L, 3L, 4L, 6L, 13L, 20L, 27L, 34L, 41L, 48L);
+        assertThat(index.findIdsBefore(new Date(2000), 0, 1, false).total()).isEqualTo(2003);
+    }
+
+    @Test
+    void shouldNotRebuildWhenChecksumMatches() {
+        // Given
+        index.onBandsSaved(List.of(band(5, 50)));
+        when(musicBandRepository.findEstablishmentDateChecksum()).thenReturn(checksum(5, 15, 50, 400));
+
+        // When
+        index.reconcile();
+
+        // Then
+        verify(musicBandRepository, times(1)).findAllEstablishmentDates();
+    }
+
+    @Test
+    void shouldRebuildWhenDateChangedBehindIndex() {
+        // Given
+        when(musicBandRepository.findEstablishmentDateChecksum()).thenReturn(checksum(4, 10, 100, 900));
+
+        // When
+        index.reconcile();
+
+        // Then
+        verify(musicBandRepository, times(2)).findAllEstablishmentDates();
+    }
+
+    private static List<Object[]> checksum(long count, long idSum, long minMillis, long maxMillis) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{count, idSum, new Date(minMillis), new Date(maxMillis)});
+        return rows;
+    }
+
+    private static MusicBandDto band(int id, long millis) {
+        return MusicBandDto.builder().id(id).establishmentDate(new Date(millis)).build();
+    }
+
+}
@@ -0,0 +1,182 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.MusicBandMapper;
+import org.is.bandmanager.model.MusicBand;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MaxCoordinatesIndexTest {
+
+    @Mock
+    private MusicBandRepository musicBandRepository;
+
+    @Mock
+    private MusicBandMapper mapper;
+
+    private MaxCoordinatesIndex index;
+
+    private final MusicBand firstEntity = MusicBand.builder().id(1L).build();
+
+    private final MusicBand secondEntity = MusicBand.builder().id(2L).build();
+
+    @BeforeEach
+    void setUp() {
+        index = new MaxCoordinatesIndex(musicBandRepository, mapper, true, 2);
+        when(musicBandRepository.findTopByCoordinates(any())).thenReturn(List.of(firstEntity, secondEntity));
+        when(mapper.toDto(firstEntity)).thenReturn(band(1, 100, 50.5f));
+        when(mapper.toDto(secondEntity)).thenReturn(band(2, 100, 30.5f));
+        when(mapper.copy(any())).thenAnswer(invocation -> copy(invocation.getArgument(0)));
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromIndex() {
+        // When
+        MusicBandDto first = index.findMax().orElseThrow();
+        MusicBandDto second = index.findMax().orElseThrow();
+
+        // Then
+        assertThat(first.getId()).isEqualTo(1);
+        assertThat(second.getId()).isEqualTo(1);
+        verify(musicBandRepository, times(1)).findTopByCoordinates(any());
+    }
+
+    @Test
+    void shouldPromoteCreatedBandWithoutQuery() {
+        // Given
+        index.findMax();
+
+        // When
+        index.onBandsSaved(List.of(band(3, 200, null)));
+
+        // Then
+        assertThat(index.findMax().orElseThrow().getId()).isEqualTo(3);
+        verify(musicBandRepository, times(1)).findTopByCoordinates(any());
+    }
+
+    @Test
+    void shouldTreatNullYAsGreatestForEqualX() {
+        // Given
+        index.findMax();
+
+        // When
+        index.onBandsSaved(List.of(band(3, 100, null)));
+
+        // Then
+        assertThat(index.findMax().orElseThrow().getId()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldFallBackToNextKnownBandWhenMaxDeleted() {
+        // Given
+        index.findMax();
+
+        // When
+        index.onBandsDeleted(List.of(band(1, 100, 50.5f)));
+
+        // Then
+        assertThat(index.findMax().orElseThrow().getId()).isEqualTo(2);
+        verify(musicBandRepository, times(1)).findTopByCoordinates(any());
+    }
+
+    @Test
+    void shouldRebuildWhenAllKnownBandsDeleted() {
+        // Given
+        index.findMax();
+
+        // When
+        index.onBandsDeleted(List.of(band(1, 100, 50.5f), band(2, 100, 30.5f)));
+        index.findMax();
+
+        // Then
+        verify(musicBandRepository, times(2)).findTopByCoordinates(any());
+    }
+
+    @Test
+    void shouldNotKeepDemotedBandBelowKnownPrefix() {
+        // Given
+        index.findMax();
+
+        // When
+        index.onBandsSaved(List.of(band(1, -100, 0f)));
+
+        // Then
+        assertThat(index.findMax().orElseThrow().getId()).isEqualTo(2);
+        index.onBandsDeleted(List.of(band(2, 100, 30.5f)));
+        index.findMax();
+        verify(musicBandRepository, times(2)).findTopByCoordinates(any());
+    }
+
+    @Test
+    void shouldRebuildAfterCoordinatesUpdate() {
+        // Given
+        index.findMax();
+
+        // When
+        index.onDependenciesUpdated(List.of(CoordinatesDto.builder().id(42L).x(500).build()));
+        index.findMax();
+
+        // Then
+        verify(musicBandRepository, times(2)).findTopByCoordinates(any());
+    }
+
+    @Test
+    void shouldNotExposeIndexedBandToCaller() {
+        // Given
+        MusicBandDto max = index.findMax().orElseThrow();
+
+        // When
+        max.getCoordinates().setX(-1000);
+
+        // Then
+        assertThat(index.findMax().orElseThrow().getCoordinates().getX()).isEqualTo(100);
+        verify(musicBandRepository, times(1)).findTopByCoordinates(any());
+    }
+
+    @Test
+    void shouldNotCachePrefixLoadedDuringConcurrentSave() {
+        // Given
+        when(musicBandRepository.findTopByCoordinates(any()))
+                .thenAnswer(invocation -> {
+                    index.onBandsSaved(List.of(band(3, 200, null)));
+                    return List.of(firstEntity, secondEntity);
+                })
+                .thenReturn(List.of(firstEntity, secondEntity));
+
+        // When
+        index.findMax();
+        index.findMax();
+        index.findMax();
+
+        // Then
+        verify(musicBandRepository, times(2)).findTopByCoordinates(any());
+    }
+
+    private static MusicBandDto copy(MusicBandDto band) {
+        CoordinatesDto coordinates = band.getCoordinates();
+        return band(band.getId(), coordinates.getX(), coordinates.getY());
+    }
+
+    private static MusicBandDto band(int id, int x, Float y) {
+        return MusicBandDto.builder()
+                .id(id)
+                .name("Band " + id)
+                .coordinates(CoordinatesDto.builder().id((long) id).x(x).y(y).build())
+                .build();
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.is.bandmanager.service.musicBand.index;
+
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MusicBandVersionIndexTest {
+
+    @Mock
+    private MusicBandRepository musicBandRepository;
+
+    private MusicBandVersionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(musicBandRepository.findAllVersions()).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 0L, 10L, 0L, 20L, 0L, 30L, 0L, 40L, 0L}));
+        index = new MusicBandVersionIndex(musicBandRepository, true);
+        index.warmUp();
+    }
+
+    @Test
+    void shouldMatchTagComputedFromLoadedBand() {
+        // When / Then
+        assertThat(index.findTag(1L)).contains(MusicBandVersionIndex.tagOf(band(1, 0, 0, 0)));
+        assertThat(index.findTag(2L)).isEmpty();
+    }
+
+    @Test
+    void shouldChangeTagWhenBandIsSavedAndDropItWhenDeleted() {
+        // Given
+        String before = index.findTag(1L).orElseThrow();
+
+        // When
+        index.onBandsSaved(List.of(band(1, 1, 0, 0)));
+
+        // Then
+        assertThat(index.findTag(1L)).isPresent().get().isNotEqualTo(before);
+        index.onBandsDeleted(List.of(band(1, 1, 0, 0)));
+        assertThat(index.findTag(1L)).isEmpty();
+    }
+
+    @Test
+    void shouldChangeTagWhenNestedEntityIsUpdated() {
+        // Given
+        String before = index.findTag(1L).orElseThrow();
+
+        // When
+        index.onDependenciesUpdated(List.of(LocationDto.builder().id(40L).version(1L).build()));
+        index.onDependenciesUpdated(List.of(AlbumDto.builder().id(99L).version(5L).build()));
+
+        // Then
+        assertThat(index.findTag(1L)).contains(MusicBandVersionIndex.tagOf(band(1, 0, 0, 1)));
+        assertThat(index.findTag(1L)).isPresent().get().isNotEqualTo(before);
+    }
+
+    @Test
+    void shouldFollowFrontManToNewLocation() {
+        // Given
+        index.onDependenciesUpdated(List.of(PersonDto.builder().id(30L).version(1L)
+                .location(LocationDto.builder().id(41L).version(0L).build())
+                .build()));
+
+        // When
+        index.onDependenciesUpdated(List.of(LocationDto.builder().id(40L).version(5L).build()));
+        index.onDependenciesUpdated(List.of(LocationDto.builder().id(41L).version(2L).build()));
+
+        // Then
+        assertThat(index.findTag(1L)).contains("\"1-0-0-0-1-2\"");
+    }
+
+    @Test
+    void shouldIgnoreDependencyOfDeletedBand() {
+        // Given
+        index.onBandsDeleted(List.of(band(1, 0, 0, 0)));
+
+        // When
+        index.onDependenciesUpdated(List.of(AlbumDto.builder().id(20L).version(3L).build()));
+
+        // Then
+        assertThat(index.findTag(1L)).isEmpty();
+    }
+
+    private static MusicBandDto band(int id, long version, long albumVersion, long locationVersion) {
+        return MusicBandDto.builder()
+                .id(id)
+                .version(version)
+                .coordinates(CoordinatesDto.builder().id(10L).version(0L).build())
+                .bestAlbum(AlbumDto.builder().id(20L).version(albumVersion).build())
+                .frontMan(PersonDto.builder().id(30L).version(0L)
+                        .location(LocationDto.builder().id(40L).version(0L).build())
+                        .build())
+                .build();
+    }
+
+}
@@ -0,0 +1,184 @@
+package org.is.bandmanager.service.musicBand.write;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.controller.AbstractIntegrationTest;
+import org.is.bandmanager.dto.request.MusicBandCreateRequest;
+import org.is.bandmanager.dto.request.MusicBandUpdateRequest;
+import org.is.bandmanager.model.Album;
+import org.is.bandmanager.model.Coordinates;
+import org.is.bandmanager.model.Location;
+import org.is.bandmanager.model.MusicBand;
+import org.is.bandmanager.model.Person;
+import org.is.bandmanager.repository.AlbumRepository;
+import org.is.bandmanager.repository.CoordinatesRepository;
+import org.is.bandmanager.repository.LocationRepository;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.is.bandmanager.repository.PersonRepository;
+import org.is.bandmanager.service.musicBand.MusicBandService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.is.bandmanager.model.Color.BLACK;
+import static org.is.bandmanager.model.Color.BLUE;
+import static org.is.bandmanager.model.Country.USA;
+import static org.is.bandmanager.model.MusicGenre.ROCK;
+
+// Нагрузочное сравнение режимов band-manager.write.concurrency-mode. Запуск: -Dband-manager.benchmark=true
+@Slf4j
+@EnabledIfSystemProperty(named = "band-manager.benchmark", matches = "true")
+abstract class AbstractWriteContentionBenchmark extends AbstractIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    private static final int OPERATIONS_PER_THREAD = 40;
+
+    @Autowired
+    private MusicBandService musicBandService;
+
+    @Autowired
+    private MusicBandRepository musicBandRepository;
+
+    @Autowired
+    private CoordinatesRepository coordinatesRepository;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    private Coordinates coordinates;
+    private Album album;
+    private Person person;
+    private List<MusicBand> bands;
+
+    protected abstract String mode();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        coordinates = coordinatesRepository.save(Coordinates.builder().x(1).y(1f).build());
+        album = albumRepository.save(Album.builder().name("Bench Album").tracks(8L).sales(100).build());
+        Location location = locationRepository.save(Location.builder().x(1).y(1L).z(1L).build());
+        person = personRepository.save(Person.builder().name("Bench Person").eyeColor(BLUE).hairColor(BLACK).location(location).weight(70f).nationality(USA).build());
+        bands = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bands.add(musicBandRepository.save(MusicBand.builder().name("Seed " + i).coordinates(coordinates).genre(ROCK).numberOfParticipants(4L).singlesCount(2L).description("seed").bestAlbum(album).albumsCount(1L).establishmentDate(new Date()).frontMan(person).build()));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        musicBandRepository.deleteAll();
+        coordinatesRepository.deleteAll();
+        albumRepository.deleteAll();
+        personRepository.deleteAll();
+        locationRepository.deleteAll();
+    }
+
+    @Test
+    void disjointRows() throws Exception {
+        // Каждый поток создаёт свои группы и правит свою строку: настоящих конфликтов нет
+        Result result = run(thread -> new Operation(thread, bands.get(thread).getId()));
+
+        assertThat(result.unexpected()).isZero();
+        assertThat(musicBandRepository.count()).isEqualTo(THREADS + result.created());
+    }
+
+    @Test
+    void hotRow() throws Exception {
+        // Все потоки правят одну строку: конфликты неизбежны, сравниваются хвосты задержек и доля отказов
+        Result result = run(thread -> new Operation(thread, bands.get(0).getId()));
+
+        assertThat(result.unexpected()).isZero();
+        assertThat(musicBandRepository.count()).isEqualTo(THREADS + result.created());
+    }
+
+    private Result run(IntFunction<Operation> operations) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            Operation operation = operations.apply(thread);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    long began = System.nanoTime();
+                    try {
+                        if (i % 2 == 0) {
+                            musicBandService.create(createRequest(mode() + "-" + operation.thread() + "-" + i));
+                            created.incrementAndGet();
+                        } else {
+                            musicBandService.update(operation.bandId(), updateRequest(mode() + "-upd-" + operation.thread() + "-" + i));
+                        }
+                    } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                        conflicts.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        log.warn("Unexpected benchmark failure", e);
+                        unexpected.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - began);
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+
+        List<Long> sorted = latencies.stream().sorted().toList();
+        log.info("Write contention mode={} threads={} ops={} throughput={}/s p50={}ms p99={}ms max={}ms conflicts={} unexpected={}",
+                mode(), THREADS, sorted.size(), Math.round(sorted.size() / (elapsed / 1e9)),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0),
+                conflicts.get(), unexpected.get());
+        return new Result(created.get(), unexpected.get());
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000;
+    }
+
+    private MusicBandCreateRequest createRequest(String name) {
+        return MusicBandCreateRequest.builder().name(name).coordinatesId(coordinates.getId()).genre(ROCK).numberOfParticipants(4L).singlesCount(2L).description("bench").bestAlbumId(album.getId()).albumsCount(1L).establishmentDate(new Date()).frontManId(person.getId()).build();
+    }
+
+    private MusicBandUpdateRequest updateRequest(String name) {
+        return MusicBandUpdateRequest.builder().name(name).coordinatesId(coordinates.getId()).genre(ROCK).numberOfParticipants(5L).singlesCount(3L).description("bench").bestAlbumId(album.getId()).albumsCount(2L).establishmentDate(new Date()).frontManId(person.getId()).build();
+    }
+
+    private record Operation(int thread, Long bandId) {
+    }
+
+    private record Result(int created, int unexpected) {
+    }
+
+}
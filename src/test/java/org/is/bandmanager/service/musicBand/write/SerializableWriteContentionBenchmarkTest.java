@@ -0,0 +1,15 @@
+package org.is.bandmanager.service.musicBand.write;
+
+import org.is.bandmanager.config.IntegrationTest;
+import org.springframework.test.context.TestPropertySource;
+
+@IntegrationTest
+@TestPropertySource(properties = "band-manager.write.concurrency-mode=serializable")
+class SerializableWriteContentionBenchmarkTest extends AbstractWriteContentionBenchmark {
+
+    @Override
+    protected String mode() {
+        return "serializable";
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.is.bandmanager.service.subscription;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.config.BandManagerAsyncConfig;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.is.bandmanager.service.bestBandAward.BestBandAwardService;
+import org.is.bandmanager.service.musicBand.MusicBandService;
+import org.is.bandmanager.service.subscription.delta.SubscriptionMessageFactory;
+import org.is.bandmanager.service.subscription.limiter.SubscriptionQueryLimiter;
+import org.is.bandmanager.service.subscription.matcher.SubscriptionChangeDetector;
+import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessage;
+import org.is.bandmanager.service.subscription.model.request.SubscriptionRequest;
+import org.is.bandmanager.service.subscription.notifier.SubscriptionNotifier;
+import org.is.bandmanager.service.subscription.storage.InMemorySubscriptionStorage;
+import org.is.event.EntityEvent;
+import org.is.util.pageable.PageableRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.is.event.EventType.UPDATED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Задержка рассылки одного события 10k подписчикам (1000 групп, запрос к БД имитируется паузой)
+// на пуле потоков и на виртуальных потоках. Запуск: -Dband-manager.benchmark=true, виртуальные потоки — на Java 21+
+@Slf4j
+@EnabledIfSystemProperty(named = "band-manager.benchmark", matches = "true")
+class SubscriptionFanOutBenchmarkTest {
+
+    private static final int SUBSCRIBERS = 10_000;
+
+    private static final int GROUPS = 1_000;
+
+    private static final int MAX_CONCURRENT_QUERIES = 10;
+
+    private static final long QUERY_MILLIS = 5;
+
+    private static final int WARM_UP_ROUNDS = 2;
+
+    private static final int ROUNDS = 5;
+
+    @Test
+    void platformThreads() throws Exception {
+        run("platform", executor(false));
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        assumeThat(Runtime.version().feature()).isGreaterThanOrEqualTo(21);
+        run("virtual", executor(true));
+    }
+
+    private void run(String mode, TaskExecutor executor) throws Exception {
+        // Given
+        AtomicReference<MusicBandDto> band = new AtomicReference<>(MusicBandDto.builder().id(1).name("band").version(0L).build());
+        MusicBandService musicBandService = mock(MusicBandService.class);
+        when(musicBandService.getAll(any(MusicBandFilter.class), any(PageableRequest.class))).thenAnswer(invocation -> {
+            Thread.sleep(QUERY_MILLIS);
+            return new PageImpl<>(List.of(band.get()));
+        });
+        RecordingNotifier notifier = new RecordingNotifier();
+        InMemorySubscriptionStorage storage = new InMemorySubscriptionStorage(Duration.ofMinutes(2));
+        SubscriptionServiceImpl service = new SubscriptionServiceImpl(storage, notifier, musicBandService,
+                mock(BestBandAwardService.class), new SubscriptionChangeDetector(), new SubscriptionMessageFactory(50),
+                new SubscriptionQueryLimiter(new SimpleMeterRegistry(), MAX_CONCURRENT_QUERIES), executor);
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            storage.createSubscription("principal-" + i, "session-" + i, SubscriptionRequest.<MusicBandFilter>builder()
+                    .filter(MusicBandFilter.builder().name("band-" + i % GROUPS).build())
+                    .pageableRequest(new PageableRequest())
+                    .deltaUpdates(i % 2 == 0)
+                    .build());
+        }
+
+        // When
+        List<Long> latencies = new ArrayList<>();
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            MusicBandDto changed = MusicBandDto.builder().id(1).name("band").version((long) round + 1).build();
+            band.set(changed);
+            List<Long> roundLatencies = notifier.expect(SUBSCRIBERS);
+            executor.execute(() -> service.handleEntityEventsInternal(List.of(new EntityEvent<>(UPDATED, changed))));
+            assertThat(notifier.await(Duration.ofMinutes(1))).isTrue();
+            if (round >= WARM_UP_ROUNDS) {
+                latencies.addAll(roundLatencies);
+            }
+        }
+
+        // Then
+        assertThat(latencies).hasSize(SUBSCRIBERS * ROUNDS);
+        List<Long> sorted = latencies.stream().sorted().toList();
+        log.info("Subscription fan-out mode={} subscribers={} groups={} queryMs={} maxQueries={} p50={}ms p99={}ms max={}ms",
+                mode, SUBSCRIBERS, GROUPS, QUERY_MILLIS, MAX_CONCURRENT_QUERIES,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static TaskExecutor executor(boolean virtualThreads) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+        return new BandManagerAsyncConfig(environment).subscriptionTaskExecutor();
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000;
+    }
+
+    // Задержка считается от публикации события до передачи сообщения подписчика в рассылку
+    private static final class RecordingNotifier implements SubscriptionNotifier {
+
+        private volatile long began;
+
+        private volatile List<Long> latencies;
+
+        private volatile CountDownLatch remaining;
+
+        private List<Long> expect(int subscribers) {
+            latencies = Collections.synchronizedList(new ArrayList<>(subscribers));
+            remaining = new CountDownLatch(subscribers);
+            began = System.nanoTime();
+            return latencies;
+        }
+
+        private boolean await(Duration timeout) throws InterruptedException {
+            return remaining.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void notifySubscriptionMeta(Subscription<?> subscription) {
+        }
+
+        @Override
+        public void releaseSubscriptions(List<UUID> subscriptionIds) {
+        }
+
+        @Override
+        public void notifySubscriptions(List<? extends Subscription<?>> subscriptions, Page<?> data) {
+            record(subscriptions.size());
+        }
+
+        @Override
+        public void notifySubscriptions(List<? extends Subscription<?>> subscriptions, SubscriptionMessage message) {
+            record(subscriptions.size());
+        }
+
+        private void record(int subscribers) {
+            long latency = System.nanoTime() - began;
+            for (int i = 0; i < subscribers; i++) {
+                latencies.add(latency);
+                remaining.countDown();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,240 @@
+package org.is.bandmanager.service.subscription.bus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.is.bandmanager.config.IntegrationTest;
+import org.is.bandmanager.controller.AbstractIntegrationTest;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.model.Album;
+import org.is.bandmanager.model.Coordinates;
+import org.is.bandmanager.model.Location;
+import org.is.bandmanager.model.MusicBand;
+import org.is.bandmanager.model.MusicGenre;
+import org.is.bandmanager.model.Person;
+import org.is.bandmanager.repository.AlbumRepository;
+import org.is.bandmanager.repository.CoordinatesRepository;
+import org.is.bandmanager.repository.LocationRepository;
+import org.is.bandmanager.repository.MusicBandRepository;
+import org.is.bandmanager.repository.PersonRepository;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.is.bandmanager.service.musicBand.MusicBandService;
+import org.is.bandmanager.service.musicBand.cache.MusicBandQueryCache;
+import org.is.bandmanager.service.subscription.dispatcher.SubscriptionEventDispatcher;
+import org.is.event.EntityChangeCounter;
+import org.is.event.EntityEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.is.bandmanager.model.Color.BLACK;
+import static org.is.bandmanager.model.Color.BLUE;
+import static org.is.bandmanager.model.Country.USA;
+import static org.is.event.EventType.UPDATED;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@IntegrationTest
+@TestPropertySource(properties = {
+        "band-manager.cache.filter-results.enabled=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=org.hibernate.cache.jcache.JCacheRegionFactory",
+        "spring.jpa.properties.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=classpath:ehcache.xml"
+})
+class JdbcEntityEventBusTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MusicBandQueryCache queryCache;
+
+    @Autowired
+    private EntityChangeCounter changeCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MusicBandService musicBandService;
+
+    @Autowired
+    private MusicBandRepository musicBandRepository;
+
+    @Autowired
+    private CoordinatesRepository coordinatesRepository;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    private SubscriptionEventDispatcher firstDispatcher;
+
+    private SubscriptionEventDispatcher secondDispatcher;
+
+    private JdbcEntityEventBus firstNode;
+
+    private JdbcEntityEventBus secondNode;
+
+    @BeforeEach
+    void setUp() {
+        // Тестовая схема создаётся Hibernate, таблицы журнала в ней нет
+        new ResourceDatabasePopulator(
+                new ClassPathResource("migration/V8__add_entity_event_outbox.sql"),
+                new ClassPathResource("migration/V9__add_previous_payload_to_entity_event_outbox.sql")).execute(dataSource);
+        queryCache.clear();
+        firstDispatcher = mock(SubscriptionEventDispatcher.class);
+        secondDispatcher = mock(SubscriptionEventDispatcher.class);
+        // Второй узел применяет принятые события к кэшам и счётчикам этого контекста
+        firstNode = new JdbcEntityEventBus(firstDispatcher, jdbcTemplate, objectMapper, mock(ApplicationEventPublisher.class),
+                mock(EntityManagerFactory.class), Duration.ofMinutes(1));
+        secondNode = new JdbcEntityEventBus(secondDispatcher, jdbcTemplate, objectMapper, eventPublisher,
+                entityManagerFactory, Duration.ofMinutes(1));
+        firstNode.poll();
+        secondNode.poll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS entity_event_outbox");
+        queryCache.clear();
+        musicBandRepository.deleteAll();
+        coordinatesRepository.deleteAll();
+        albumRepository.deleteAll();
+        personRepository.deleteAll();
+        locationRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void shouldDeliverEventLocallyAndOnceToOtherNode() {
+        // Given
+        MusicBandDto band = MusicBandDto.builder().id(1).name("Remote Band").genre(MusicGenre.ROCK).version(3L).build();
+        EntityEvent<MusicBandDto> event = new EntityEvent<>(UPDATED, band);
+
+        // When
+        firstNode.publish(event);
+        firstNode.poll();
+        secondNode.poll();
+        secondNode.poll();
+
+        // Then
+        verify(firstDispatcher).dispatch(event);
+        verifyNoMoreInteractions(firstDispatcher);
+        ArgumentCaptor<EntityEvent<?>> captor = ArgumentCaptor.forClass(EntityEvent.class);
+        verify(secondDispatcher).dispatch(captor.capture());
+        verifyNoMoreInteractions(secondDispatcher);
+        assertThat(captor.getValue().getEventType()).isEqualTo(UPDATED);
+        assertThat(captor.getValue().getEntityType()).isEqualTo(MusicBandDto.class);
+        List<Object> entities = List.copyOf(captor.getValue().getEntities());
+        assertThat(entities).containsExactly(band);
+    }
+
+    @Test
+    void shouldInvalidateCachedPageOnOtherNode() {
+        // Given
+        MusicBandFilter rockFilter = MusicBandFilter.builder().genre(MusicGenre.ROCK).build();
+        Pageable pageable = PageRequest.of(1, 1);
+        MusicBandDto before = MusicBandDto.builder().id(1).name("Moving Band").genre(MusicGenre.ROCK).version(1L).build();
+        MusicBandDto after = MusicBandDto.builder().id(1).name("Moving Band").genre(MusicGenre.POST_ROCK).version(2L).build();
+        MusicBandDto staying = MusicBandDto.builder().id(2).name("Staying Band").genre(MusicGenre.ROCK).version(1L).build();
+        AtomicInteger loads = new AtomicInteger();
+        queryCache.get(rockFilter, pageable, () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(staying), pageable, 2);
+        });
+        long changesBefore = changeCounter.getChangeCount(List.of(MusicBandDto.class));
+
+        // When
+        firstNode.publish(new EntityEvent<>(UPDATED, after, before));
+        secondNode.poll();
+        Page<MusicBandDto> result = queryCache.get(rockFilter, pageable, () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(), pageable, 1);
+        });
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(changeCounter.getChangeCount(List.of(MusicBandDto.class))).isEqualTo(changesBefore + 1);
+        ArgumentCaptor<EntityEvent<?>> captor = ArgumentCaptor.forClass(EntityEvent.class);
+        verify(secondDispatcher).dispatch(captor.capture());
+        List<Object> previousEntities = List.copyOf(captor.getValue().getPreviousEntities());
+        assertThat(previousEntities).containsExactly(before);
+    }
+
+    @Test
+    void shouldServeBandUpdatedOnOtherNodeById() {
+        // Given
+        Long id = saveBand("Cached Band").getId();
+        MusicBandDto cached = musicBandService.get(id);
+        assertThat(entityManagerFactory.getCache().contains(MusicBand.class, id)).isTrue();
+        // Первый узел меняет строку в обход L2-кэша второго
+        jdbcTemplate.update("UPDATE music_band SET name = ?, version = version + 1 WHERE id = ?", "Renamed Band", id);
+        MusicBandDto renamed = MusicBandDto.builder().id(cached.getId()).name("Renamed Band").genre(cached.getGenre()).version(cached.getVersion() + 1).build();
+
+        // When
+        firstNode.publish(new EntityEvent<>(UPDATED, renamed, cached));
+        secondNode.poll();
+        MusicBandDto result = musicBandService.get(id);
+
+        // Then
+        assertThat(result.getName()).isEqualTo("Renamed Band");
+        assertThat(result.getVersion()).isEqualTo(cached.getVersion() + 1);
+    }
+
+    @Test
+    void shouldNotWriteEventsSubscriptionsIgnore() {
+        // Given
+        EntityEvent<String> event = new EntityEvent<>(UPDATED, "not a subscription entity");
+
+        // When
+        firstNode.publish(event);
+
+        // Then
+        verify(firstDispatcher).dispatch(event);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM entity_event_outbox", Long.class)).isZero();
+    }
+
+    private MusicBand saveBand(String name) {
+        Coordinates coordinates = coordinatesRepository.save(Coordinates.builder().x(1).y(1.5f).build());
+        Album album = albumRepository.save(Album.builder().name("Album").tracks(10L).sales(100).build());
+        Location location = locationRepository.save(Location.builder().x(1).y(1L).z(2L).build());
+        Person person = personRepository.save(Person.builder().name("Person").eyeColor(BLUE).hairColor(BLACK).location(location).weight(70f).nationality(USA).build());
+        return musicBandRepository.save(MusicBand.builder().name(name).coordinates(coordinates).genre(MusicGenre.ROCK).numberOfParticipants(4L).singlesCount(3L).description("Description").bestAlbum(album).albumsCount(2L).establishmentDate(new Date()).frontMan(person).build());
+    }
+
+}
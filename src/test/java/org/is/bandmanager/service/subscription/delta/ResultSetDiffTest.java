@@ -0,0 +1,116 @@
+package org.is.bandmanager.service.subscription.delta;
+
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.service.subscription.model.ResultSnapshot;
+import org.is.bandmanager.service.subscription.model.message.DeltaOperation;
+import org.is.bandmanager.service.subscription.model.message.DeltaOperationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultSetDiffTest {
+
+    @Test
+    void shouldReturnNoOperationsForUnchangedPage() {
+        // Given
+        List<MusicBandDto> rows = List.of(band(1, 0), band(2, 0), band(3, 0));
+
+        // When
+        List<DeltaOperation> operations = ResultSetDiff.diff(snapshot(rows), rows);
+
+        // Then
+        assertThat(operations).isEmpty();
+    }
+
+    @Test
+    void shouldDescribeInsertRemoveMoveAndUpdate() {
+        // Given
+        List<MusicBandDto> previous = List.of(band(1, 0), band(2, 0), band(3, 0), band(4, 0));
+        List<MusicBandDto> current = List.of(band(3, 0), band(5, 0), band(1, 1), band(4, 0));
+
+        // When
+        List<DeltaOperation> operations = ResultSetDiff.diff(snapshot(previous), current);
+
+        // Then
+        assertThat(operations).extracting(DeltaOperation::op).containsExactly(
+                DeltaOperationType.REMOVE, DeltaOperationType.MOVE, DeltaOperationType.INSERT, DeltaOperationType.UPDATE);
+        assertThat(apply(ids(previous), operations)).isEqualTo(ids(current));
+    }
+
+    @Test
+    void shouldUpdateRowWhenNestedEntityVersionChanges() {
+        // Given
+        MusicBandDto before = band(1, 0);
+        MusicBandDto after = band(1, 0);
+        after.getFrontMan().setVersion(7L);
+
+        // When
+        List<DeltaOperation> operations = ResultSetDiff.diff(snapshot(List.of(before)), List.of(after));
+
+        // Then
+        assertThat(operations).containsExactly(DeltaOperation.update(1L, after));
+    }
+
+    @Test
+    void shouldRebuildNewPageFromPreviousForRandomChanges() {
+        // Given
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            List<Long> pool = new ArrayList<>();
+            for (long id = 1; id <= 30; id++) pool.add(id);
+            Collections.shuffle(pool, random);
+            List<MusicBandDto> previous = pool.subList(0, random.nextInt(11)).stream().map(id -> band(id, 0)).toList();
+            Collections.shuffle(pool, random);
+            List<MusicBandDto> current = pool.subList(0, random.nextInt(11)).stream().map(id -> band(id, random.nextInt(2))).toList();
+
+            // When
+            List<DeltaOperation> operations = ResultSetDiff.diff(snapshot(previous), current);
+
+            // Then
+            assertThat(apply(ids(previous), operations)).isEqualTo(ids(current));
+        }
+    }
+
+    // Клиентская сторона протокола: применение операций к id строк предыдущего сообщения
+    private static List<Long> apply(List<Long> ids, List<DeltaOperation> operations) {
+        List<Long> result = new ArrayList<>(ids);
+        for (DeltaOperation operation : operations) {
+            switch (operation.op()) {
+                case REMOVE -> result.remove(operation.id());
+                case INSERT -> result.add(operation.index(), operation.id());
+                case MOVE -> {
+                    assertThat(result.get(operation.from())).isEqualTo(operation.id());
+                    result.remove((int) operation.from());
+                    result.add(operation.index(), operation.id());
+                }
+                case UPDATE -> assertThat(result).contains(operation.id());
+            }
+        }
+        return result;
+    }
+
+    private static ResultSnapshot snapshot(List<MusicBandDto> rows) {
+        return ResultSnapshot.of(new PageImpl<>(rows));
+    }
+
+    private static List<Long> ids(List<MusicBandDto> rows) {
+        return rows.stream().map(band -> band.getId().longValue()).toList();
+    }
+
+    private static MusicBandDto band(long id, long version) {
+        MusicBandDto band = MusicBandDto.builder()
+                .id((int) id)
+                .frontMan(PersonDto.builder().id(100 + id).version(0L).build())
+                .build();
+        band.setVersion(version);
+        return band;
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.is.bandmanager.service.subscription.dispatcher;
+
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.service.subscription.SubscriptionService;
+import org.is.event.EntityEvent;
+import org.is.event.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionEventDispatcherTest {
+
+    @Mock
+    private SubscriptionService subscriptionService;
+
+    @Mock
+    private TaskScheduler scheduler;
+
+    private SubscriptionEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new SubscriptionEventDispatcher(subscriptionService, Runnable::run, scheduler, Duration.ofMillis(100));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldMergeBurstIntoOneBatchPerEntityAndEventType() {
+        // Given
+        dispatcher.dispatch(new EntityEvent<>(EventType.UPDATED, band(1, 0)));
+        dispatcher.dispatch(new EntityEvent<>(EventType.UPDATED, List.of(band(2, 0), band(1, 1))));
+        dispatcher.dispatch(new EntityEvent<>(EventType.DELETED, band(3, 0)));
+        dispatcher.dispatch(new EntityEvent<>(EventType.UPDATED, PersonDto.builder().id(10L).build()));
+
+        // When
+        dispatcher.flush();
+
+        // Then
+        verify(scheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+        ArgumentCaptor<List<EntityEvent<?>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(subscriptionService, times(1)).handleEntityEventsInternal(captor.capture());
+        List<EntityEvent<?>> events = captor.getValue();
+        assertThat(events).hasSize(3);
+        assertThat(events.get(0).getEventType()).isEqualTo(EventType.UPDATED);
+        assertThat(events.get(0).getEntities()).extracting(band -> ((MusicBandDto) band).getVersion()).containsExactly(1L, 0L);
+        assertThat(events.get(1).getEventType()).isEqualTo(EventType.DELETED);
+        assertThat(events.get(2).getEntityType()).isEqualTo(PersonDto.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepEarliestPreviousStateWithinWindow() {
+        // Given
+        dispatcher.dispatch(new EntityEvent<>(EventType.UPDATED, band(1, 1), band(1, 0)));
+        dispatcher.dispatch(new EntityEvent<>(EventType.UPDATED, band(1, 2), band(1, 1)));
+
+        // When
+        dispatcher.flush();
+
+        // Then
+        ArgumentCaptor<List<EntityEvent<?>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(subscriptionService).handleEntityEventsInternal(captor.capture());
+        EntityEvent<?> event = captor.getValue().get(0);
+        assertThat(event.getEntities()).extracting(band -> ((MusicBandDto) band).getVersion()).containsExactly(2L);
+        assertThat(event.getPreviousEntities()).extracting(band -> ((MusicBandDto) band).getVersion()).containsExactly(0L);
+    }
+
+    @Test
+    void shouldScheduleNextWindowOnlyAfterFlush() {
+        // Given
+        dispatcher.dispatch(new EntityEvent<>(EventType.CREATED, band(1, 0)));
+        dispatcher.flush();
+
+        // When
+        dispatcher.flush();
+        dispatcher.dispatch(new EntityEvent<>(EventType.CREATED, band(2, 0)));
+
+        // Then
+        verify(scheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+        verify(subscriptionService, times(1)).handleEntityEventsInternal(any());
+    }
+
+    @Test
+    void shouldDispatchImmediatelyWithoutWindow() {
+        // Given
+        dispatcher = new SubscriptionEventDispatcher(subscriptionService, Runnable::run, scheduler, Duration.ZERO);
+        EntityEvent<MusicBandDto> event = new EntityEvent<>(EventType.CREATED, band(1, 0));
+
+        // When
+        dispatcher.dispatch(event);
+        dispatcher.dispatch(new EntityEvent<>(EventType.CREATED, List.of()));
+
+        // Then
+        verify(subscriptionService).handleEntityEventsInternal(List.of(event));
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    void shouldIgnoreEmptyEvents() {
+        // When
+        dispatcher.dispatch(new EntityEvent<>(EventType.BULK_DELETED, List.of()));
+        dispatcher.flush();
+
+        // Then
+        verify(subscriptionService, never()).handleEntityEventsInternal(any());
+        verifyNoInteractions(scheduler);
+    }
+
+    private static MusicBandDto band(int id, long version) {
+        MusicBandDto band = MusicBandDto.builder().id(id).build();
+        band.setVersion(version);
+        return band;
+    }
+
+}
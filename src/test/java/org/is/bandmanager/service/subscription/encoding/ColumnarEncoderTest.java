@@ -0,0 +1,78 @@
+package org.is.bandmanager.service.subscription.encoding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.is.bandmanager.dto.LocationDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.model.MusicGenre;
+import org.is.bandmanager.service.subscription.model.message.DeltaOperation;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessage;
+import org.is.bandmanager.service.subscription.model.message.SubscriptionMessageType;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarEncoderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void shouldEncodePageAsColumnsAndRows() {
+        // Given
+        PageImpl<MusicBandDto> page = new PageImpl<>(List.of(band(1, "First"), band(2, "Second")), PageRequest.of(0, 10), 12);
+
+        // When
+        JsonNode encoded = ColumnarEncoder.encode(mapper, page);
+
+        // Then
+        List<String> columns = mapper.convertValue(encoded.get("columns"), mapper.getTypeFactory().constructCollectionType(List.class, String.class));
+        assertThat(columns).contains("id", "name", "genre", "frontMan.name", "frontMan.location.x");
+        assertThat(encoded.get("totalElements").asLong()).isEqualTo(12);
+        assertThat(encoded.get("rows")).hasSize(2);
+        JsonNode second = encoded.get("rows").get(1);
+        assertThat(second).hasSize(columns.size());
+        assertThat(second.get(columns.indexOf("name")).asText()).isEqualTo("Second");
+        assertThat(second.get(columns.indexOf("frontMan.location.x")).asLong()).isEqualTo(20);
+        assertThat(encoded.has("content")).isFalse();
+    }
+
+    @Test
+    void shouldReplaceDeltaRowsWithValues() {
+        // Given
+        SubscriptionMessage message = SubscriptionMessage.builder()
+                .type(SubscriptionMessageType.DELTA)
+                .sequence(3)
+                .operations(List.of(DeltaOperation.remove(5L), DeltaOperation.update(1L, band(1, "Renamed"))))
+                .build();
+
+        // When
+        JsonNode encoded = ColumnarEncoder.encode(mapper, message);
+
+        // Then
+        List<String> columns = mapper.convertValue(encoded.get("columns"), mapper.getTypeFactory().constructCollectionType(List.class, String.class));
+        JsonNode operations = encoded.get("operations");
+        assertThat(encoded.get("type").asText()).isEqualTo("DELTA");
+        assertThat(operations.get(0).has("values")).isFalse();
+        assertThat(operations.get(1).has("row")).isFalse();
+        assertThat(operations.get(1).get("values").get(columns.indexOf("name")).asText()).isEqualTo("Renamed");
+    }
+
+    private static MusicBandDto band(int id, String name) {
+        return MusicBandDto.builder()
+                .id(id)
+                .name(name)
+                .genre(MusicGenre.ROCK)
+                .frontMan(PersonDto.builder()
+                        .id(100L + id)
+                        .name("Front " + id)
+                        .location(LocationDto.builder().id(200L + id).x(10 * id).build())
+                        .build())
+                .build();
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.is.bandmanager.service.subscription.matcher;
+
+import org.is.bandmanager.dto.AlbumDto;
+import org.is.bandmanager.dto.BestBandAwardDto;
+import org.is.bandmanager.dto.CoordinatesDto;
+import org.is.bandmanager.dto.MusicBandDto;
+import org.is.bandmanager.dto.PersonDto;
+import org.is.bandmanager.model.MusicGenre;
+import org.is.bandmanager.repository.filter.BestBandAwardFilter;
+import org.is.bandmanager.repository.filter.EntityFilter;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.is.bandmanager.service.subscription.model.ResultSnapshot;
+import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.event.EntityEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.is.bandmanager.model.MusicGenre.POST_ROCK;
+import static org.is.bandmanager.model.MusicGenre.ROCK;
+import static org.is.event.EventType.BULK_DELETED;
+import static org.is.event.EventType.CREATED;
+import static org.is.event.EventType.UPDATED;
+
+class SubscriptionChangeDetectorTest {
+
+    private final SubscriptionChangeDetector detector = new SubscriptionChangeDetector();
+
+    @Test
+    void shouldTreatSubscriptionWithoutSnapshotAsAffected() {
+        // Given
+        Subscription<MusicBandFilter> subscription = subscription(MusicBandFilter.builder().genre(ROCK).build());
+
+        // When / Then
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(CREATED, band(1, POST_ROCK, 5L)))).isTrue();
+    }
+
+    @Test
+    void shouldSkipBandsThatNeitherMatchNorAppearOnPage() {
+        // Given
+        Subscription<MusicBandFilter> subscription = subscription(MusicBandFilter.builder().genre(ROCK).minParticipants(3L).build());
+        subscription.setSnapshot(ResultSnapshot.of(new PageImpl<>(List.of(band(1, ROCK, 5L)))));
+
+        // When / Then
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(CREATED, band(2, POST_ROCK, 5L)))).isFalse();
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(CREATED, band(3, ROCK, 2L)))).isFalse();
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(CREATED, band(4, ROCK, 3L)))).isTrue();
+        // Строка со страницы перестала подходить — страница всё равно меняется
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(UPDATED, band(1, POST_ROCK, 5L)))).isTrue();
+    }
+
+    @Test
+    void shouldReactToBandThatLeftFilterOutsideOfPage() {
+        // Given
+        Subscription<MusicBandFilter> subscription = subscription(MusicBandFilter.builder().genre(ROCK).build());
+        subscription.setSnapshot(ResultSnapshot.of(new PageImpl<>(List.of(band(1, ROCK, 5L)))));
+
+        // When / Then
+        // Группа 2 была на другой странице: её уход меняет totalElements и смещения
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(UPDATED, band(2, POST_ROCK, 5L), band(2, ROCK, 5L)))).isTrue();
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(UPDATED, band(3, POST_ROCK, 5L), band(3, POST_ROCK, 4L)))).isFalse();
+    }
+
+    @Test
+    void shouldReactToDependenciesReferencedByPageOrFilter() {
+        // Given
+        Subscription<MusicBandFilter> plain = subscription(MusicBandFilter.builder().build());
+        plain.setSnapshot(ResultSnapshot.of(new PageImpl<>(List.of(band(1, ROCK, 5L)))));
+        Subscription<MusicBandFilter> byFrontMan = subscription(MusicBandFilter.builder().frontManName("John").build());
+        byFrontMan.setSnapshot(ResultSnapshot.of(new PageImpl<>(List.of())));
+
+        // When / Then
+        assertThat(detector.isAffected(plain, new EntityEvent<>(UPDATED, PersonDto.builder().id(101L).build()))).isTrue();
+        assertThat(detector.isAffected(plain, new EntityEvent<>(UPDATED, PersonDto.builder().id(999L).build()))).isFalse();
+        assertThat(detector.isAffected(plain, new EntityEvent<>(UPDATED, AlbumDto.builder().id(999L).build()))).isFalse();
+        assertThat(detector.isAffected(byFrontMan, new EntityEvent<>(UPDATED, PersonDto.builder().id(999L).build()))).isTrue();
+    }
+
+    @Test
+    void shouldMatchAwardsAndCascadedBandDeletion() {
+        // Given
+        Subscription<BestBandAwardFilter> subscription = subscription(BestBandAwardFilter.builder().bandId(7L).build());
+        subscription.setSnapshot(ResultSnapshot.of(new PageImpl<>(List.of(BestBandAwardDto.builder().id(1L).bandId(7L).genre(ROCK).build()))));
+
+        // When / Then
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(CREATED, BestBandAwardDto.builder().id(2L).bandId(8L).build()))).isFalse();
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(CREATED, BestBandAwardDto.builder().id(3L).bandId(7L).build()))).isTrue();
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(UPDATED, band(9, ROCK, 5L)))).isFalse();
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(BULK_DELETED, List.of(band(9, ROCK, 5L))))).isFalse();
+        assertThat(detector.isAffected(subscription, new EntityEvent<>(BULK_DELETED, List.of(band(7, ROCK, 5L))))).isTrue();
+    }
+
+    private static <T extends EntityFilter> Subscription<T> subscription(T filter) {
+        return Subscription.<T>builder().subscriptionId(UUID.randomUUID()).principalId("user").filter(filter).build();
+    }
+
+    private static MusicBandDto band(int id, MusicGenre genre, Long participants) {
+        return MusicBandDto.builder()
+                .id(id)
+                .genre(genre)
+                .numberOfParticipants(participants)
+                .coordinates(CoordinatesDto.builder().id(100L + id).build())
+                .frontMan(PersonDto.builder().id(100L + id).build())
+                .build();
+    }
+
+}
@@ -0,0 +1,188 @@
+package org.is.bandmanager.service.subscription.outbound;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.is.bandmanager.service.subscription.model.Subscription;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubscriptionOutboxTest {
+
+    private static final String PRINCIPAL_ID = "principal";
+
+    private static final String SESSION_ID = "session";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<String> sent = new ArrayList<>();
+
+    private SubscriptionOutbox outbox;
+
+    private Subscription<?> subscription;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new SubscriptionOutbox(meterRegistry, 1, 3, Duration.ofMinutes(1));
+        subscription = Subscription.builder().subscriptionId(UUID.randomUUID()).principalId(PRINCIPAL_ID).sessionId(SESSION_ID).build();
+    }
+
+    @Test
+    void shouldReplacePendingFramesWithNewerSnapshot() {
+        // Given
+        submit("full-1", true);
+        submit("delta-2", false);
+        submit("delta-3", false);
+
+        // When
+        submit("full-4", true);
+        submit("delta-5", false);
+        outbox.onDelivered(subscription.getSubscriptionId());
+        outbox.onDelivered(subscription.getSubscriptionId());
+
+        // Then
+        assertThat(sent).containsExactly("full-1", "full-4", "delta-5");
+        assertThat(meterRegistry.counter("bandmanager.subscription.outbound.dropped").count()).isEqualTo(2);
+        assertThat(meterRegistry.get("bandmanager.subscription.outbound.inflight").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("bandmanager.subscription.outbound.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldResendWhenFrameIsNeverConfirmed() {
+        // Given
+        outbox = new SubscriptionOutbox(meterRegistry, 1, 3, Duration.ZERO);
+
+        // When
+        submit("full-1", true);
+        submit("delta-2", false);
+
+        // Then
+        assertThat(sent).containsExactly("full-1", "delta-2");
+    }
+
+    @Test
+    void shouldConfirmFramesWrittenToSessionAndCloseSlowConsumer() throws Exception {
+        // Given
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        WebSocketSession session = session(SESSION_ID);
+        WebSocketHandler decorated = outbox.decorate(handler);
+        decorated.afterConnectionEstablished(session);
+        ArgumentCaptor<WebSocketSession> tracked = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(tracked.capture());
+
+        // When
+        submit("full-1", true);
+        submit("delta-2", false);
+        tracked.getValue().sendMessage(frame(subscription.getSubscriptionId()));
+        for (int i = 3; i <= 6; i++) {
+            submit("delta-" + i, false);
+        }
+        decorated.afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+
+        // Then
+        assertThat(sent).containsExactly("full-1", "delta-2");
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(meterRegistry.counter("bandmanager.websocket.slow.consumer.disconnects").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bandmanager.subscription.outbound.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldCloseOnlyTabThatOwnsSlowSubscription() throws Exception {
+        // Given
+        WebSocketHandler decorated = outbox.decorate(mock(WebSocketHandler.class));
+        WebSocketSession slowTab = session(SESSION_ID);
+        WebSocketSession otherTab = session("other-session");
+        decorated.afterConnectionEstablished(slowTab);
+        decorated.afterConnectionEstablished(otherTab);
+
+        // When
+        for (int i = 1; i <= 5; i++) {
+            submit("delta-" + i, false);
+        }
+
+        // Then
+        verify(slowTab).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(otherTab, never()).close(any(CloseStatus.class));
+    }
+
+    @Test
+    void shouldKeepLanesOfOpenTabWhenAnotherTabCloses() throws Exception {
+        // Given
+        WebSocketHandler decorated = outbox.decorate(mock(WebSocketHandler.class));
+        WebSocketSession otherTab = session("other-session");
+        decorated.afterConnectionEstablished(session(SESSION_ID));
+        decorated.afterConnectionEstablished(otherTab);
+        submit("full-1", true);
+        submit("delta-2", false);
+
+        // When
+        decorated.afterConnectionClosed(otherTab, CloseStatus.NORMAL);
+        outbox.onDelivered(subscription.getSubscriptionId());
+
+        // Then
+        assertThat(sent).containsExactly("full-1", "delta-2");
+        assertThat(meterRegistry.get("bandmanager.subscription.outbound.inflight").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("bandmanager.subscription.outbound.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldDropLaneOfRemovedSubscription() {
+        // Given
+        submit("full-1", true);
+        submit("delta-2", false);
+
+        // When
+        outbox.remove(subscription.getSubscriptionId());
+        submit("full-3", true);
+
+        // Then
+        assertThat(sent).containsExactly("full-1", "full-3");
+        assertThat(meterRegistry.get("bandmanager.subscription.outbound.inflight").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("bandmanager.subscription.outbound.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldReadSubscriptionIdOnlyFromMessageHeaders() {
+        // Given
+        UUID id = UUID.randomUUID();
+
+        // When / Then
+        assertThat(SubscriptionOutbox.subscriptionIdOf(frame(id))).isEqualTo(id);
+        assertThat(SubscriptionOutbox.subscriptionIdOf(new TextMessage("MESSAGE\ndestination:/user/queue/other\n\n"
+                + "destination:/user/queue/subscriptions-" + id + "\u0000"))).isNull();
+        assertThat(SubscriptionOutbox.subscriptionIdOf(new TextMessage("CONNECTED\nversion:1.2\n\n\u0000"))).isNull();
+    }
+
+    private void submit(String frame, boolean snapshot) {
+        outbox.submit(subscription, snapshot, () -> sent.add(frame));
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.getPrincipal()).thenReturn(() -> PRINCIPAL_ID);
+        return session;
+    }
+
+    private static TextMessage frame(UUID subscriptionId) {
+        return new TextMessage("MESSAGE\ndestination:/user/queue/subscriptions-" + subscriptionId
+                + "\ncontent-type:application/json\nsubscription:sub-0\nmessage-id:1\n\n{}\u0000");
+    }
+
+}
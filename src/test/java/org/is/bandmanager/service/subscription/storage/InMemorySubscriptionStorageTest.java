@@ -4,13 +4,18 @@ import org.is.bandmanager.model.MusicGenre;
 import org.is.bandmanager.repository.filter.BestBandAwardFilter;
 import org.is.bandmanager.repository.filter.MusicBandFilter;
 import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.bandmanager.service.subscription.model.SubscriptionGroup;
 import org.is.bandmanager.service.subscription.model.request.SubscriptionRequest;
 import org.is.util.pageable.PageableRequest;
 import org.is.exception.ServiceException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,11 +27,13 @@ class InMemorySubscriptionStorageTest {
 
     private static final String PRINCIPAL_ID = "test-user-123";
     private static final String ANOTHER_PRINCIPAL_ID = "another-user-456";
+    private static final String SESSION_ID = "session-1";
+    private static final String ANOTHER_SESSION_ID = "session-2";
     private InMemorySubscriptionStorage storage;
 
     @BeforeEach
     void setUp() {
-        storage = new InMemorySubscriptionStorage();
+        storage = new InMemorySubscriptionStorage(Duration.ofMinutes(2));
     }
 
     @Test
@@ -35,12 +42,13 @@ class InMemorySubscriptionStorageTest {
         SubscriptionRequest<BestBandAwardFilter> request = createBestBandAwardSubscriptionRequest();
 
         // When
-        Subscription<BestBandAwardFilter> result = storage.createSubscription(PRINCIPAL_ID, request);
+        Subscription<BestBandAwardFilter> result = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, request);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getSubscriptionId()).isNotNull();
         assertThat(result.getPrincipalId()).isEqualTo(PRINCIPAL_ID);
+        assertThat(result.getSessionId()).isEqualTo(SESSION_ID);
         assertThat(result.getFilter().getGenre()).isEqualTo(MusicGenre.ROCK);
         assertThat(result.getFilter().getBandName()).isEqualTo("Test Band");
         assertThat(result.getPageableRequest()).isNotNull();
@@ -54,7 +62,7 @@ class InMemorySubscriptionStorageTest {
         SubscriptionRequest<MusicBandFilter> request = createMusicBandSubscriptionRequest();
 
         // When
-        Subscription<MusicBandFilter> result = storage.createSubscription(PRINCIPAL_ID, request);
+        Subscription<MusicBandFilter> result = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, request);
 
         // Then
         assertThat(result).isNotNull();
@@ -71,7 +79,7 @@ class InMemorySubscriptionStorageTest {
                 .build();
 
         // When
-        Subscription<BestBandAwardFilter> result = storage.createSubscription(PRINCIPAL_ID, request);
+        Subscription<BestBandAwardFilter> result = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, request);
 
         // Then
         assertThat(result.getPageableRequest()).isNotNull();
@@ -84,7 +92,7 @@ class InMemorySubscriptionStorageTest {
     void shouldUpdateSubscriptionSuccessfully() {
         // Given
         SubscriptionRequest<BestBandAwardFilter> createRequest = createBestBandAwardSubscriptionRequest();
-        Subscription<BestBandAwardFilter> created = storage.createSubscription(PRINCIPAL_ID, createRequest);
+        Subscription<BestBandAwardFilter> created = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createRequest);
 
         SubscriptionRequest<?> updateRequest = SubscriptionRequest
                 .builder()
@@ -103,6 +111,7 @@ class InMemorySubscriptionStorageTest {
         assertThat(result).isNotNull();
         assertThat(result.getSubscriptionId()).isEqualTo(created.getSubscriptionId());
         assertThat(result.getPrincipalId()).isEqualTo(PRINCIPAL_ID);
+        assertThat(result.getSessionId()).isEqualTo(SESSION_ID);
         assertThat(result.getFilter().getGenre()).isEqualTo(MusicGenre.POST_PUNK);
         assertThat(result.getFilter().getBandName()).isEqualTo("Updated Band");
         assertThat(result.getPageableRequest().getPage()).isEqualTo(0);
@@ -143,7 +152,7 @@ class InMemorySubscriptionStorageTest {
     void shouldGetSubscriptionById() {
         // Given
         SubscriptionRequest<BestBandAwardFilter> request = createBestBandAwardSubscriptionRequest();
-        Subscription<BestBandAwardFilter> created = storage.createSubscription(PRINCIPAL_ID, request);
+        Subscription<BestBandAwardFilter> created = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, request);
 
         // When
         Optional<Subscription<BestBandAwardFilter>> result = storage.getSubscription(created.getSubscriptionId());
@@ -172,9 +181,9 @@ class InMemorySubscriptionStorageTest {
         SubscriptionRequest<BestBandAwardFilter> awardRequest = createBestBandAwardSubscriptionRequest();
         SubscriptionRequest<MusicBandFilter> bandRequest = createMusicBandSubscriptionRequest();
 
-        storage.createSubscription(PRINCIPAL_ID, awardRequest);
-        storage.createSubscription(PRINCIPAL_ID, bandRequest);
-        storage.createSubscription(ANOTHER_PRINCIPAL_ID, awardRequest);
+        storage.createSubscription(PRINCIPAL_ID, SESSION_ID, awardRequest);
+        storage.createSubscription(PRINCIPAL_ID, SESSION_ID, bandRequest);
+        storage.createSubscription(ANOTHER_PRINCIPAL_ID, ANOTHER_SESSION_ID, awardRequest);
 
         // When
         List<Subscription<BestBandAwardFilter>> awardSubscriptions =
@@ -206,7 +215,7 @@ class InMemorySubscriptionStorageTest {
     void shouldDeleteSubscriptionSuccessfully() {
         // Given
         SubscriptionRequest<BestBandAwardFilter> request = createBestBandAwardSubscriptionRequest();
-        Subscription<BestBandAwardFilter> created = storage.createSubscription(PRINCIPAL_ID, request);
+        Subscription<BestBandAwardFilter> created = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, request);
 
         // When
         storage.deleteSubscription(created.getSubscriptionId());
@@ -221,17 +230,17 @@ class InMemorySubscriptionStorageTest {
     }
 
     @Test
-    void shouldDeleteAllPrincipalSubscriptions() {
+    void shouldDeleteAllSessionSubscriptions() {
         // Given
         SubscriptionRequest<BestBandAwardFilter> request1 = createBestBandAwardSubscriptionRequest();
         SubscriptionRequest<MusicBandFilter> request2 = createMusicBandSubscriptionRequest();
 
-        Subscription<BestBandAwardFilter> sub1 = storage.createSubscription(PRINCIPAL_ID, request1);
-        Subscription<MusicBandFilter> sub2 = storage.createSubscription(PRINCIPAL_ID, request2);
-        storage.createSubscription(ANOTHER_PRINCIPAL_ID, request1); // Subscription from another user
+        Subscription<BestBandAwardFilter> sub1 = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, request1);
+        Subscription<MusicBandFilter> sub2 = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, request2);
+        storage.createSubscription(ANOTHER_PRINCIPAL_ID, ANOTHER_SESSION_ID, request1); // Subscription from another session
 
         // When
-        List<UUID> deletedIds = storage.deleteAllPrincipalSubscriptions(PRINCIPAL_ID);
+        List<UUID> deletedIds = storage.deleteAllSessionSubscriptions(SESSION_ID);
 
         // Then
         assertThat(deletedIds).hasSize(2);
@@ -240,16 +249,16 @@ class InMemorySubscriptionStorageTest {
         assertThat(storage.getSubscription(sub1.getSubscriptionId())).isEmpty();
         assertThat(storage.getSubscription(sub2.getSubscriptionId())).isEmpty();
 
-        // Subscription from another user should still exist
+        // Subscription from another session should still exist
         List<Subscription<BestBandAwardFilter>> remaining =
                 storage.getSubscriptionsByType(BestBandAwardFilter.class);
         assertThat(remaining).hasSize(1);
     }
 
     @Test
-    void shouldReturnEmptyListWhenDeletingNonExistentPrincipalSubscriptions() {
+    void shouldReturnEmptyListWhenDeletingNonExistentSessionSubscriptions() {
         // When
-        List<UUID> result = storage.deleteAllPrincipalSubscriptions("non-existent-principal");
+        List<UUID> result = storage.deleteAllSessionSubscriptions("non-existent-session");
 
         // Then
         assertThat(result).isEmpty();
@@ -259,7 +268,7 @@ class InMemorySubscriptionStorageTest {
     void shouldUpdateSubscriptionWithDifferentFilterType() {
         // Given
         SubscriptionRequest<BestBandAwardFilter> createRequest = createBestBandAwardSubscriptionRequest();
-        Subscription<BestBandAwardFilter> created = storage.createSubscription(PRINCIPAL_ID, createRequest);
+        Subscription<BestBandAwardFilter> created = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createRequest);
 
         SubscriptionRequest<MusicBandFilter> updateRequest = SubscriptionRequest.<MusicBandFilter>builder()
                 .subscriptionId(created.getSubscriptionId())
@@ -283,6 +292,115 @@ class InMemorySubscriptionStorageTest {
         assertThat(bandSubscriptions).hasSize(1);
     }
 
+    @Test
+    void shouldGroupSubscriptionsWithEqualFilterAndPage() {
+        // Given
+        Subscription<MusicBandFilter> first = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createMusicBandSubscriptionRequest());
+        Subscription<MusicBandFilter> second = storage.createSubscription(ANOTHER_PRINCIPAL_ID, ANOTHER_SESSION_ID, createMusicBandSubscriptionRequest());
+        SubscriptionRequest<MusicBandFilter> otherPage = createMusicBandSubscriptionRequest();
+        otherPage.getPageableRequest().setPage(1);
+        Subscription<MusicBandFilter> third = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, otherPage);
+
+        // When
+        List<SubscriptionGroup<MusicBandFilter>> groups = storage.getSubscriptionGroupsByType(MusicBandFilter.class);
+
+        // Then
+        assertThat(groups).hasSize(2);
+        assertThat(groups).extracting(group -> group.subscriptions().size()).containsExactlyInAnyOrder(2, 1);
+        assertThat(storage.getSubscriptionGroupKey(first.getSubscriptionId()))
+                .containsSame(storage.getSubscriptionGroupKey(second.getSubscriptionId()).orElseThrow());
+        assertThat(storage.getSubscriptionGroupKey(third.getSubscriptionId())).isNotEqualTo(storage.getSubscriptionGroupKey(first.getSubscriptionId()));
+        assertThat(storage.getSubscriptionGroupsByType(BestBandAwardFilter.class)).isEmpty();
+    }
+
+    @Test
+    void shouldDropEmptyGroupsAndMoveUpdatedSubscriptions() {
+        // Given
+        Subscription<MusicBandFilter> first = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createMusicBandSubscriptionRequest());
+        Subscription<MusicBandFilter> second = storage.createSubscription(ANOTHER_PRINCIPAL_ID, ANOTHER_SESSION_ID, createMusicBandSubscriptionRequest());
+        SubscriptionRequest<MusicBandFilter> updateRequest = SubscriptionRequest.<MusicBandFilter>builder()
+                .subscriptionId(second.getSubscriptionId())
+                .filter(createMusicBandFilter().toBuilder().genre(MusicGenre.SOUL).build())
+                .build();
+
+        // When
+        storage.updateSubscription(updateRequest);
+        storage.deleteSubscription(first.getSubscriptionId());
+
+        // Then
+        List<SubscriptionGroup<MusicBandFilter>> groups = storage.getSubscriptionGroupsByType(MusicBandFilter.class);
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0).subscriptions()).extracting(Subscription::getSubscriptionId).containsExactly(second.getSubscriptionId());
+        assertThat(groups.get(0).key().filter()).isEqualTo(updateRequest.getFilter());
+    }
+
+    @Test
+    void shouldExpireSessionsSilentLongerThanIdleTimeout() {
+        // Given
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        storage = new InMemorySubscriptionStorage(clock, Duration.ofMinutes(2));
+        Subscription<MusicBandFilter> silentBand = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createMusicBandSubscriptionRequest());
+        Subscription<BestBandAwardFilter> silentAward = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createBestBandAwardSubscriptionRequest());
+        Subscription<MusicBandFilter> alive = storage.createSubscription(ANOTHER_PRINCIPAL_ID, ANOTHER_SESSION_ID, createMusicBandSubscriptionRequest());
+        clock.advance(Duration.ofSeconds(90));
+        storage.touchSession(ANOTHER_SESSION_ID);
+
+        // When
+        List<UUID> beforeTimeout = storage.deleteDeadSubscriptions();
+        clock.advance(Duration.ofMinutes(1));
+        List<UUID> afterTimeout = storage.deleteDeadSubscriptions();
+        clock.advance(Duration.ofMinutes(1));
+        List<UUID> afterHeartbeatTimeout = storage.deleteDeadSubscriptions();
+
+        // Then
+        assertThat(beforeTimeout).isEmpty();
+        assertThat(afterTimeout).containsExactlyInAnyOrder(silentBand.getSubscriptionId(), silentAward.getSubscriptionId());
+        assertThat(afterHeartbeatTimeout).containsExactly(alive.getSubscriptionId());
+        assertThat(storage.getSubscriptionsByType(MusicBandFilter.class)).isEmpty();
+        assertThat(storage.getSubscriptionGroupsByType(MusicBandFilter.class)).isEmpty();
+        assertThat(storage.deleteAllSessionSubscriptions(SESSION_ID)).isEmpty();
+    }
+
+    @Test
+    void shouldNotExpireSessionWithRecreatedSubscriptionEarly() {
+        // Given
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        storage = new InMemorySubscriptionStorage(clock, Duration.ofMinutes(2));
+        Subscription<MusicBandFilter> cancelled = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createMusicBandSubscriptionRequest());
+        storage.deleteSubscription(cancelled.getSubscriptionId());
+        clock.advance(Duration.ofMinutes(1));
+        Subscription<MusicBandFilter> recreated = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createMusicBandSubscriptionRequest());
+
+        // When
+        clock.advance(Duration.ofSeconds(90));
+        List<UUID> afterFirstDeadline = storage.deleteDeadSubscriptions();
+        clock.advance(Duration.ofMinutes(1));
+        List<UUID> afterSecondDeadline = storage.deleteDeadSubscriptions();
+
+        // Then
+        assertThat(afterFirstDeadline).isEmpty();
+        assertThat(afterSecondDeadline).containsExactly(recreated.getSubscriptionId());
+    }
+
+    @Test
+    void shouldExpireSilentTabWhileAnotherTabOfSamePrincipalIsAlive() {
+        // Given
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        storage = new InMemorySubscriptionStorage(clock, Duration.ofMinutes(2));
+        Subscription<MusicBandFilter> silentTab = storage.createSubscription(PRINCIPAL_ID, SESSION_ID, createMusicBandSubscriptionRequest());
+        Subscription<MusicBandFilter> aliveTab = storage.createSubscription(PRINCIPAL_ID, ANOTHER_SESSION_ID, createMusicBandSubscriptionRequest());
+
+        // When
+        clock.advance(Duration.ofSeconds(90));
+        storage.touchSession(ANOTHER_SESSION_ID);
+        clock.advance(Duration.ofMinutes(1));
+        List<UUID> removed = storage.deleteDeadSubscriptions();
+
+        // Then
+        assertThat(removed).containsExactly(silentTab.getSubscriptionId());
+        assertThat(storage.getSubscription(aliveTab.getSubscriptionId())).isPresent();
+    }
+
     private SubscriptionRequest<BestBandAwardFilter> createBestBandAwardSubscriptionRequest() {
         return SubscriptionRequest.<BestBandAwardFilter>builder()
                 .filter(createBestBandAwardFilter())
@@ -314,4 +432,33 @@ class InMemorySubscriptionStorageTest {
                 .build();
     }
 
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package org.is.bandmanager.service.subscription.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.is.bandmanager.repository.filter.MusicBandFilter;
+import org.is.bandmanager.service.subscription.model.Subscription;
+import org.is.bandmanager.service.subscription.model.SubscriptionGroup;
+import org.is.bandmanager.service.subscription.model.request.SubscriptionRequest;
+import org.is.exception.ServiceException;
+import org.is.util.pageable.PageableRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Хранилище на 100k подписок: одни потоки создают, меняют и удаляют подписки, другие обходят группы,
+// как рассылка событий. Запуск: -Dband-manager.benchmark=true
+@Slf4j
+@EnabledIfSystemProperty(named = "band-manager.benchmark", matches = "true")
+class SubscriptionStorageChurnBenchmarkTest {
+
+    private static final int SUBSCRIPTIONS = 100_000;
+
+    private static final int FILTERS = 1_000;
+
+    private static final int PRINCIPALS = 500;
+
+    private static final int WRITERS = 4;
+
+    private static final int READERS = 4;
+
+    private static final int OPERATIONS_PER_WRITER = 100_000;
+
+    @Test
+    void churn() throws Exception {
+        // Given
+        InMemorySubscriptionStorage storage = new InMemorySubscriptionStorage(Duration.ofMinutes(2));
+        List<UUID> seeded = new ArrayList<>(SUBSCRIPTIONS);
+        Random seed = new Random(42);
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            seeded.add(create(storage, seed).getSubscriptionId());
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger deleted = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        List<Long> readLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        // When
+        for (int thread = 0; thread < WRITERS; thread++) {
+            Random random = new Random(thread);
+            List<UUID> own = seeded.subList(thread * SUBSCRIPTIONS / WRITERS, (thread + 1) * SUBSCRIPTIONS / WRITERS);
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    UUID id = own.get(random.nextInt(own.size()));
+                    switch (random.nextInt(3)) {
+                        case 0 -> {
+                            create(storage, random);
+                            created.incrementAndGet();
+                        }
+                        case 1 -> {
+                            try {
+                                storage.updateSubscription(request(id, random));
+                            } catch (ServiceException e) {
+                                // Подписка уже удалена этим же потоком
+                            }
+                        }
+                        default -> {
+                            if (storage.getSubscription(id).isPresent()) {
+                                storage.deleteSubscription(id);
+                                deleted.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int thread = 0; thread < READERS; thread++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    long began = System.nanoTime();
+                    long members = 0;
+                    for (SubscriptionGroup<MusicBandFilter> group : storage.getSubscriptionGroupsByType(MusicBandFilter.class)) {
+                        members += group.subscriptions().size();
+                    }
+                    assertThat(members).isPositive();
+                    readLatencies.add(System.nanoTime() - began);
+                    reads.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        long elapsed = System.nanoTime() - began;
+        writing.set(false);
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+
+        // Then
+        int expected = SUBSCRIPTIONS + created.get() - deleted.get();
+        List<Subscription<MusicBandFilter>> subscriptions = storage.getSubscriptionsByType(MusicBandFilter.class);
+        long grouped = storage.getSubscriptionGroupsByType(MusicBandFilter.class).stream()
+                .mapToLong(group -> group.subscriptions().size())
+                .sum();
+        assertThat(subscriptions).hasSize(expected);
+        assertThat(grouped).isEqualTo(expected);
+
+        List<Long> sorted = readLatencies.stream().sorted().toList();
+        log.info("Subscription storage churn subscriptions={} writes={} throughput={}/s reads={} read p50={}ms p99={}ms max={}ms",
+                expected, WRITERS * OPERATIONS_PER_WRITER, Math.round(WRITERS * OPERATIONS_PER_WRITER / (elapsed / 1e9)),
+                reads.get(), percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000;
+    }
+
+    // У каждого пользователя одна сессия
+    private static Subscription<MusicBandFilter> create(InMemorySubscriptionStorage storage, Random random) {
+        int principal = random.nextInt(PRINCIPALS);
+        return storage.createSubscription("principal-" + principal, "session-" + principal, request(null, random));
+    }
+
+    private static SubscriptionRequest<MusicBandFilter> request(UUID subscriptionId, Random random) {
+        return SubscriptionRequest.<MusicBandFilter>builder()
+                .subscriptionId(subscriptionId)
+                .filter(MusicBandFilter.builder().name("band-" + random.nextInt(FILTERS)).build())
+                .pageableRequest(new PageableRequest())
+                .build();
+    }
+
+}
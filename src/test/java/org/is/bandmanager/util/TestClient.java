@@ -3,6 +3,7 @@ package org.is.bandmanager.util;
 import lombok.NoArgsConstructor;
 import org.is.auth.dto.request.UserRequest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -76,12 +77,27 @@ public class TestClient {
                 .exchange();
     }
 
+    public WebTestClient.ResponseSpec getIfNoneMatch(String eTag, String uri, Object... uriVariables) {
+        return withAuth(
+                client.get().uri(uri, uriVariables)
+                        .ifNoneMatch(eTag))
+                .exchange();
+    }
+
     public WebTestClient.ResponseSpec delete(String uri, Object... uriVariables) {
         return withAuth(
                 client.delete().uri(uri, uriVariables))
                 .exchange();
     }
 
+    public WebTestClient.ResponseSpec deleteWithBody(String uri, Object body, Object... uriVariables) {
+        return withAuth(
+                client.method(HttpMethod.DELETE).uri(uri, uriVariables)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body))
+                .exchange();
+    }
+
     public WebTestClient.RequestHeadersSpec<?> withAuth(WebTestClient.RequestHeadersSpec<?> request) {
         if (authToken != null) {
             request.header("Authorization", "Bearer " + authToken);